@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.console;
+
+import it.units.inginf.male.evaluators.TreeEvaluationException;
+import it.units.inginf.male.objective.Ranking;
+import it.units.inginf.male.strategy.ExecutionListener;
+import it.units.inginf.male.strategy.ExecutionListenerFactory;
+import it.units.inginf.male.strategy.ExecutionStrategy;
+import it.units.inginf.male.strategy.RunStrategy;
+import it.units.inginf.male.tree.Node;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A silent listener for the benchmark mode: counts the generations and the evaluated chars, and keeps the best
+ * individual of the final populations.
+ * Chars are counted like Results.characterEvaluations: a generation evaluates its population on the
+ * current dataset, cached results included. The actual evaluations are counted by the evaluator.
+ * @author MaleLabTs
+ */
+public class BenchmarkExecutionListener implements ExecutionListener, ExecutionListenerFactory {
+
+    private final AtomicLong generations = new AtomicLong();
+    private final AtomicLong characterEvaluations = new AtomicLong();
+    private final AtomicLong failedJobs = new AtomicLong();
+    private Ranking best = null;
+
+    @Override
+    public void evolutionStarted(RunStrategy strategy) {
+    }
+
+    @Override
+    public void logGeneration(RunStrategy strategy, int generation, Node best, double[] fitness, List<Ranking> population) {
+        generations.incrementAndGet();
+        characterEvaluations.addAndGet((long) strategy.getContext().getCurrentDataSet().getNumberOfChars() * population.size());
+    }
+
+    @Override
+    public void evolutionComplete(RunStrategy strategy, int generation, List<Ranking> population) {
+        if (!population.isEmpty()) {
+            updateBest(population.get(0));
+        }
+    }
+
+    @Override
+    public void evolutionFailed(RunStrategy strategy, TreeEvaluationException cause) {
+        failedJobs.incrementAndGet();
+    }
+
+    @Override
+    public void evolutionStopped() {
+    }
+
+    @Override
+    public void register(ExecutionStrategy strategy) {
+        //NO OP
+    }
+
+    @Override
+    public ExecutionListener getNewListener() {
+        return this;
+    }
+
+    /**
+     * Fitness arrays are compared in lexicographic order, like CoolTextualExecutionListener.updateBest
+     * @param candidate
+     */
+    private synchronized void updateBest(Ranking candidate) {
+        if (best == null) {
+            best = candidate;
+            return;
+        }
+        double[] bestFitness = best.getFitness();
+        double[] candidateFitness = candidate.getFitness();
+        for (int i = 0; i < bestFitness.length; i++) {
+            if (bestFitness[i] > candidateFitness[i]) {
+                best = candidate;
+                return;
+            }
+            if (bestFitness[i] < candidateFitness[i]) {
+                return;
+            }
+        }
+    }
+
+    public long getGenerations() {
+        return generations.get();
+    }
+
+    public long getCharacterEvaluations() {
+        return characterEvaluations.get();
+    }
+
+    public long getFailedJobs() {
+        return failedJobs.get();
+    }
+
+    /**
+     * @return the best individual of the final populations, null when no job completed
+     */
+    public synchronized Ranking getBest() {
+        return best;
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.console;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import it.units.inginf.male.configuration.Configuration;
+import it.units.inginf.male.dto.BenchmarkReport;
+import it.units.inginf.male.dto.SimpleConfig;
+import it.units.inginf.male.evaluators.CachedEvaluator;
+import it.units.inginf.male.evaluators.DefaultTreeEvaluator;
+import it.units.inginf.male.objective.Ranking;
+import it.units.inginf.male.strategy.ExecutionListenerFactory;
+import it.units.inginf.male.strategy.impl.MetricsExecutionListener;
+import it.units.inginf.male.utils.PatternCache;
+import it.units.inginf.male.utils.Utils;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The console benchmark mode: runs the configured evolution, with the fixed configuration seed, for a number of
+ * warm up iterations and then for a number of measured iterations, without the textual interface and without
+ * postprocessing. Every iteration builds a new configuration, so it starts with an empty evaluation cache, and the shared
+ * PatternCache is cleared, so every iteration pays the pattern compilations like a real run. The counters of the shared
+ * MetricsRegistry are not reset, the exported metrics are totals since the start of the benchmark.
+ * Evaluations are counted by the evaluator (when it is a DefaultTreeEvaluator): the results served by the cache
+ * are not evaluations.
+ * The measurements are saved into a JSON {@link BenchmarkReport}.
+ * @author MaleLabTs
+ */
+public class ConsoleBenchmark {
+
+    private final SimpleConfig simpleConfig;
+
+    public ConsoleBenchmark(SimpleConfig simpleConfig) {
+        this.simpleConfig = simpleConfig;
+    }
+
+    /**
+     * Runs the iterations and saves the report
+     * @param reportFileName the JSON report file
+     * @param warmupIterations the number of warm up (not measured) iterations
+     * @param iterations the number of measured iterations
+     * @return the report
+     * @throws Exception
+     */
+    public BenchmarkReport run(String reportFileName, int warmupIterations, int iterations) throws Exception {
+        BenchmarkReport report = new BenchmarkReport();
+        try {
+            report.machineHardwareSpecifications = Utils.cpuInfo();
+        } catch (IOException ex) {
+            //This is an optional information
+        }
+        report.vmArguments = ManagementFactory.getRuntimeMXBean().getInputArguments();
+        report.datasetName = simpleConfig.datasetName;
+        report.numberThreads = simpleConfig.numberThreads;
+        report.numberOfJobs = simpleConfig.numberOfJobs;
+        report.generations = simpleConfig.generations;
+        report.populationSize = simpleConfig.populationSize;
+        report.isStriped = simpleConfig.isStriped;
+        report.isFlagging = simpleConfig.isFlagging;
+        report.comment = simpleConfig.comment;
+
+        for (int i = 0; i < warmupIterations + iterations; i++) {
+            boolean warmup = i < warmupIterations;
+            BenchmarkReport.Iteration iteration = runIteration(report);
+            (warmup ? report.warmupIterations : report.iterations).add(iteration);
+            System.out.println(String.format("%s %d: %.2f generations/s, %.2f evaluations/s, %.0f chars/s, best: %s",
+                    warmup ? "Warm up" : "Iteration", warmup ? i + 1 : i - warmupIterations + 1,
+                    iteration.generationsPerSecond, iteration.evaluationsPerSecond, iteration.charactersPerSecond, iteration.bestSolution));
+        }
+        summarize(report);
+
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(reportFileName), StandardCharsets.UTF_8)) {
+            Gson gson = new GsonBuilder().setPrettyPrinting().create();
+            gson.toJson(report, writer);
+        }
+        return report;
+    }
+
+    private BenchmarkReport.Iteration runIteration(BenchmarkReport report) throws Exception {
+        Configuration configuration = simpleConfig.buildConfiguration();
+        report.seed = configuration.getInitialSeed();
+        report.datasetExamples = simpleConfig.dataset.getNumberExamples();
+        report.datasetChars = simpleConfig.dataset.getNumberOfChars();
+        BenchmarkExecutionListener listener = new BenchmarkExecutionListener();
+        ExecutionListenerFactory listenerFactory = listener;
+        MetricsExecutionListener metricsListener = null;
+        if (simpleConfig.metricsFileName != null) {
+            //exports when a job completes
+            metricsListener = new MetricsExecutionListener(listener, new File(simpleConfig.metricsFileName), Long.MAX_VALUE);
+            listenerFactory = metricsListener;
+        }
+
+        PatternCache.getInstance().clear();
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = getHeapPools();
+        for (MemoryPoolMXBean pool : heapPools) {
+            pool.resetPeakUsage();
+        }
+        long gcCount = getGcCount();
+        long gcTime = getGcTime();
+        long startTime = System.nanoTime();
+        configuration.getStrategy().execute(configuration, listenerFactory);
+        long elapsedNanos = System.nanoTime() - startTime;
+        if (metricsListener != null) {
+            metricsListener.export();
+        }
+
+        BenchmarkReport.Iteration iteration = new BenchmarkReport.Iteration();
+        iteration.gcCount = getGcCount() - gcCount;
+        iteration.gcTimeMillis = getGcTime() - gcTime;
+        for (MemoryPoolMXBean pool : heapPools) {
+            iteration.peakHeapBytes += pool.getPeakUsage().getUsed();
+        }
+        double seconds = elapsedNanos / 1e9;
+        iteration.elapsedMillis = elapsedNanos / 1000000;
+        iteration.generations = listener.getGenerations();
+        iteration.characterEvaluations = listener.getCharacterEvaluations();
+        iteration.generationsPerSecond = iteration.generations / seconds;
+        iteration.charactersPerSecond = iteration.characterEvaluations / seconds;
+        if (configuration.getEvaluator() instanceof DefaultTreeEvaluator) {
+            iteration.evaluations = ((DefaultTreeEvaluator) configuration.getEvaluator()).getEvaluations();
+            iteration.evaluationsPerSecond = iteration.evaluations / seconds;
+        }
+        if (configuration.getEvaluator() instanceof CachedEvaluator) {
+            CachedEvaluator evaluator = (CachedEvaluator) configuration.getEvaluator();
+            iteration.cacheHitRatio = evaluator.getRatio();
+            iteration.cacheEvictions = evaluator.getEvictions();
+        }
+        iteration.failedJobs = listener.getFailedJobs();
+        Ranking best = listener.getBest();
+        if (best != null) {
+            iteration.bestSolution = best.getDescription();
+            iteration.bestFitness = best.getFitness();
+        }
+        return iteration;
+    }
+
+    private static void summarize(BenchmarkReport report) {
+        int count = report.iterations.size();
+        if (count == 0) {
+            return;
+        }
+        double cacheHitRatio = 0;
+        double evaluationsPerSecond = 0;
+        for (BenchmarkReport.Iteration iteration : report.iterations) {
+            report.generationsPerSecond += iteration.generationsPerSecond / count;
+            report.charactersPerSecond += iteration.charactersPerSecond / count;
+            report.gcTimeMillis += (double) iteration.gcTimeMillis / count;
+            report.peakHeapBytes = Math.max(report.peakHeapBytes, iteration.peakHeapBytes);
+            if (iteration.evaluationsPerSecond != null) {
+                evaluationsPerSecond += iteration.evaluationsPerSecond / count;
+                report.evaluationsPerSecond = evaluationsPerSecond;
+            }
+            if (iteration.cacheHitRatio != null) {
+                cacheHitRatio += iteration.cacheHitRatio / count;
+                report.cacheHitRatio = cacheHitRatio;
+            }
+        }
+    }
+
+    private static List<MemoryPoolMXBean> getHeapPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+
+    private static long getGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long getGcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, collector.getCollectionTime());
+        }
+        return time;
+    }
+}
@@ -17,25 +17,24 @@
  */
 package it.units.inginf.male.console;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import it.units.inginf.male.Main;
 import it.units.inginf.male.configuration.Configuration;
 import it.units.inginf.male.dto.SimpleConfig;
 import it.units.inginf.male.inputs.DataSet;
 import it.units.inginf.male.inputs.DataSet.Example;
+import it.units.inginf.male.inputs.DataSetLoader;
+import it.units.inginf.male.inputs.MappedDataSetWriter;
 import it.units.inginf.male.outputs.FinalSolution;
 import it.units.inginf.male.outputs.Results;
 import it.units.inginf.male.postprocessing.BasicPostprocessor;
 import it.units.inginf.male.postprocessing.JsonPostProcessor;
+import it.units.inginf.male.strategy.ExecutionListenerFactory;
 import it.units.inginf.male.strategy.ExecutionStrategy;
 import it.units.inginf.male.strategy.impl.CoolTextualExecutionListener;
+import it.units.inginf.male.strategy.impl.MetricsExecutionListener;
 import it.units.inginf.male.utils.Utils;
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -46,6 +45,8 @@ import java.util.logging.Logger;
  */
 public class ConsoleRegexTurtle {
 
+    private static final long METRICS_EXPORT_INTERVAL_MILLIS = 10000;
+
     private static String WARNING_MESSAGE = "\nWARNING\n"
             + "The quality of the solution depends on a number of factors, including size and syntactical properties of the learning information.\n"
             + "The algorithms embedded in this experimental prototype have always been tested with at least 25 matches over at least 2 examples.\n"
@@ -71,6 +72,18 @@ public class ConsoleRegexTurtle {
 
         parseArgs(args, simpleConfiguration);
 
+        if (simpleConfiguration.binaryDatasetName != null) {
+            try {
+                MappedDataSetWriter.convert(new File(simpleConfiguration.datasetName), new File(simpleConfiguration.binaryDatasetName));
+                System.out.println("Binary dataset saved into " + simpleConfiguration.binaryDatasetName);
+                System.exit(0);
+            } catch (IOException ex) {
+                System.out.println("Problem converting the dataset file " + simpleConfiguration.datasetName + "\n");
+                Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
+                System.exit(1);
+            }
+        }
+
         try {
             simpleConfiguration.dataset = loadDataset(simpleConfiguration.datasetName);
         } catch (IOException ex) {
@@ -89,6 +102,17 @@ public class ConsoleRegexTurtle {
         if (simpleConfiguration.dataset.getNumberMatches() < 25 || numberPositiveExamples < 2) {
             message = WARNING_MESSAGE;
         }
+        if (simpleConfiguration.benchmarkReportName != null) {
+            try {
+                new ConsoleBenchmark(simpleConfiguration).run(simpleConfiguration.benchmarkReportName,
+                        simpleConfiguration.benchmarkWarmupIterations, simpleConfiguration.benchmarkIterations);
+                System.out.println("Benchmark report saved into " + simpleConfiguration.benchmarkReportName);
+                System.exit(0);
+            } catch (Exception ex) {
+                Logger.getLogger(ConsoleRegexTurtle.class.getName()).log(Level.SEVERE, null, ex);
+                System.exit(1);
+            }
+        }
         Configuration config = simpleConfiguration.buildConfiguration();
         //change defaults for console usage
         config.setPostProcessor(new JsonPostProcessor());
@@ -104,14 +128,23 @@ public class ConsoleRegexTurtle {
             Logger.getLogger(ConsoleRegexTurtle.class.getName()).log(Level.SEVERE, null, ex);
         }
         CoolTextualExecutionListener consolelistener = new CoolTextualExecutionListener(message, config, results);
+        ExecutionListenerFactory listenerFactory = consolelistener;
+        MetricsExecutionListener metricsListener = null;
+        if (simpleConfiguration.metricsFileName != null) {
+            metricsListener = new MetricsExecutionListener(consolelistener, new File(simpleConfiguration.metricsFileName), METRICS_EXPORT_INTERVAL_MILLIS);
+            listenerFactory = metricsListener;
+        }
 
         long startTime = System.currentTimeMillis();
         ExecutionStrategy strategy = config.getStrategy();
         try {
-            strategy.execute(config, consolelistener);
+            strategy.execute(config, listenerFactory);
         } catch (Exception ex) {
             Logger.getLogger(ConsoleRegexTurtle.class.getName()).log(Level.SEVERE, null, ex);
         }
+        if (metricsListener != null) {
+            metricsListener.export();
+        }
 
         if (config.getPostProcessor() != null) {
             startTime = System.currentTimeMillis() - startTime;
@@ -121,24 +154,8 @@ public class ConsoleRegexTurtle {
     }
 
     private static DataSet loadDataset(String dataSetFilename) throws IOException {
-        FileInputStream fis = new FileInputStream(new File(dataSetFilename));
-        InputStreamReader isr = new InputStreamReader(fis);
-        StringBuilder sb;
-        try (BufferedReader bufferedReader = new BufferedReader(isr)) {
-            sb = new StringBuilder();
-            String line;
-            while ((line = bufferedReader.readLine()) != null) {
-                sb.append(line);
-            }
-        }
-        String json = sb.toString();
-        return loadDatasetJson(json);
-    }
-
-    private static DataSet loadDatasetJson(String jsonDataset) {
-        Gson gson = new GsonBuilder().disableHtmlEscaping().create();
-        DataSet dataset = gson.fromJson(jsonDataset, DataSet.class);
-        return dataset;
+        //statistics are needed by the learning size warning
+        return DataSetLoader.load(new File(dataSetFilename), true);
     }
 
     private static void writeBestPerformances(FinalSolution solution, boolean isFlagging) {
@@ -204,11 +221,18 @@ public class ConsoleRegexTurtle {
             + "-j number of Jobs, default si 32\n"
             + "-e percentange of number generations, defines a threshold for the separate and conquer split criteria, when best doesn't change for the provided % of generation the Job evolution separates the dataset.\n"
             + "   Default is 20%, 200 geberations with default 1000 generations.\n"
-            + "-d path of the dataset json file containing the examples, this parameter is mandatory.\n"
+            + "-d path of the dataset json file containing the examples, this parameter is mandatory. A binary dataset file (see -b) can be used in place of the json file.\n"
+            + "-b path of a binary dataset file: converts the -d json dataset into the binary (memory mapped) format and exits. Large binary datasets are loaded without keeping the examples text in the heap.\n"
             + "-o name of the output folder, results.json is saved into this folder; default is '.'\n"
             + "-x boolean, populates an extra field in results file, when 'true' adds all dataset examples in the results file 'examples' field, default is 'false'\n"
             + "-s boolean, when 'true' enables dataset striping, striping is an experimental feature, default is disabled: 'false'\n"
             + "-c adds an optional comment string\n"
+            + "-metrics path of a metrics file: exports the runtime metrics (evaluation, compile, fitness, ranking, variation and generation times, cache\n"
+            + "   and aborted evaluations counters) during the evolution; JSON when the name ends with '.json', Prometheus text format otherwise\n"
+            + "-bench path of a JSON performance report: runs the evolution in benchmark mode, without the textual interface and without saving the results, and saves\n"
+            + "   generations/s, evaluations/s, characters/s, cache hit ratio, GC time and peak heap of every iteration into the report. The seed is fixed.\n"
+            + "-bw number of benchmark warm up iterations, default is 1\n"
+            + "-bi number of benchmark measured iterations, default is 3\n"
             + "-f enables the flagging mode: solves a flagging problem with a separate-and-conquer strategy\n"
             + "-h visualizes this help message\n";
 
@@ -257,6 +281,21 @@ public class ConsoleRegexTurtle {
                     case "-s":
                         simpleConfig.isStriped = Boolean.valueOf(parameter);
                         break;
+                    case "-b":
+                        simpleConfig.binaryDatasetName = parameter;
+                        break;
+                    case "-metrics":
+                        simpleConfig.metricsFileName = parameter;
+                        break;
+                    case "-bench":
+                        simpleConfig.benchmarkReportName = parameter;
+                        break;
+                    case "-bw":
+                        simpleConfig.benchmarkWarmupIterations = Integer.valueOf(parameter);
+                        break;
+                    case "-bi":
+                        simpleConfig.benchmarkIterations = Integer.valueOf(parameter);
+                        break;
                     case "-f":
                         simpleConfig.isFlagging = true;
                         i=i-1; //Do not use parameter
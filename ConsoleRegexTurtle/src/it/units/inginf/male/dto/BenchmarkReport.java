@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.dto;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The performance report of the console benchmark mode, saved as JSON.
+ * Rates are per second of evolution (wall clock time), memory and GC values refer to the whole JVM.
+ * @author MaleLabTs
+ */
+public class BenchmarkReport {
+
+    public Date date = new Date();
+    public String machineHardwareSpecifications;
+    public String javaVersion = System.getProperty("java.version");
+    public String vmName = System.getProperty("java.vm.name");
+    public List<String> vmArguments;
+    public int availableProcessors = Runtime.getRuntime().availableProcessors();
+    public long maxHeapBytes = Runtime.getRuntime().maxMemory();
+
+    public String datasetName;
+    public int datasetExamples;
+    public long datasetChars;
+    public long seed;
+    public int numberThreads;
+    public int numberOfJobs;
+    public int generations;
+    public int populationSize;
+    public boolean isStriped;
+    public boolean isFlagging;
+    public String comment;
+
+    public List<Iteration> warmupIterations = new ArrayList<>();
+    public List<Iteration> iterations = new ArrayList<>();
+    //means over the measured iterations
+    public double generationsPerSecond;
+    public double charactersPerSecond;
+    public double gcTimeMillis;
+    //null when the evaluator does not count its evaluations
+    public Double evaluationsPerSecond;
+    //null when the evaluator is not cached
+    public Double cacheHitRatio;
+    //maximum over the measured iterations
+    public long peakHeapBytes;
+
+    public static class Iteration {
+
+        public long elapsedMillis;
+        public long generations;
+        //evaluations run by the evaluator, cached results excluded; null when the evaluator does not count them
+        public Long evaluations;
+        public Double evaluationsPerSecond;
+        public long characterEvaluations;
+        public double generationsPerSecond;
+        public double charactersPerSecond;
+        //null when the evaluator is not cached
+        public Double cacheHitRatio;
+        public long cacheEvictions;
+        public long gcCount;
+        public long gcTimeMillis;
+        //sum of the peak usages of the heap memory pools
+        public long peakHeapBytes;
+        public long failedJobs;
+        public String bestSolution;
+        public double[] bestFitness;
+    }
+}
@@ -51,6 +51,11 @@ public class SimpleConfig {
     
     transient public String datasetName;
     transient public String outputFolder;
+    transient public String binaryDatasetName;
+    transient public String metricsFileName;
+    transient public String benchmarkReportName;
+    transient public int benchmarkWarmupIterations = 1;
+    transient public int benchmarkIterations = 3;
 
     /**
      * Percentange [0,100] of the number of the generations used for the Spared termination
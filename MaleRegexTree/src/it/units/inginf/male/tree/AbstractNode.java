@@ -28,6 +28,10 @@ public abstract class AbstractNode implements Node {
 
     private List<Node> childrens;
     private long id;
+    //cached descriptions, by RegexFlavour ordinal
+    private transient volatile String[] descriptions;
+    //cached structural hash, zero when it is not computed
+    private transient volatile long structuralHash;
 
     @Override
     public long getId() {
@@ -46,9 +50,95 @@ public abstract class AbstractNode implements Node {
 
     @Override
     public void describe(StringBuilder builder) {
-        describe(builder, new DescriptionContext(), RegexFlavour.JAVA);
+        builder.append(getDescription(RegexFlavour.JAVA));
+    }
+
+    @Override
+    public String getDescription() {
+        return getDescription(RegexFlavour.JAVA);
+    }
+
+    @Override
+    public String getDescription(RegexFlavour flavour) {
+        //racing threads build the same immutable string, the cache needs no locking
+        String[] cache = descriptions;
+        if (cache == null) {
+            cache = new String[RegexFlavour.values().length];
+            descriptions = cache;
+        }
+        String description = cache[flavour.ordinal()];
+        if (description == null) {
+            StringBuilder builder = new StringBuilder();
+            describe(builder, new DescriptionContext(), flavour);
+            description = builder.toString();
+            cache[flavour.ordinal()] = description;
+        }
+        return description;
+    }
+
+    @Override
+    public void invalidateDescription() {
+        descriptions = null;
+        structuralHash = 0;
+        Node parent = getParent();
+        if (parent != null) {
+            parent.invalidateDescription();
+        }
     }
     
+    @Override
+    public long getStructuralHash() {
+        long hash = structuralHash;
+        if (hash == 0) {
+            //leaves are hashed by value, operators by their children
+            hash = getClass().getName().hashCode();
+            if (this instanceof Leaf) {
+                hash = hash * 0x9E3779B97F4A7C15L + hashCode();
+            }
+            for (Node child : getChildrens()) {
+                hash = hash * 0x9E3779B97F4A7C15L + child.getStructuralHash();
+            }
+            hash = mix(hash);
+            //zero means not computed
+            structuralHash = (hash == 0) ? 1 : hash;
+        }
+        return structuralHash;
+    }
+
+    @Override
+    public boolean structurallyEquals(Node other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass() || getStructuralHash() != other.getStructuralHash()) {
+            return false;
+        }
+        if (this instanceof Leaf) {
+            return equals(other);
+        }
+        List<Node> thisChildrens = getChildrens();
+        List<Node> otherChildrens = other.getChildrens();
+        if (thisChildrens.size() != otherChildrens.size()) {
+            return false;
+        }
+        for (int i = 0; i < thisChildrens.size(); i++) {
+            if (!thisChildrens.get(i).structurallyEquals(otherChildrens.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //murmur3 finalizer
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
     @Override
     public boolean isCharacterClass(){
         return false;
@@ -37,6 +37,36 @@ public interface Node {
     
     void describe(StringBuilder builder);
     void describe(StringBuilder builder, DescriptionContext context, RegexFlavour flavour);
+    
+    /**
+     * Returns the regex described by this tree, in the Java flavour, built once and cached.
+     * The result is the same of describe(builder).
+     * @return the regex
+     */
+    String getDescription();
+    /**
+     * Returns the regex described by this tree built with a new DescriptionContext, the description is cached per flavour.
+     * @param flavour
+     * @return the regex
+     */
+    String getDescription(RegexFlavour flavour);
+    /**
+     * Drops the cached descriptions and structural hashes of this node and of its ancestors; it has to be invoked when the subtree is modified.
+     */
+    void invalidateDescription();
+    /**
+     * Returns a 64 bit hash of the tree structure (node classes, leaf values and children order), computed bottom-up and cached.
+     * Structurally equal trees have the same hash.
+     * @return the structural hash
+     */
+    long getStructuralHash();
+    /**
+     * Compares the structure of two trees: same node classes, equal leaves and structurally equal children, in the same order.
+     * Structurally equal trees have the same description, the opposite is not true (e.g. concatenations with different associativity).
+     * @param other
+     * @return true when the trees are structurally equal
+     */
+    boolean structurallyEquals(Node other);
     boolean isValid();
 
     public enum RegexFlavour {
@@ -102,6 +102,7 @@ public class Configuration {
         terminalSet.add(new RegexRange("a-z"));
         terminalSet.add(new RegexRange("A-Za-z"));
         
+        this.evaluatorParameters = new HashMap<>();
         this.evaluator = new CachedTreeEvaluator();
         this.evaluator.setup(Collections.EMPTY_MAP);
         
@@ -137,11 +138,12 @@ public class Configuration {
     }      
     
     /**
-     * Updates dataset and datasetCotainer stats and structures, and initializes terminalSetBuilder and populationBuilder.
+     * Updates dataset and datasetCotainer stats and structures, and initializes evaluator, terminalSetBuilder and populationBuilder.
      * You should invoke this method when the original Dataset/DatasetContainer is modified.
      */
     public void setup(){ 
         this.datasetContainer.update();
+        this.evaluator.setup(this.evaluatorParameters);
         this.terminalSetBuilder.setup(this);
         this.populationBuilder.setup(this); 
     }
@@ -153,6 +155,7 @@ public class Configuration {
         this.jobs = cc.getJobs();
         this.objective = cc.getObjective();
         this.evaluator = cc.getEvaluator();
+        this.evaluatorParameters = cc.getEvaluatorParameters();
         this.outputFolder = cc.getOutputFolder();
         this.outputFolderName = cc.getOutputFolderName();
         this.strategy = cc.getStrategy();
@@ -184,6 +187,7 @@ public class Configuration {
     private String outputFolderName;
     private transient Objective objective;
     private transient TreeEvaluator evaluator;
+    private Map<String, String> evaluatorParameters;
     private transient ExecutionStrategy strategy;    
     private Map<String, String> strategyParameters;  
     private String configName;
@@ -312,6 +316,14 @@ public class Configuration {
         this.evaluator = evaluator;
     }
 
+    public Map<String, String> getEvaluatorParameters() {
+        return evaluatorParameters;
+    }
+
+    public void setEvaluatorParameters(Map<String, String> evaluatorParameters) {
+        this.evaluatorParameters = evaluatorParameters;
+    }
+
     public File getOutputFolder() {
         return outputFolder;
     }
@@ -23,6 +23,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
 
 /**
  *
@@ -30,18 +31,13 @@ import java.io.InputStreamReader;
  */
 public class Configurator {
     public static Configuration configure(String fileName) throws IOException {
-        FileInputStream fis = new FileInputStream(new File(fileName));
-        InputStreamReader isr = new InputStreamReader(fis);
-        StringBuilder sb;
-        try (BufferedReader bufferedReader = new BufferedReader(isr)) {
-            sb = new StringBuilder();
-            String line;
-            while ((line = bufferedReader.readLine()) != null) {
-                sb.append(line);
-            }
+        Configuration configuration;
+        //the configuration is parsed from the stream, the dataset is loaded by setup (see DatasetContainer)
+        try (Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(new File(fileName))))) {
+            configuration = new Gson().fromJson(reader, Configuration.class);
         }
-        String json = sb.toString();
-        return configureFromJson(json);
+        configuration.setup();
+        return configuration;
     }
     
     public static Configuration configureFromJson(String jsonConfiguration){
@@ -21,12 +21,10 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import it.units.inginf.male.inputs.DataSet;
 import it.units.inginf.male.inputs.DataSet.Example;
+import it.units.inginf.male.inputs.DataSetLoader;
 import it.units.inginf.male.utils.Range;
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
@@ -269,23 +267,14 @@ public final class DatasetContainer {
 
     /**
      * Forces reloading of the dataset from file; the dataset path URL is the
-     * DatasetContainer <code>path</code> property
+     * DatasetContainer <code>path</code> property.
+     * The file can be a JSON dataset or a binary dataset, see {@link DataSetLoader}.
      *
      * @throws IOException
      */
     public void loadDataset() throws IOException {
-        FileInputStream fis = new FileInputStream(new File(this.path));
-        InputStreamReader isr = new InputStreamReader(fis);
-        StringBuilder sb;
-        try (BufferedReader bufferedReader = new BufferedReader(isr)) {
-            sb = new StringBuilder();
-            String line;
-            while ((line = bufferedReader.readLine()) != null) {
-                sb.append(line);
-            }
-        }
-        String json = sb.toString();
-        this.loadDatasetJson(json);
+        this.dataset = DataSetLoader.load(new File(this.path), false);
+        this.update();
     }
     
     /**
@@ -308,13 +297,12 @@ public final class DatasetContainer {
         this.trainingDataset.updateStats();
         this.validationDataset.updateStats();
        
-        this.learningDataset = new DataSet("learning");
         //the Learning set is all the dataset, there is no testing phase in this code.
         //We change the code in a way that learning set equals all dataset. 
         //This has been done in order to minimize changes and mantain the dataset examples 
         //order into the Learning collection. 
         
-        this.learningDataset.getExamples().addAll(dataset.getExamples());
+        this.learningDataset = this.dataset.view("learning");
         this.learningDataset.updateStats();
 
         if (this.dataSetStriped) {
@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+/**
+ * The individual has not been evaluated because a previous evaluation of the same regex exceeded its budget
+ * and the regex has been blacklisted, see {@link CachedTreeEvaluator}.
+ * The exception is expected: the objectives return the worst fitness without logging it.
+ * @author MaleLabTs
+ */
+public class BlacklistedIndividualException extends EvaluationBudgetException {
+
+    public BlacklistedIndividualException(String individual) {
+        super(individual, "blacklisted", null);
+    }
+}
@@ -24,4 +24,5 @@ package it.units.inginf.male.evaluators;
 public interface CachedEvaluator extends TreeEvaluator{
     public double getRatio();
     public long getCacheSizeBytes();
+    public long getEvictions();
 }
@@ -19,64 +19,244 @@ package it.units.inginf.male.evaluators;
 
 import it.units.inginf.male.inputs.Context;
 import it.units.inginf.male.inputs.Context.EvaluationPhases;
-import it.units.inginf.male.inputs.DataSet.Bounds;
+import it.units.inginf.male.inputs.DataSet;
+import it.units.inginf.male.metrics.Counter;
+import it.units.inginf.male.metrics.Gauge;
+import it.units.inginf.male.metrics.MetricsRegistry;
 import it.units.inginf.male.tree.Node;
 import it.units.inginf.male.utils.Triplet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- *
+ * Evaluator which caches the results of the evaluations, the cache has a memory budget and
+ * evicts the least recently used results.
+ * The evaluator is meant to be shared between jobs: the cache is segmented and when more jobs
+ * evaluate the same regex at the same time, the regex is evaluated only once.
+ * Accepts these parameters:
+ * "cacheBudgetMB", the maximum size of the cache in megabytes; when not provided
+ * the budget is a quarter of the maximum heap size.
+ * "cacheSegments", the number of independently locked cache segments (default 16).
+ * "blacklistAborted", Boolean, when true the individuals whose evaluation exceeded the budget (see {@link DefaultTreeEvaluator})
+ * are blacklisted by regex and they are not evaluated again, a {@link BlacklistedIndividualException} is thrown instead.
+ * Interrupted evaluations are not blacklisted. Default value: false
+ * "projectStripedResults", Boolean, when true the results of a context free individual (see {@link StripedProjection}) on the striped
+ * training dataset are projected from its cached results on the full training dataset, when available; the slices whose
+ * projection is not exact are evaluated. Individuals with possessive quantifiers or atomic groups are never projected, hence
+ * the default (possessive) JAVA flavour quantifiers disable the projection. The results do not change. Default value: false
+ * Results do not depend on the "Separate and conquer" level: the levels share the example texts.
+ * The total size of the caches of the live evaluators and the projected evaluations are published into the shared {@link MetricsRegistry}.
  * @author MaleLabTs
  */
 public class CachedTreeEvaluator extends DefaultTreeEvaluator implements CachedEvaluator{
 
-    private final WeakHashMap<Triplet<EvaluationPhases, Boolean, String>, List<List<Bounds>>> cache = new WeakHashMap<>();
-    private long hit = 0;
-    private long miss = 0;
+    public static final String CACHE_BUDGET_MB_KEY = "cacheBudgetMB";
+    public static final String CACHE_SEGMENTS_KEY = "cacheSegments";
+    public static final String BLACKLIST_ABORTED_KEY = "blacklistAborted";
+    public static final String PROJECT_STRIPED_RESULTS_KEY = "projectStripedResults";
+    
+    private volatile EvaluationCache cache = new EvaluationCache(defaultBudgetBytes());
+    private volatile Set<String> blacklist = null;
+    private volatile boolean projectStripedResults = false;
+    //projections of the striped datasets (and their levels) on the training dataset, null when not projectable
+    private final Map<DataSet, StripedProjection> projections = new WeakHashMap<>();
+    private final AtomicLong projectedEvaluations = new AtomicLong();
+    private static final Counter PROJECTED_EVALUATIONS = MetricsRegistry.getInstance().counter("regexturtle_evaluations_projected_total",
+            "Striped evaluations projected from the cached full dataset results");
+    //weakly referenced, the gauge must not keep the evaluators and their caches alive
+    private static final Set<CachedTreeEvaluator> LIVE_EVALUATORS = Collections.newSetFromMap(new WeakHashMap<CachedTreeEvaluator, Boolean>());
+
+    static {
+        MetricsRegistry.getInstance().gauge("regexturtle_evaluation_cache_used_bytes", "Estimated size of the evaluation caches", new Gauge() {
+
+            @Override
+            public double getValue() {
+                long usedBytes = 0;
+                synchronized (LIVE_EVALUATORS) {
+                    for (CachedTreeEvaluator evaluator : LIVE_EVALUATORS) {
+                        usedBytes += evaluator.getCacheSizeBytes();
+                    }
+                }
+                return usedBytes;
+            }
+        });
+    }
+
+    public CachedTreeEvaluator() {
+        synchronized (LIVE_EVALUATORS) {
+            LIVE_EVALUATORS.add(this);
+        }
+    }
 
     @Override
-    public List<List<Bounds>> evaluate(Node root, Context context) throws TreeEvaluationException {
+    public void setup(Map<String, String> parameters) {
+        super.setup(parameters);
+        long budgetBytes = defaultBudgetBytes();
+        int segments = EvaluationCache.DEFAULT_SEGMENTS;
+        Set<String> newBlacklist = null;
+        boolean newProjectStripedResults = false;
+        if (parameters != null) {
+            if (parameters.containsKey(CACHE_BUDGET_MB_KEY)) {
+                budgetBytes = Long.valueOf(parameters.get(CACHE_BUDGET_MB_KEY)) * 1024 * 1024;
+            }
+            if (parameters.containsKey(CACHE_SEGMENTS_KEY)) {
+                segments = Integer.valueOf(parameters.get(CACHE_SEGMENTS_KEY));
+            }
+            if (Boolean.valueOf(parameters.get(BLACKLIST_ABORTED_KEY))) {
+                newBlacklist = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+            }
+            newProjectStripedResults = Boolean.valueOf(parameters.get(PROJECT_STRIPED_RESULTS_KEY));
+        }
+        this.cache = new EvaluationCache(budgetBytes, segments);
+        this.blacklist = newBlacklist;
+        this.projectStripedResults = newProjectStripedResults;
+        synchronized (projections) {
+            projections.clear();
+        }
+    }
+    
+    private static long defaultBudgetBytes() {
+        return Runtime.getRuntime().maxMemory() / 4;
+    }
+
+    @Override
+    public EvaluationResults evaluate(final Node root, final Context context) throws TreeEvaluationException {
 
-        StringBuilder sb = new StringBuilder();
-        root.describe(sb);
-        List<List<Bounds>> results;
-        Triplet<EvaluationPhases, Boolean, String> key = new Triplet<>(context.getPhase(), context.isStripedPhase(), sb.toString());
-        synchronized (cache) {
-            results = cache.get(key);
+        String description = root.getDescription();
+        checkBlacklist(description);
+        Triplet<EvaluationPhases, Boolean, String> key = new Triplet<>(context.getPhase(), context.isStripedPhase(), description);
+        try {
+            return cache.getOrCompute(key, new Callable<EvaluationResults>() {
+
+                @Override
+                public EvaluationResults call() throws TreeEvaluationException {
+                    EvaluationResults projected = project(root, context);
+                    return (projected != null) ? projected : CachedTreeEvaluator.super.evaluate(root, context);
+                }
+            });
+        } catch (EvaluationBudgetException ex) {
+            addToBlacklist(description);
+            throw ex;
+        }
+    }
+
+    /**
+     * Cached results are returned without notifying the monitor; otherwise the individual is evaluated
+     * and the results are cached only when the monitor did not stop the evaluation.
+     * Concurrent evaluations of the same individual are not deduplicated.
+     */
+    @Override
+    public EvaluationResults evaluate(Node root, Context context, EvaluationMonitor monitor) throws TreeEvaluationException {
+        if (monitor == null) {
+            return evaluate(root, context);
         }
+        String description = root.getDescription();
+        checkBlacklist(description);
+        Triplet<EvaluationPhases, Boolean, String> key = new Triplet<>(context.getPhase(), context.isStripedPhase(), description);
+        EvaluationCache currentCache = this.cache;
+        EvaluationResults results = currentCache.lookup(key);
         if (results != null) {
-            hit++;
             return results;
         }
-        
-        miss++;
-        results = super.evaluate(root, context);
-        
-        synchronized (cache) {
-            cache.put(key, results);
+        try {
+            results = project(root, context);
+            if (results != null) {
+                currentCache.put(key, results);
+                return results;
+            }
+            results = super.evaluate(root, context, monitor);
+        } catch (EvaluationBudgetException ex) {
+            addToBlacklist(description);
+            throw ex;
+        }
+        if (results.getExamplesCount() == context.getCurrentDataSetLength()) {
+            currentCache.put(key, results);
         }
         return results;
     }
 
+    /**
+     * Projects the cached results of the individual on the full training dataset onto the striped training dataset
+     * @return the projected results, null when the projection is disabled or not possible
+     */
+    private EvaluationResults project(Node root, Context context) throws TreeEvaluationException {
+        if (!projectStripedResults || !context.isStripedPhase() || context.getPhase() != EvaluationPhases.TRAINING) {
+            return null;
+        }
+        String description = root.getDescription();
+        if (!StripedProjection.isContextFree(description)) {
+            return null;
+        }
+        EvaluationResults fullResults = cache.get(new Triplet<>(EvaluationPhases.TRAINING, false, description));
+        if (fullResults == null || fullResults.getExamplesCount() != context.getTrainingDataset().getNumberExamples()) {
+            return null;
+        }
+        StripedProjection projection = getProjection(context.getCurrentDataSet(), context.getTrainingDataset());
+        if (projection == null) {
+            return null;
+        }
+        List<Integer> conflicts = projection.conflicts(fullResults);
+        if (conflicts.size() == projection.size()) {
+            return null;
+        }
+        EvaluationResults conflictResults = conflicts.isEmpty() ? null : evaluateExamples(root, projection.getExamples(conflicts));
+        projectedEvaluations.incrementAndGet();
+        PROJECTED_EVALUATIONS.increment();
+        return projection.project(fullResults, conflicts, conflictResults);
+    }
+
+    private StripedProjection getProjection(DataSet striped, DataSet full) {
+        synchronized (projections) {
+            if (projections.containsKey(striped)) {
+                return projections.get(striped);
+            }
+            StripedProjection projection = StripedProjection.build(striped, full);
+            projections.put(striped, projection);
+            return projection;
+        }
+    }
+
+    /**
+     * @return the number of striped evaluations whose results have been projected from the full dataset results
+     */
+    public long getProjectedEvaluations() {
+        return projectedEvaluations.get();
+    }
+
+    private void checkBlacklist(String description) throws BlacklistedIndividualException {
+        Set<String> currentBlacklist = this.blacklist;
+        if (currentBlacklist != null && currentBlacklist.contains(description)) {
+            throw new BlacklistedIndividualException(description);
+        }
+    }
+
+    private void addToBlacklist(String description) {
+        Set<String> currentBlacklist = this.blacklist;
+        if (currentBlacklist != null) {
+            currentBlacklist.add(description);
+        }
+    }
+
     @Override
     public double getRatio(){
-        return (double)this.hit/(this.hit+this.miss);
+        EvaluationCache currentCache = this.cache;
+        long hit = currentCache.getHits();
+        return (double)hit/(hit+currentCache.getMisses());
     }
     
     @Override
     public long getCacheSizeBytes(){
-        synchronized (cache) {
-            long cacheSize = 0;
-            for (Map.Entry<Triplet<EvaluationPhases, Boolean, String>, List<List<Bounds>>> entry : cache.entrySet()) {
-                List<List<Bounds>> list = entry.getValue();
-                for (List<Bounds> exampleResult : list) {
-                    cacheSize+=exampleResult.size();
-                }            
-            }
-            cacheSize*=(Integer.SIZE/4);
-            return cacheSize;
-        }
+        return cache.getUsedBytes();
+    }
+
+    @Override
+    public long getEvictions(){
+        return cache.getEvictions();
     }
 }
@@ -18,70 +18,212 @@
 package it.units.inginf.male.evaluators;
 
 import it.units.inginf.male.inputs.Context;
-import it.units.inginf.male.inputs.DataSet;
-import it.units.inginf.male.inputs.DataSet.Bounds;
+import it.units.inginf.male.inputs.Context.EvaluationPhases;
 import it.units.inginf.male.inputs.DataSet.Example;
+import it.units.inginf.male.metrics.Counter;
+import it.units.inginf.male.metrics.Histogram;
+import it.units.inginf.male.metrics.MetricsRegistry;
 import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.utils.PatternCache;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 /**
- *
+ * Evaluates the individuals with java.util.regex; compiled patterns are taken from the shared PatternCache.
+ * Accepts these parameters:
+ * "patternCacheSize", the maximum number of compiled patterns held by the shared PatternCache (default 4096).
+ * "interpreter", Boolean, when true the individuals supported by {@link TreeMatcher} are evaluated directly
+ * from the tree, without building a Pattern; the other individuals (and the examples the TreeMatcher cannot
+ * handle) are evaluated with java.util.regex. Default value: false
+ * "automaton", Boolean, when true the individuals without lookarounds are evaluated by a {@link NfaMatcher}, in linear
+ * time; when the NfaMatcher does not support the individual the interpreter (when enabled) or java.util.regex are used.
+ * Default value: false
+ * "evaluationStepBudget", Long, the maximum number of chars read by the matchers while evaluating an individual over the
+ * whole dataset. Default value: 0, unlimited
+ * "evaluationTimeoutMillis", Long, the maximum duration of the evaluation of an individual. Default value: 0, unlimited
+ * When a budget is set, evaluations which exceed it are aborted with an {@link EvaluationBudgetException}, which the
+ * objectives turn into the worst fitness; aborted individuals are counted and the first MAX_RECORDED_ABORTED are recorded,
+ * see {@link #getAbortedEvaluations()}. Evaluations whose thread is interrupted (e.g. when the run is stopped) are aborted
+ * with a plain {@link TreeEvaluationException} and they are not counted.
+ * Evaluations can be streamed to an {@link EvaluationMonitor}, which can stop them before the end of the dataset.
+ * The evaluations actually run by the matchers (cached results excluded) are counted, see {@link #getEvaluations()}.
+ * The evaluation times, by phase, and the aborted evaluations are recorded into the shared {@link MetricsRegistry}.
  * @author MaleLabTs
  */
-public class DefaultTreeEvaluator implements TreeEvaluator {
+public class DefaultTreeEvaluator implements StreamingTreeEvaluator {
+
+    public static final String PATTERN_CACHE_SIZE_KEY = "patternCacheSize";
+    public static final String INTERPRETER_KEY = "interpreter";
+    public static final String AUTOMATON_KEY = "automaton";
+    public static final String STEP_BUDGET_KEY = "evaluationStepBudget";
+    public static final String TIMEOUT_MILLIS_KEY = "evaluationTimeoutMillis";
+    public static final int MAX_RECORDED_ABORTED = 100;
+
+    //evaluation times by phase (ordinal * 2) and striped phase (+1)
+    private static final Histogram[] EVALUATION_TIMES = new Histogram[EvaluationPhases.values().length * 2];
+    private static final Counter ABORTED_EVALUATIONS = MetricsRegistry.getInstance().counter("regexturtle_evaluations_aborted_total",
+            "Evaluations aborted because of the step or time budget");
+
+    static {
+        for (EvaluationPhases phase : EvaluationPhases.values()) {
+            for (int striped = 0; striped < 2; striped++) {
+                EVALUATION_TIMES[phase.ordinal() * 2 + striped] = MetricsRegistry.getInstance().histogram("regexturtle_evaluation_seconds",
+                        "Duration of the evaluation of an individual on the current dataset, cached results excluded",
+                        "phase", phase.name().toLowerCase(), "striped", String.valueOf(striped == 1));
+            }
+        }
+    }
+
+    private boolean interpreter = false;
+    private boolean automaton = false;
+    private long stepBudget = 0;
+    private long timeoutMillis = 0;
+    private final AtomicLong evaluations = new AtomicLong();
+    private final AtomicLong abortedEvaluations = new AtomicLong();
+    private final Queue<String> abortedIndividuals = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public EvaluationResults evaluate(Node root, Context context) throws TreeEvaluationException {
+        long start = System.nanoTime();
+        try {
+            return evaluate(root, context.getCurrentDataSet().getExamples(), null);
+        } finally {
+            getEvaluationTime(context).recordSince(start);
+        }
+    }
 
     @Override
-    public List<List<Bounds>> evaluate(Node root, Context context) throws TreeEvaluationException {
+    public EvaluationResults evaluate(Node root, Context context, EvaluationMonitor monitor) throws TreeEvaluationException {
+        long start = System.nanoTime();
+        try {
+            return evaluate(root, context.getCurrentDataSet().getExamples(), monitor);
+        } finally {
+            getEvaluationTime(context).recordSince(start);
+        }
+    }
+
+    private static Histogram getEvaluationTime(Context context) {
+        return EVALUATION_TIMES[context.getPhase().ordinal() * 2 + (context.isStripedPhase() ? 1 : 0)];
+    }
+
+    /**
+     * Evaluates the individual on a list of examples, the results are not cached
+     * @param root the individual
+     * @param examples the examples
+     * @return the results, in examples order
+     * @throws TreeEvaluationException
+     */
+    protected EvaluationResults evaluateExamples(Node root, List<Example> examples) throws TreeEvaluationException {
+        return evaluate(root, examples, null);
+    }
 
-        List<List<Bounds>> results = new ArrayList<>(context.getCurrentDataSetLength());
+    //private, subclasses (e.g. CachedTreeEvaluator) can override both the evaluate methods without recursion
+    private EvaluationResults evaluate(Node root, List<Example> examples, EvaluationMonitor monitor) throws TreeEvaluationException {
 
-        StringBuilder sb = new StringBuilder();
-        root.describe(sb);
+        evaluations.incrementAndGet();
+        EvaluationResults.Builder results = new EvaluationResults.Builder(examples.size());
 
         try {
-             
-            Pattern regex = Pattern.compile(sb.toString());
-            Matcher matcher = regex.matcher("");
-
-            int i = 0;
-            DataSet dataSet = context.getCurrentDataSet();
-            for (Example example : dataSet.getExamples()) {
-                try {
-                    Matcher m = matcher.reset(example.getString());
-                    List<Bounds> b = new LinkedList<>();
-                    while (m.find()) {
-                        Bounds bounds = new Bounds(matcher.start(0), matcher.end(0));
-                        b.add(bounds);
 
+            ExampleMatcher exampleMatcher = automaton ? NfaMatcher.compile(root) : null;
+            if (exampleMatcher == null && interpreter) {
+                exampleMatcher = TreeMatcher.compile(root);
+            }
+            EvaluationBudget budget = (stepBudget > 0 || timeoutMillis > 0) ? new EvaluationBudget(stepBudget, timeoutMillis) : null;
+            Matcher matcher = null;
+            if (exampleMatcher == null) {
+                matcher = PatternCache.getInstance().compile(root.getDescription()).matcher("");
+            }
+
+            for (Example example : examples) {
+                CharSequence text = (budget == null) ? example.getText() : budget.wrap(example.getText());
+                if (exampleMatcher == null || !exampleMatcher.findAll(text, results)) {
+                    if (matcher == null) {
+                        matcher = PatternCache.getInstance().compile(root.getDescription()).matcher("");
+                    }
+                    try {
+                        Matcher m = matcher.reset(text);
+                        while (m.find()) {
+                            results.add(matcher.start(0), matcher.end(0));
+                        }
+                    } catch (StringIndexOutOfBoundsException ex) {
+                        /**
+                         * Workaround: ref BUG: 6984178
+                         * http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=6984178
+                         * with greedy quantifiers returns exception 
+                         * instead than "false".
+                         */
+                        results.discardExample();
                     }
-                    results.add(b);
-                } catch (StringIndexOutOfBoundsException ex) {
-                    /**
-                     * Workaround: ref BUG: 6984178
-                     * http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=6984178
-                     * with greedy quantifiers returns exception 
-                     * instead than "false".
-                     */
-                    results.add(Collections.<Bounds>emptyList());
                 }
-
-                i++;
+                results.endExample();
+                if (monitor != null && !monitor.exampleEvaluated(results.getExamplesCount() - 1, results)) {
+                    break;
+                }
             }
 
         } catch (PatternSyntaxException ex) {
             throw new TreeEvaluationException(ex);
+        } catch (EvaluationBudget.ExceededException ex) {
+            EvaluationBudgetException exception = new EvaluationBudgetException(root.getDescription(), ex.getMessage(), ex);
+            recordAborted(exception);
+            throw exception;
+        } catch (EvaluationBudget.InterruptedEvaluationException ex) {
+            throw new TreeEvaluationException("Evaluation of " + root.getDescription() + " interrupted", ex, null);
         }
-        return results;
+        return results.build();
+    }
+
+    private void recordAborted(EvaluationBudgetException exception) {
+        ABORTED_EVALUATIONS.increment();
+        if (abortedEvaluations.incrementAndGet() <= MAX_RECORDED_ABORTED) {
+            abortedIndividuals.add(exception.getIndividual());
+        }
+    }
+
+    /**
+     * @return the number of evaluations run by this evaluator, the results served by a cache are not evaluations
+     */
+    public long getEvaluations() {
+        return evaluations.get();
+    }
+
+    /**
+     * @return the number of evaluations aborted because of the step or time budget
+     */
+    public long getAbortedEvaluations() {
+        return abortedEvaluations.get();
+    }
+
+    /**
+     * @return the descriptions of the first MAX_RECORDED_ABORTED aborted individuals
+     */
+    public List<String> getAbortedIndividuals() {
+        return new ArrayList<>(abortedIndividuals);
     }
 
     @Override
     public void setup(Map<String, String> parameters) {
+        if (parameters != null && parameters.containsKey(PATTERN_CACHE_SIZE_KEY)) {
+            PatternCache.getInstance().setMaxSize(Integer.valueOf(parameters.get(PATTERN_CACHE_SIZE_KEY)));
+        }
+        if (parameters != null && parameters.containsKey(INTERPRETER_KEY)) {
+            interpreter = Boolean.valueOf(parameters.get(INTERPRETER_KEY));
+        }
+        if (parameters != null && parameters.containsKey(AUTOMATON_KEY)) {
+            automaton = Boolean.valueOf(parameters.get(AUTOMATON_KEY));
+        }
+        if (parameters != null && parameters.containsKey(STEP_BUDGET_KEY)) {
+            stepBudget = Long.valueOf(parameters.get(STEP_BUDGET_KEY));
+        }
+        if (parameters != null && parameters.containsKey(TIMEOUT_MILLIS_KEY)) {
+            timeoutMillis = Long.valueOf(parameters.get(TIMEOUT_MILLIS_KEY));
+        }
     }
 }
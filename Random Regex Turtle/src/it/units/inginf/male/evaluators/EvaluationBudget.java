@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+/**
+ * Step and time budget of a single individual evaluation.
+ * A step is a char read by the matcher: the examples are wrapped into CharSequences which charge every
+ * charAt call to the budget, so that java.util.regex (and the other matchers) can be stopped in the middle of a
+ * catastrophic backtracking. The deadline and the thread interrupted flag are checked every CHECK_INTERVAL steps.
+ * When the budget is exhausted an unchecked {@link ExceededException} is thrown from the charAt call; when the thread
+ * is interrupted an unchecked {@link InterruptedEvaluationException} is thrown instead, the interrupted flag is left set.
+ * The budget is not thread safe, it belongs to a single evaluation.
+ * @author MaleLabTs
+ */
+public final class EvaluationBudget {
+
+    private static final int CHECK_INTERVAL = 4096;
+
+    private final long maxSteps;
+    private final long deadline;
+    private final boolean timed;
+    private long steps = 0;
+    private int untilCheck = CHECK_INTERVAL;
+
+    /**
+     * @param maxSteps the maximum number of chars read, 0 means unlimited
+     * @param timeoutMillis the maximum duration of the evaluation, 0 means unlimited
+     */
+    public EvaluationBudget(long maxSteps, long timeoutMillis) {
+        this.maxSteps = (maxSteps > 0) ? maxSteps : Long.MAX_VALUE;
+        this.timed = timeoutMillis > 0;
+        this.deadline = timed ? System.nanoTime() + timeoutMillis * 1000000L : 0;
+    }
+
+    /**
+     * Wraps the text, reads from the returned sequence are charged to this budget
+     * @param text
+     * @return the budgeted text
+     */
+    public CharSequence wrap(CharSequence text) {
+        return new BudgetedText(text, 0, text.length());
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    private void step() {
+        if (++steps > maxSteps) {
+            throw new ExceededException("Step budget exhausted after " + maxSteps + " steps");
+        }
+        if (--untilCheck == 0) {
+            untilCheck = CHECK_INTERVAL;
+            if (timed && System.nanoTime() - deadline > 0) {
+                throw new ExceededException("Evaluation timed out after " + steps + " steps");
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedEvaluationException("Evaluation interrupted after " + steps + " steps");
+            }
+        }
+    }
+
+    private final class BudgetedText implements CharSequence {
+
+        private final CharSequence text;
+        private final int offset;
+        private final int length;
+
+        BudgetedText(CharSequence text, int offset, int length) {
+            this.text = text;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new StringIndexOutOfBoundsException(index);
+            }
+            step();
+            return text.charAt(offset + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || start > end || end > length) {
+                throw new StringIndexOutOfBoundsException("begin " + start + ", end " + end + ", length " + length);
+            }
+            return new BudgetedText(text, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return text.subSequence(offset, offset + length).toString();
+        }
+    }
+
+    /**
+     * Thrown by the budgeted texts when the budget is exhausted
+     */
+    public static final class ExceededException extends RuntimeException {
+
+        ExceededException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    /**
+     * Thrown by the budgeted texts when the evaluating thread is interrupted, the budget is not exhausted
+     */
+    public static final class InterruptedEvaluationException extends RuntimeException {
+
+        InterruptedEvaluationException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+/**
+ * The evaluation of an individual has been aborted because it exceeded its step or time budget.
+ * @author MaleLabTs
+ */
+public class EvaluationBudgetException extends TreeEvaluationException {
+
+    private final String individual;
+
+    public EvaluationBudgetException(String individual, String reason, Throwable cause) {
+        super("Evaluation of " + individual + " aborted: " + reason, cause, null);
+        this.individual = individual;
+    }
+
+    /**
+     * @return the description of the aborted individual
+     */
+    public String getIndividual() {
+        return individual;
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+import it.units.inginf.male.inputs.Context.EvaluationPhases;
+import it.units.inginf.male.metrics.Counter;
+import it.units.inginf.male.metrics.MetricsRegistry;
+import it.units.inginf.male.utils.Triplet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread safe evaluation results cache with an explicit memory budget.
+ * The cache is split into segments, each one guarded by its own lock and owning an equal share
+ * of the budget; inside a segment entries are kept in access order and the least recently used
+ * ones are evicted when the estimated size of the cached entries exceeds the segment budget.
+ * Keys are strongly referenced, the cache content only changes on put/clear.
+ * Concurrent requests for the same missing key are deduplicated by {@link #getOrCompute(Triplet, Callable)}:
+ * only the first caller computes the results, the others wait for them.
+ * Hits, misses and evictions are also added to the totals of the shared {@link MetricsRegistry}.
+ * @author MaleLabTs
+ */
+public class EvaluationCache {
+
+    /*
+     * Shallow sizes for a 64bit JVM with compressed oops; the estimate
+     * does not need to be exact, it has to grow linearly with the real footprint.
+     */
+    private static final int CACHE_ENTRY_SIZE = 24;
+    private static final int ARRAY_HEADER = 16;
+    private static final int STRING_SIZE = 24;
+    private static final int TRIPLET_SIZE = 24;
+    private static final int MAP_ENTRY_SIZE = 40;
+
+    public static final int DEFAULT_SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final long budgetBytes;
+    private final ConcurrentMap<Triplet<EvaluationPhases, Boolean, String>, FutureTask<EvaluationResults>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    //totals of all the caches
+    private static final Counter HITS = MetricsRegistry.getInstance().counter("regexturtle_evaluation_cache_hits_total", "Evaluation cache hits");
+    private static final Counter MISSES = MetricsRegistry.getInstance().counter("regexturtle_evaluation_cache_misses_total", "Evaluation cache misses");
+    private static final Counter EVICTIONS = MetricsRegistry.getInstance().counter("regexturtle_evaluation_cache_evictions_total", "Evaluation cache evictions");
+
+    /**
+     * Creates an empty cache with the default number of segments
+     * @param budgetBytes the maximum estimated size, in bytes, of the cached entries
+     */
+    public EvaluationCache(long budgetBytes) {
+        this(budgetBytes, DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * Creates an empty cache
+     * @param budgetBytes the maximum estimated size, in bytes, of the cached entries
+     * @param segmentsCount the number of independently locked segments, it is rounded up to a power of two
+     */
+    public EvaluationCache(long budgetBytes, int segmentsCount) {
+        if (budgetBytes < 0) {
+            throw new IllegalArgumentException("The cache budget must be a non negative number of bytes");
+        }
+        if (segmentsCount < 1) {
+            throw new IllegalArgumentException("The cache needs at least one segment");
+        }
+        int count = Integer.highestOneBit(segmentsCount);
+        if (count < segmentsCount) {
+            count <<= 1;
+        }
+        this.budgetBytes = budgetBytes;
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            this.segments[i] = new Segment(budgetBytes / count);
+        }
+    }
+
+    /**
+     * Returns the cached results and marks the entry as recently used.
+     * This method does not update the hit/miss statistics.
+     * @param key
+     * @return the cached results, or null when the key is not cached
+     */
+    public EvaluationResults get(Triplet<EvaluationPhases, Boolean, String> key) {
+        return segmentFor(key).get(key);
+    }
+
+    /**
+     * Returns the cached results and updates the hit/miss statistics; missing results are not computed.
+     * @param key
+     * @return the cached results, or null when the key is not cached
+     */
+    public EvaluationResults lookup(Triplet<EvaluationPhases, Boolean, String> key) {
+        EvaluationResults results = get(key);
+        if (results != null) {
+            hits.incrementAndGet();
+            HITS.increment();
+        } else {
+            misses.incrementAndGet();
+            MISSES.increment();
+        }
+        return results;
+    }
+
+    /**
+     * Caches the results and evicts the least recently used entries until the
+     * segment fits its budget. Results bigger than the segment budget are not cached.
+     * @param key
+     * @param results
+     */
+    public void put(Triplet<EvaluationPhases, Boolean, String> key, EvaluationResults results) {
+        segmentFor(key).put(key, results, estimateSize(key, results));
+    }
+
+    /**
+     * Returns the cached results for the key; when they are not cached the results are computed
+     * by the provided callable and cached. When more threads ask for the same missing key the results are 
+     * computed once, by the first thread, and the other threads wait for them.
+     * Exceptions thrown by the computation are propagated to all the waiting threads, nothing is cached in that case.
+     * The computing thread counts as a miss, a waiting thread counts as a hit once the results are available.
+     * @param key
+     * @param computation
+     * @return the cached or computed results
+     * @throws TreeEvaluationException when the computation fails or the waiting thread is interrupted
+     */
+    public EvaluationResults getOrCompute(Triplet<EvaluationPhases, Boolean, String> key, Callable<EvaluationResults> computation) throws TreeEvaluationException {
+        EvaluationResults results = get(key);
+        if (results != null) {
+            hits.incrementAndGet();
+            HITS.increment();
+            return results;
+        }
+        FutureTask<EvaluationResults> task = new FutureTask<>(computation);
+        FutureTask<EvaluationResults> running = inFlight.putIfAbsent(key, task);
+        if (running == null) {
+            try {
+                //the results could have been cached between the lookup and the registration of the task
+                results = get(key);
+                if (results != null) {
+                    hits.incrementAndGet();
+                    HITS.increment();
+                    return results;
+                }
+                misses.incrementAndGet();
+                MISSES.increment();
+                task.run();
+                results = waitFor(task);
+                put(key, results);
+                return results;
+            } finally {
+                inFlight.remove(key, task);
+            }
+        }
+        //waiters are hits only when the computation succeeds
+        results = waitFor(running);
+        hits.incrementAndGet();
+        HITS.increment();
+        return results;
+    }
+
+    private static EvaluationResults waitFor(FutureTask<EvaluationResults> task) throws TreeEvaluationException {
+        try {
+            return task.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new TreeEvaluationException("Interrupted while waiting for the evaluation", ex, null);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof TreeEvaluationException) {
+                throw (TreeEvaluationException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new TreeEvaluationException("Evaluation failed", cause, null);
+        }
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long getUsedBytes() {
+        long usedBytes = 0;
+        for (Segment segment : segments) {
+            usedBytes += segment.usedBytes;
+        }
+        return usedBytes;
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    private Segment segmentFor(Triplet<EvaluationPhases, Boolean, String> key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[hash & (segments.length - 1)];
+    }
+
+    /**
+     * Estimates the heap footprint of a cache entry: the map entry, the key
+     * with its regex string and the results.
+     * @param key
+     * @param results
+     * @return the estimated size in bytes
+     */
+    public static long estimateSize(Triplet<EvaluationPhases, Boolean, String> key, EvaluationResults results) {
+        long size = MAP_ENTRY_SIZE + CACHE_ENTRY_SIZE + TRIPLET_SIZE;
+        size += STRING_SIZE + align(ARRAY_HEADER + 2L * key.getThird().length());
+        size += results.getSizeBytes();
+        return size;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private class Segment {
+
+        private final LinkedHashMap<Triplet<EvaluationPhases, Boolean, String>, CacheEntry> entries = new LinkedHashMap<>(64, 0.75f, true);
+        private final long budgetBytes;
+        private volatile long usedBytes = 0;
+
+        Segment(long budgetBytes) {
+            this.budgetBytes = budgetBytes;
+        }
+
+        synchronized EvaluationResults get(Triplet<EvaluationPhases, Boolean, String> key) {
+            CacheEntry entry = entries.get(key);
+            return (entry == null) ? null : entry.results;
+        }
+
+        synchronized void put(Triplet<EvaluationPhases, Boolean, String> key, EvaluationResults results, long size) {
+            if (size > budgetBytes) {
+                return;
+            }
+            long used = usedBytes;
+            CacheEntry old = entries.put(key, new CacheEntry(results, size));
+            if (old != null) {
+                used -= old.size;
+            }
+            used += size;
+            Iterator<CacheEntry> iterator = entries.values().iterator();
+            while (used > budgetBytes && iterator.hasNext()) {
+                CacheEntry eldest = iterator.next();
+                iterator.remove();
+                used -= eldest.size;
+                evictions.incrementAndGet();
+                EVICTIONS.increment();
+            }
+            usedBytes = used;
+        }
+
+        synchronized void clear() {
+            entries.clear();
+            usedBytes = 0;
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    private static class CacheEntry {
+
+        private final EvaluationResults results;
+        private final long size;
+
+        CacheEntry(EvaluationResults results, long size) {
+            this.results = results;
+            this.size = size;
+        }
+    }
+}
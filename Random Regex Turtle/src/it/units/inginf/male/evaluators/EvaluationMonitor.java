@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+/**
+ * Observes a streaming evaluation example by example, and can stop it.
+ * @author MaleLabTs
+ */
+public interface EvaluationMonitor {
+
+    /**
+     * Invoked when the matches of an example have been collected, examples are evaluated in dataset order.
+     * @param example the index of the evaluated example
+     * @param results the results collected so far, the evaluated example is the last one
+     * @return false in order to stop the evaluation
+     */
+    boolean exampleEvaluated(int example, EvaluationResults.Builder results);
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+import it.units.inginf.male.inputs.DataSet.Bounds;
+import it.units.inginf.male.inputs.IntervalIndex;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compact, immutable representation of the matches extracted by an individual over a dataset.
+ * The start and end indexes of all the matches are stored in two int arrays, the matches of
+ * the example i are in positions [offsets[i], offsets[i+1]) of these arrays.
+ * Matches of an example are stored in extraction order.
+ * @author MaleLabTs
+ */
+public final class EvaluationResults {
+
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] offsets;
+
+    private EvaluationResults(int[] starts, int[] ends, int[] offsets) {
+        this.starts = starts;
+        this.ends = ends;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Converts a per example list of Bounds
+     * @param results
+     * @return the compact representation of the results
+     */
+    public static EvaluationResults fromBounds(List<List<Bounds>> results) {
+        Builder builder = new Builder(results.size());
+        for (List<Bounds> exampleResult : results) {
+            for (Bounds bounds : exampleResult) {
+                builder.add(bounds.start, bounds.end);
+            }
+            builder.endExample();
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return the number of evaluated examples
+     */
+    public int getExamplesCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return the overall number of matches
+     */
+    public int getMatchesCount() {
+        return offsets[offsets.length - 1];
+    }
+
+    /**
+     * @param example the example index
+     * @return the number of matches in the example
+     */
+    public int getMatchesCount(int example) {
+        return offsets[example + 1] - offsets[example];
+    }
+
+    public boolean isEmpty(int example) {
+        return offsets[example + 1] == offsets[example];
+    }
+
+    /**
+     * @param example the example index
+     * @param match the match index, relative to the example
+     * @return the start index (inclusive) of the match
+     */
+    public int getStart(int example, int match) {
+        return starts[offsets[example] + match];
+    }
+
+    /**
+     * @param example the example index
+     * @param match the match index, relative to the example
+     * @return the end index (exclusive) of the match
+     */
+    public int getEnd(int example, int match) {
+        return ends[offsets[example] + match];
+    }
+
+    /**
+     * Returns the matches of the example as a new list of Bounds
+     * @param example the example index
+     * @return the list of matches
+     */
+    public List<Bounds> getBounds(int example) {
+        int from = offsets[example];
+        int to = offsets[example + 1];
+        if (from == to) {
+            return Collections.<Bounds>emptyList();
+        }
+        List<Bounds> bounds = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            bounds.add(new Bounds(starts[i], ends[i]));
+        }
+        return bounds;
+    }
+
+    /**
+     * Converts the results to the per example lists of Bounds representation
+     * @return the list of matches for every example
+     */
+    public List<List<Bounds>> toBounds() {
+        List<List<Bounds>> results = new ArrayList<>(getExamplesCount());
+        for (int i = 0; i < getExamplesCount(); i++) {
+            results.add(getBounds(i));
+        }
+        return results;
+    }
+
+    /**
+     * Counts the matches of the example which are identical to an indexed interval
+     * @param example the example index
+     * @param index the expected intervals
+     * @return the number of identical matches
+     */
+    public int countIdenticalRanges(int example, IntervalIndex index) {
+        return countIdenticalRanges(starts, ends, offsets[example], offsets[example + 1], index);
+    }
+
+    private static int countIdenticalRanges(int[] starts, int[] ends, int from, int to, IntervalIndex index) {
+        if (index.isEmpty()) {
+            return 0;
+        }
+        int identicalRanges = 0;
+        for (int i = from; i < to; i++) {
+            if (index.contains(starts[i], ends[i])) {
+                identicalRanges++;
+            }
+        }
+        return identicalRanges;
+    }
+
+    /**
+     * Counts the matches of the example which overlap with the indexed zone, with the same semantic of
+     * {@link Bounds#countRangesThatCollideZone(java.util.List, java.util.List)}.
+     * @param example the example index
+     * @param zone the zone intervals
+     * @return the number of colliding matches
+     */
+    public int countRangesThatCollideZone(int example, IntervalIndex zone) {
+        return countRangesThatCollideZone(starts, ends, offsets[example], offsets[example + 1], zone);
+    }
+
+    private static int countRangesThatCollideZone(int[] starts, int[] ends, int from, int to, IntervalIndex zone) {
+        if (zone.isEmpty()) {
+            return 0;
+        }
+        int overallEOAA = 0;
+        for (int i = from; i < to; i++) {
+            if (zone.collides(starts[i], ends[i])) {
+                overallEOAA++;
+            }
+        }
+        return overallEOAA;
+    }
+
+    /**
+     * Returns the number of chars of the example matches which fall into the indexed intervals
+     * @param example the example index
+     * @param index the expected intervals
+     * @return the number of chars in the intersection
+     */
+    public int intersection(int example, IntervalIndex index) {
+        return intersection(starts, ends, offsets[example], offsets[example + 1], index);
+    }
+
+    private static int intersection(int[] starts, int[] ends, int from, int to, IntervalIndex index) {
+        if (index.isEmpty()) {
+            return 0;
+        }
+        int overallNumChars = 0;
+        for (int i = from; i < to; i++) {
+            overallNumChars += index.intersection(starts[i], ends[i]);
+        }
+        return overallNumChars;
+    }
+
+    /**
+     * Estimates the heap footprint of this object, arrays included
+     * @return the estimated size in bytes
+     */
+    public long getSizeBytes() {
+        return 24 + 3 * 16 + 4L * (starts.length + ends.length + offsets.length);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 37 * hash + Arrays.hashCode(this.starts);
+        hash = 37 * hash + Arrays.hashCode(this.ends);
+        hash = 37 * hash + Arrays.hashCode(this.offsets);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final EvaluationResults other = (EvaluationResults) obj;
+        return Arrays.equals(this.offsets, other.offsets) && Arrays.equals(this.starts, other.starts) && Arrays.equals(this.ends, other.ends);
+    }
+
+    /**
+     * Incrementally builds an EvaluationResults object, one example at a time:
+     * add the matches of the example and then call endExample.
+     * The statistics methods work on the ended examples, like the EvaluationResults ones.
+     */
+    public static final class Builder {
+
+        private int[] starts;
+        private int[] ends;
+        private int[] offsets;
+        private int size = 0;
+        private int examples = 0;
+
+        public Builder(int expectedExamples) {
+            this.starts = new int[Math.max(16, expectedExamples)];
+            this.ends = new int[this.starts.length];
+            this.offsets = new int[expectedExamples + 1];
+        }
+
+        public void add(int start, int end) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+
+        /**
+         * Drops the matches added for the current example
+         */
+        public void discardExample() {
+            size = offsets[examples];
+        }
+
+        public void endExample() {
+            if (examples + 1 == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            examples++;
+            offsets[examples] = size;
+        }
+
+        /**
+         * @return the number of ended examples
+         */
+        public int getExamplesCount() {
+            return examples;
+        }
+
+        /**
+         * @see EvaluationResults#countIdenticalRanges(int, it.units.inginf.male.inputs.IntervalIndex)
+         */
+        public int countIdenticalRanges(int example, IntervalIndex index) {
+            return EvaluationResults.countIdenticalRanges(starts, ends, offsets[example], offsets[example + 1], index);
+        }
+
+        /**
+         * @see EvaluationResults#countRangesThatCollideZone(int, it.units.inginf.male.inputs.IntervalIndex)
+         */
+        public int countRangesThatCollideZone(int example, IntervalIndex zone) {
+            return EvaluationResults.countRangesThatCollideZone(starts, ends, offsets[example], offsets[example + 1], zone);
+        }
+
+        /**
+         * @see EvaluationResults#intersection(int, it.units.inginf.male.inputs.IntervalIndex)
+         */
+        public int intersection(int example, IntervalIndex index) {
+            return EvaluationResults.intersection(starts, ends, offsets[example], offsets[example + 1], index);
+        }
+
+        public EvaluationResults build() {
+            return new EvaluationResults(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size), Arrays.copyOf(offsets, examples + 1));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+/**
+ * Finds the matches of an individual in the examples without using java.util.regex.
+ * @author MaleLabTs
+ */
+interface ExampleMatcher {
+
+    /**
+     * Adds all the matches found in the text to the current example of the results, with the
+     * same semantic of repeated Matcher.find invocations.
+     * When the text cannot be handled nothing is added and the caller has to evaluate the text with java.util.regex.
+     * @param text
+     * @param results
+     * @return true when the text has been evaluated
+     */
+    boolean findAll(CharSequence text, EvaluationResults.Builder results);
+}
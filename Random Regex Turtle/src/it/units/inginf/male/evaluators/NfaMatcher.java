@@ -0,0 +1,351 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+import it.units.inginf.male.evaluators.TreeMatcher.AltTerm;
+import it.units.inginf.male.evaluators.TreeMatcher.AnchorTerm;
+import it.units.inginf.male.evaluators.TreeMatcher.CharClass;
+import it.units.inginf.male.evaluators.TreeMatcher.CharTerm;
+import it.units.inginf.male.evaluators.TreeMatcher.RepeatTerm;
+import it.units.inginf.male.evaluators.TreeMatcher.SeqTerm;
+import it.units.inginf.male.evaluators.TreeMatcher.Term;
+import it.units.inginf.male.tree.Node;
+import java.util.Arrays;
+
+/**
+ * Thompson NFA matcher for the individuals without lookarounds, simulated with a Pike VM.
+ * Threads are kept in priority order (leftmost-first), so the matches are the same found by the backtracking of
+ * java.util.regex, but every Matcher.find equivalent runs in time linear with the text length, regardless
+ * of the nested quantifiers.
+ * <p>
+ * Supported trees are the ones supported by {@link TreeMatcher}, without lookarounds and without possessive
+ * quantifiers over sub-expressions (possessive quantifiers over a single char or class are supported);
+ * bounded repetitions are unrolled and the trees whose program exceeds MAX_PROGRAM_SIZE instructions are
+ * not supported either.
+ * @author MaleLabTs
+ */
+public final class NfaMatcher implements ExampleMatcher {
+
+    public static final int MAX_PROGRAM_SIZE = 4096;
+
+    private static final int CHAR = 0;
+    private static final int CLASS = 1;
+    private static final int SPLIT = 2;
+    private static final int JUMP = 3;
+    private static final int BEGIN = 4;
+    private static final int DOLLAR = 5;
+    //goes to pc + 1 when the current char is in the class, otherwise goes to the target
+    private static final int POSSESSIVE = 6;
+    private static final int MATCH = 7;
+
+    private final int[] opcodes;
+    private final int[] arguments;
+    private final int[] targets;
+    private final CharClass[] classes;
+
+    private NfaMatcher(Program program) {
+        this.opcodes = Arrays.copyOf(program.opcodes, program.size);
+        this.arguments = Arrays.copyOf(program.arguments, program.size);
+        this.targets = Arrays.copyOf(program.targets, program.size);
+        this.classes = Arrays.copyOf(program.classes, program.size);
+    }
+
+    /**
+     * Compiles the tree
+     * @param root the tree
+     * @return the matcher, or null when the tree is not supported
+     */
+    public static NfaMatcher compile(Node root) {
+        Term term = TreeMatcher.parse(root);
+        if (term == null) {
+            return null;
+        }
+        Program program = new Program();
+        if (!program.add(term)) {
+            return null;
+        }
+        program.emit(MATCH, 0, null);
+        if (program.size > MAX_PROGRAM_SIZE) {
+            return null;
+        }
+        return new NfaMatcher(program);
+    }
+
+    @Override
+    public boolean findAll(CharSequence text, EvaluationResults.Builder results) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            if (Character.isSurrogate(text.charAt(i))) {
+                return false;
+            }
+        }
+        Threads current = new Threads(opcodes.length);
+        Threads next = new Threads(opcodes.length);
+        int[] stack = new int[2 * opcodes.length + 1];
+        int first = -1;
+        int last = 0;
+        while (true) {
+            int from = (last == first) ? last + 1 : last;
+            if (from > length) {
+                break;
+            }
+            int matchStart = -1;
+            int matchEnd = -1;
+            current.clear();
+            for (int i = from; i <= length; i++) {
+                if (matchStart < 0) {
+                    addThread(current, stack, text, 0, i, i);
+                } else if (current.size == 0) {
+                    break;
+                }
+                next.clear();
+                for (int t = 0; t < current.size; t++) {
+                    int pc = current.pcs[t];
+                    int opcode = opcodes[pc];
+                    if (opcode == MATCH) {
+                        //lower priority threads are discarded
+                        matchStart = current.starts[t];
+                        matchEnd = i;
+                        break;
+                    }
+                    if (i < length) {
+                        char c = text.charAt(i);
+                        if (opcode == CHAR ? c == arguments[pc] : classes[pc].contains(c)) {
+                            addThread(next, stack, text, pc + 1, current.starts[t], i + 1);
+                        }
+                    }
+                }
+                Threads swap = current;
+                current = next;
+                next = swap;
+            }
+            if (matchStart < 0) {
+                break;
+            }
+            first = matchStart;
+            last = matchEnd;
+            results.add(first, last);
+        }
+        return true;
+    }
+
+    /**
+     * Adds the thread and follows its epsilon transitions in priority order; a thread reaching an
+     * instruction already in the list has a lower priority and it is dropped.
+     */
+    private void addThread(Threads threads, int[] stack, CharSequence text, int pc, int start, int i) {
+        int top = 0;
+        stack[top++] = pc;
+        while (top > 0) {
+            pc = stack[--top];
+            if (!threads.mark(pc)) {
+                continue;
+            }
+            switch (opcodes[pc]) {
+                case SPLIT:
+                    stack[top++] = targets[pc];
+                    stack[top++] = pc + 1;
+                    break;
+                case JUMP:
+                    stack[top++] = targets[pc];
+                    break;
+                case BEGIN:
+                    if (i == 0) {
+                        stack[top++] = pc + 1;
+                    }
+                    break;
+                case DOLLAR:
+                    if (TreeMatcher.isDollar(text, i)) {
+                        stack[top++] = pc + 1;
+                    }
+                    break;
+                case POSSESSIVE:
+                    if (i < text.length() && classes[pc].contains(text.charAt(i))) {
+                        stack[top++] = pc + 1;
+                    } else {
+                        stack[top++] = targets[pc];
+                    }
+                    break;
+                default:
+                    threads.add(pc, start);
+            }
+        }
+    }
+
+    /**
+     * Ordered list of threads, with the set of the instructions visited at the current position
+     */
+    private static final class Threads {
+
+        final int[] pcs;
+        final int[] starts;
+        final int[] marks;
+        int size = 0;
+        int generation = 0;
+
+        Threads(int programSize) {
+            this.pcs = new int[programSize];
+            this.starts = new int[programSize];
+            this.marks = new int[programSize];
+        }
+
+        void clear() {
+            size = 0;
+            generation++;
+        }
+
+        boolean mark(int pc) {
+            if (marks[pc] == generation) {
+                return false;
+            }
+            marks[pc] = generation;
+            return true;
+        }
+
+        void add(int pc, int start) {
+            pcs[size] = pc;
+            starts[size] = start;
+            size++;
+        }
+    }
+
+    private static final class Program {
+
+        int[] opcodes = new int[64];
+        int[] arguments = new int[64];
+        int[] targets = new int[64];
+        CharClass[] classes = new CharClass[64];
+        int size = 0;
+
+        int emit(int opcode, int argument, CharClass charClass) {
+            if (size == opcodes.length) {
+                opcodes = Arrays.copyOf(opcodes, size * 2);
+                arguments = Arrays.copyOf(arguments, size * 2);
+                targets = Arrays.copyOf(targets, size * 2);
+                classes = Arrays.copyOf(classes, size * 2);
+            }
+            opcodes[size] = opcode;
+            arguments[size] = argument;
+            classes[size] = charClass;
+            return size++;
+        }
+
+        /**
+         * Appends the instructions of the term
+         * @return false when the term is not supported
+         */
+        boolean add(Term term) {
+            if (size > MAX_PROGRAM_SIZE) {
+                return false;
+            }
+            if (term instanceof CharTerm) {
+                CharTerm charTerm = (CharTerm) term;
+                if (charTerm.charClass == null) {
+                    emit(CHAR, charTerm.literal, null);
+                } else {
+                    emit(CLASS, 0, charTerm.charClass);
+                }
+                return true;
+            }
+            if (term instanceof SeqTerm) {
+                for (Term child : ((SeqTerm) term).terms) {
+                    if (!add(child)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            if (term instanceof AltTerm) {
+                return addAlternatives((AltTerm) term);
+            }
+            if (term instanceof AnchorTerm) {
+                emit(((AnchorTerm) term).begin ? BEGIN : DOLLAR, 0, null);
+                return true;
+            }
+            if (term instanceof RepeatTerm) {
+                return addRepeat((RepeatTerm) term);
+            }
+            //lookarounds
+            return false;
+        }
+
+        private boolean addAlternatives(AltTerm term) {
+            int alternatives = term.terms.size();
+            int[] jumps = new int[alternatives - 1];
+            for (int k = 0; k < alternatives - 1; k++) {
+                int split = emit(SPLIT, 0, null);
+                if (!add(term.terms.get(k))) {
+                    return false;
+                }
+                jumps[k] = emit(JUMP, 0, null);
+                targets[split] = size;
+            }
+            if (!add(term.terms.get(alternatives - 1))) {
+                return false;
+            }
+            for (int jump : jumps) {
+                targets[jump] = size;
+            }
+            return true;
+        }
+
+        /**
+         * Unrolls the mandatory iterations and the bounded optional ones; the optional iterations
+         * are preferred to the exit (greedy) or taken whenever the next char matches (possessive).
+         */
+        private boolean addRepeat(RepeatTerm term) {
+            CharClass possessiveClass = null;
+            if (term.possessive) {
+                if (!(term.body instanceof CharTerm)) {
+                    return false;
+                }
+                possessiveClass = ((CharTerm) term.body).toCharClass();
+            }
+            for (int k = 0; k < term.min; k++) {
+                if (!add(term.body)) {
+                    return false;
+                }
+            }
+            if (term.max == TreeMatcher.UNBOUNDED) {
+                int loop = (possessiveClass == null) ? emit(SPLIT, 0, null) : emit(POSSESSIVE, 0, possessiveClass);
+                if (!add(term.body)) {
+                    return false;
+                }
+                int jump = emit(JUMP, 0, null);
+                targets[jump] = loop;
+                targets[loop] = size;
+                return true;
+            }
+            int optional = term.max - term.min;
+            if (optional > MAX_PROGRAM_SIZE) {
+                return false;
+            }
+            int[] exits = new int[optional];
+            for (int k = 0; k < optional; k++) {
+                exits[k] = (possessiveClass == null) ? emit(SPLIT, 0, null) : emit(POSSESSIVE, 0, possessiveClass);
+                if (!add(term.body)) {
+                    return false;
+                }
+            }
+            for (int exit : exits) {
+                targets[exit] = size;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.tree.Node;
+
+/**
+ * Evaluator which reports the results example by example and can stop before the end of the dataset.
+ * @author MaleLabTs
+ */
+public interface StreamingTreeEvaluator extends TreeEvaluator {
+
+    /**
+     * Evaluates the individual and notifies the monitor after each example
+     * @param root
+     * @param context
+     * @param monitor
+     * @return the results of the evaluated examples; when the monitor stopped the evaluation, the results
+     * contain less examples than the dataset
+     * @throws TreeEvaluationException
+     */
+    EvaluationResults evaluate(Node root, Context context, EvaluationMonitor monitor) throws TreeEvaluationException;
+}
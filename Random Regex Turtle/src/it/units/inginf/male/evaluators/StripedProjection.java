@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+import it.units.inginf.male.inputs.DataSet;
+import it.units.inginf.male.inputs.DataSet.Example;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the examples of a striped dataset to the examples of the dataset it has been striped from, and projects
+ * the results of an individual over the full examples onto the striped slices.
+ * The projection of a match list is exact when the individual does not depend on the text outside its matches
+ * (no lookarounds, anchors, word boundaries or backreferences) and it always backtracks, that is it has no possessive
+ * quantifiers or atomic groups: they may commit, over the full text, to a match which reads past the slice end and fails,
+ * while over the slice they commit to a shorter match and succeed (see {@link #isContextFree(java.lang.String)}).
+ * Moreover the slice boundaries must not cut a match: a slice is projected only when no match crosses its boundaries and
+ * no non-empty match starts at its end; the other slices have to be evaluated.
+ * @author MaleLabTs
+ */
+final class StripedProjection {
+
+    private final int[] source;
+    private final int[] offset;
+    private final int[] length;
+    private final int[] sourceLength;
+    private final List<Example> examples;
+
+    private StripedProjection(int[] source, int[] offset, int[] length, int[] sourceLength, List<Example> examples) {
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+        this.sourceLength = sourceLength;
+        this.examples = examples;
+    }
+
+    /**
+     * Builds the projection of a (striped) dataset on a full dataset, the examples are matched by origin
+     * @param striped the striped dataset, or one of its "Separate and conquer" levels
+     * @param full the full dataset
+     * @return the projection, null when an example of the striped dataset has no origin in the full dataset
+     */
+    static StripedProjection build(DataSet striped, DataSet full) {
+        Map<Example, Integer> indexes = new IdentityHashMap<>();
+        List<Example> fullExamples = full.getExamples();
+        for (int i = 0; i < fullExamples.size(); i++) {
+            indexes.put(fullExamples.get(i).getOrigin(), i);
+        }
+        List<Example> examples = striped.getExamples();
+        int[] source = new int[examples.size()];
+        int[] offset = new int[examples.size()];
+        int[] length = new int[examples.size()];
+        int[] sourceLength = new int[examples.size()];
+        for (int i = 0; i < examples.size(); i++) {
+            Example example = examples.get(i);
+            Integer index = indexes.get(example.getOrigin());
+            if (index == null) {
+                return null;
+            }
+            Example sourceExample = fullExamples.get(index);
+            source[i] = index;
+            offset[i] = example.getOriginOffset() - sourceExample.getOriginOffset();
+            length[i] = example.getNumberOfChars();
+            sourceLength[i] = sourceExample.getNumberOfChars();
+            if (offset[i] < 0 || offset[i] + length[i] > sourceLength[i]) {
+                return null;
+            }
+        }
+        return new StripedProjection(source, offset, length, sourceLength, examples);
+    }
+
+    /**
+     * @return the number of examples of the striped dataset
+     */
+    int size() {
+        return source.length;
+    }
+
+    /**
+     * Returns the slices that cannot be projected from the results
+     * @param results the results over the full dataset
+     * @return the indexes of the slices which have to be evaluated
+     */
+    List<Integer> conflicts(EvaluationResults results) {
+        List<Integer> conflicts = new ArrayList<>();
+        for (int i = 0; i < source.length; i++) {
+            if (project(results, i, null) < 0) {
+                conflicts.add(i);
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * @param conflicts slice indexes
+     * @return the slices
+     */
+    List<Example> getExamples(List<Integer> conflicts) {
+        List<Example> slices = new ArrayList<>(conflicts.size());
+        for (int conflict : conflicts) {
+            slices.add(examples.get(conflict));
+        }
+        return slices;
+    }
+
+    /**
+     * Projects the results onto the slices; the conflicting slices take the results of their evaluation
+     * @param results the results over the full dataset
+     * @param conflicts the conflicting slices, as returned by conflicts
+     * @param conflictResults the results over the conflicting slices
+     * @return the results over the striped dataset
+     */
+    EvaluationResults project(EvaluationResults results, List<Integer> conflicts, EvaluationResults conflictResults) {
+        EvaluationResults.Builder builder = new EvaluationResults.Builder(source.length);
+        int nextConflict = 0;
+        for (int i = 0; i < source.length; i++) {
+            if (nextConflict < conflicts.size() && conflicts.get(nextConflict) == i) {
+                for (int match = 0; match < conflictResults.getMatchesCount(nextConflict); match++) {
+                    builder.add(conflictResults.getStart(nextConflict, match), conflictResults.getEnd(nextConflict, match));
+                }
+                nextConflict++;
+            } else {
+                project(results, i, builder);
+            }
+            builder.endExample();
+        }
+        return builder.build();
+    }
+
+    //adds the projected matches of the slice to the builder (when not null); returns -1 when the slice cannot be projected
+    private int project(EvaluationResults results, int slice, EvaluationResults.Builder builder) {
+        int example = source[slice];
+        int start = offset[slice];
+        int end = start + length[slice];
+        if (cutsSurrogatePair(slice)) {
+            return -1;
+        }
+        int count = results.getMatchesCount(example);
+        //matches are in extraction order, their starts and ends are not decreasing
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (results.getEnd(example, middle) > start || results.getStart(example, middle) >= start) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        int projected = 0;
+        for (int match = low; match < count; match++) {
+            int matchStart = results.getStart(example, match);
+            int matchEnd = results.getEnd(example, match);
+            if (matchStart > end) {
+                break;
+            }
+            if (matchStart < start || matchEnd > end || (matchStart == end && matchEnd > matchStart)) {
+                return -1;
+            }
+            if (builder != null) {
+                builder.add(matchStart - start, matchEnd - start);
+            }
+            projected++;
+        }
+        return projected;
+    }
+
+    private boolean cutsSurrogatePair(int slice) {
+        if (length[slice] == 0) {
+            return false;
+        }
+        CharSequence text = examples.get(slice).getText();
+        return (offset[slice] > 0 && Character.isLowSurrogate(text.charAt(0)))
+                || (offset[slice] + length[slice] < sourceLength[slice] && Character.isHighSurrogate(text.charAt(length[slice] - 1)));
+    }
+
+    /**
+     * Checks if the matches of the regex only depend on the matched text: the regex has no lookarounds, anchors,
+     * boundary matchers or backreferences, and no possessive quantifiers or atomic groups. The check is conservative.
+     * @param regex the regex
+     * @return true when the regex is context free
+     */
+    static boolean isContextFree(String regex) {
+        int classDepth = 0;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (i + 1 == regex.length()) {
+                    return false;
+                }
+                char escaped = regex.charAt(++i);
+                if (escaped == 'Q') {
+                    int quoteEnd = regex.indexOf("\\E", i + 1);
+                    if (quoteEnd < 0) {
+                        return true;
+                    }
+                    i = quoteEnd + 1;
+                } else if (escaped == 'c') {
+                    //control char, the next char is not a metachar
+                    i++;
+                } else if (classDepth == 0 && ("bBAzZGk".indexOf(escaped) >= 0 || Character.isDigit(escaped))) {
+                    return false;
+                }
+            } else if (c == '[') {
+                classDepth++;
+                //negation and a leading ']' are not metachars
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == '^') {
+                    i++;
+                }
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == ']') {
+                    i++;
+                }
+            } else if (c == ']' && classDepth > 0) {
+                classDepth--;
+            } else if (classDepth == 0 && (c == '^' || c == '$')) {
+                return false;
+            } else if (classDepth == 0 && (regex.startsWith("(?=", i) || regex.startsWith("(?!", i)
+                    || regex.startsWith("(?<=", i) || regex.startsWith("(?<!", i) || regex.startsWith("(?>", i))) {
+                return false;
+            } else if (classDepth == 0 && "+*?}".indexOf(c) >= 0 && i + 1 < regex.length() && regex.charAt(i + 1) == '+') {
+                //possessive quantifier
+                return false;
+            }
+        }
+        return true;
+    }
+}
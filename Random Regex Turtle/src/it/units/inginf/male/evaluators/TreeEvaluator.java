@@ -18,9 +18,7 @@
 package it.units.inginf.male.evaluators;
 
 import it.units.inginf.male.inputs.Context;
-import it.units.inginf.male.inputs.DataSet.Bounds;
 import it.units.inginf.male.tree.Node;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -30,6 +28,6 @@ import java.util.Map;
 public interface TreeEvaluator {
 
     public void setup(Map<String,String> parameters);
-    List<List<Bounds>> evaluate(Node root, Context context) throws TreeEvaluationException;
+    EvaluationResults evaluate(Node root, Context context) throws TreeEvaluationException;
     
 }
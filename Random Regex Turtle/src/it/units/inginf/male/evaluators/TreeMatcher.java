@@ -0,0 +1,1146 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+import it.units.inginf.male.tree.Anchor;
+import it.units.inginf.male.tree.DescriptionContext;
+import it.units.inginf.male.tree.Leaf;
+import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.tree.operator.Backreference;
+import it.units.inginf.male.tree.operator.Concatenator;
+import it.units.inginf.male.tree.operator.Group;
+import it.units.inginf.male.tree.operator.ListMatch;
+import it.units.inginf.male.tree.operator.ListNotMatch;
+import it.units.inginf.male.tree.operator.MatchMinMax;
+import it.units.inginf.male.tree.operator.MatchMinMaxGreedy;
+import it.units.inginf.male.tree.operator.MatchOneOrMore;
+import it.units.inginf.male.tree.operator.MatchOneOrMoreGreedy;
+import it.units.inginf.male.tree.operator.MatchZeroOrMore;
+import it.units.inginf.male.tree.operator.MatchZeroOrMoreGreedy;
+import it.units.inginf.male.tree.operator.MatchZeroOrOne;
+import it.units.inginf.male.tree.operator.MatchZeroOrOneGreedy;
+import it.units.inginf.male.tree.operator.NegativeLookahead;
+import it.units.inginf.male.tree.operator.NegativeLookbehind;
+import it.units.inginf.male.tree.operator.NonCapturingGroup;
+import it.units.inginf.male.tree.operator.Or;
+import it.units.inginf.male.tree.operator.PositiveLookahead;
+import it.units.inginf.male.tree.operator.PositiveLookbehind;
+import it.units.inginf.male.tree.operator.Quantifier;
+import it.units.inginf.male.tree.operator.TernaryOperator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Backtracking matcher compiled directly from a regex tree, without building and parsing the regex string.
+ * The matcher reproduces the java.util.regex semantic of the JAVA flavour description of the tree (default flags): 
+ * leftmost-first alternation, greedy and possessive quantifiers, lookarounds and the Matcher.find scanning rules.
+ * <p>
+ * The description of a tree is not always a faithful serialization of the tree (e.g. an Or inside a Concatenator
+ * is not parenthesized, a greedy quantifier applies to the last atom only); the compiler accepts only the trees
+ * whose description is parsed by java.util.regex with the same structure of the tree and returns null otherwise.
+ * Unsupported constructs are: backreferences, word boundaries, escapes other than \d \w \s (and their negations) and
+ * escaped punctuation, quantifiers over sub-expressions which can match the empty string, lookbehinds
+ * without a fixed maximum length or with repeated groups, supplementary characters.
+ * @author MaleLabTs
+ */
+public final class TreeMatcher implements ExampleMatcher {
+
+    static final int UNBOUNDED = Integer.MAX_VALUE;
+    private static final int MAX_LOOKBEHIND_LENGTH = 1 << 16;
+    private static final UnsupportedTreeException UNSUPPORTED = new UnsupportedTreeException();
+
+    private static final CharClass DIGIT = CharClass.of(new int[]{'0', '9'});
+    private static final CharClass WORD = CharClass.of(new int[]{'0', '9', 'A', 'Z', '_', '_', 'a', 'z'});
+    private static final CharClass SPACE = CharClass.of(new int[]{'\t', '\r', ' ', ' '});
+    private static final CharClass DOT = CharClass.of(new int[]{'\n', '\n', '\r', '\r', '\u0085', '\u0085', '\u2028', '\u2029'}).complement();
+
+    private final Op start;
+    private final int loops;
+
+    private TreeMatcher(Op start, int loops) {
+        this.start = start;
+        this.loops = loops;
+    }
+
+    /**
+     * Compiles the tree
+     * @param root the tree
+     * @return the matcher, or null when the tree is not supported
+     */
+    public static TreeMatcher compile(Node root) {
+        Term term = parse(root);
+        if (term == null) {
+            return null;
+        }
+        Emitter emitter = new Emitter();
+        Op start = term.emit(new Accept(), emitter);
+        return new TreeMatcher(start, emitter.loops);
+    }
+
+    /**
+     * Translates the tree into terms, the structure of the regex shared with the other matchers
+     * @param root the tree
+     * @return the root term, or null when the tree is not supported
+     */
+    static Term parse(Node root) {
+        try {
+            return translate(root).term;
+        } catch (UnsupportedTreeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Adds all the matches found in the text to the current example of the results, with the
+     * same semantic of repeated Matcher.find invocations.
+     * When the text cannot be handled (supplementary characters, stack exhaustion) nothing is added
+     * and the caller has to evaluate the text with java.util.regex.
+     * @param text
+     * @param results
+     * @return true when the text has been evaluated
+     */
+    @Override
+    public boolean findAll(CharSequence text, EvaluationResults.Builder results) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            if (Character.isSurrogate(text.charAt(i))) {
+                return false;
+            }
+        }
+        State state = new State(text, loops);
+        try {
+            int first = -1;
+            int last = 0;
+            while (true) {
+                int from = (last == first) ? last + 1 : last;
+                int found = -1;
+                for (int i = from; i <= length; i++) {
+                    if (start.match(state, i)) {
+                        found = i;
+                        break;
+                    }
+                }
+                if (found < 0) {
+                    break;
+                }
+                first = found;
+                last = state.last;
+                results.add(first, last);
+            }
+        } catch (StackOverflowError error) {
+            //java.util.regex could behave differently on deep recursions
+            results.discardExample();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks the end of input, or the position before a final line terminator (java.util.regex Dollar, not multiline)
+     */
+    static boolean isDollar(CharSequence text, int i) {
+        int end = text.length();
+        if (i < end - 2) {
+            return false;
+        }
+        if (i == end - 2 && (text.charAt(i) != '\r' || text.charAt(i + 1) != '\n')) {
+            return false;
+        }
+        if (i < end) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                return i == 0 || text.charAt(i - 1) != '\r';
+            }
+            return c == '\r' || c == '\u0085' || (c | 1) == '\u2029';
+        }
+        return true;
+    }
+
+    private static Translation translate(Node node) {
+        Class<? extends Node> type = node.getClass();
+        if (node instanceof Leaf) {
+            if (type == Backreference.class) {
+                throw UNSUPPORTED;
+            }
+            String value = describe(node);
+            if (type == Anchor.class) {
+                if (value.equals("^")) {
+                    return new Translation(new AnchorTerm(true), Shape.ATOM);
+                }
+                if (value.equals("$")) {
+                    return new Translation(new AnchorTerm(false), Shape.ATOM);
+                }
+                throw UNSUPPORTED;
+            }
+            return literals(value);
+        }
+        List<Node> childrens = node.getChildrens();
+        if (childrens.size() < node.getMinChildrenCount()) {
+            throw UNSUPPORTED;
+        }
+        if (type == Concatenator.class) {
+            Translation left = translate(childrens.get(0));
+            Translation right = translate(childrens.get(1));
+            if (left.shape == Shape.ALTERNATION || right.shape == Shape.ALTERNATION) {
+                throw UNSUPPORTED;
+            }
+            return new Translation(new SeqTerm(Arrays.asList(left.term, right.term)), Shape.SEQUENCE);
+        }
+        if (type == Or.class) {
+            Term left = translate(childrens.get(0)).term;
+            Term right = translate(childrens.get(1)).term;
+            Shape shape = (node.getParent() instanceof Quantifier) ? Shape.ATOM : Shape.ALTERNATION;
+            return new Translation(new AltTerm(Arrays.asList(left, right)), shape);
+        }
+        if (type == Group.class || type == NonCapturingGroup.class) {
+            return new Translation(translate(childrens.get(0)).term, Shape.ATOM);
+        }
+        if (type == ListMatch.class) {
+            return new Translation(new CharTerm(parseClass(describe(childrens.get(0)))), Shape.ATOM);
+        }
+        if (type == ListNotMatch.class) {
+            return new Translation(new CharTerm(parseClass(describe(childrens.get(0))).complement()), Shape.ATOM);
+        }
+        if (type == PositiveLookahead.class || type == NegativeLookahead.class) {
+            Term body = translate(childrens.get(0)).term;
+            return new Translation(new LookTerm(body, type == NegativeLookahead.class, false), Shape.ATOM);
+        }
+        if (type == PositiveLookbehind.class || type == NegativeLookbehind.class) {
+            Term body = translate(childrens.get(0)).term;
+            if (!body.isLookbehindSafe() || body.maxLength() > MAX_LOOKBEHIND_LENGTH) {
+                throw UNSUPPORTED;
+            }
+            return new Translation(new LookTerm(body, type == NegativeLookbehind.class, true), Shape.ATOM);
+        }
+        if (type == MatchOneOrMore.class) {
+            return possessive(childrens.get(0), 1, UNBOUNDED);
+        }
+        if (type == MatchZeroOrMore.class) {
+            return possessive(childrens.get(0), 0, UNBOUNDED);
+        }
+        if (type == MatchZeroOrOne.class) {
+            return possessive(childrens.get(0), 0, 1);
+        }
+        if (type == MatchMinMax.class) {
+            TernaryOperator minMax = (TernaryOperator) node;
+            return possessive(minMax.getFirst(), bound(minMax.getSecond()), bound(minMax.getThird()));
+        }
+        if (type == MatchOneOrMoreGreedy.class) {
+            return greedy(childrens.get(0), 1, UNBOUNDED);
+        }
+        if (type == MatchZeroOrMoreGreedy.class) {
+            return greedy(childrens.get(0), 0, UNBOUNDED);
+        }
+        if (type == MatchZeroOrOneGreedy.class) {
+            return greedy(childrens.get(0), 0, 1);
+        }
+        if (type == MatchMinMaxGreedy.class) {
+            TernaryOperator minMax = (TernaryOperator) node;
+            return greedy(minMax.getFirst(), bound(minMax.getSecond()), bound(minMax.getThird()));
+        }
+        throw UNSUPPORTED;
+    }
+
+    private static String describe(Node node) {
+        //JAVA descriptions do not depend on the description context
+        StringBuilder builder = new StringBuilder();
+        node.describe(builder, new DescriptionContext(), Node.RegexFlavour.JAVA);
+        return builder.toString();
+    }
+
+    private static int bound(Node node) {
+        try {
+            return Integer.parseInt(node.toString());
+        } catch (NumberFormatException ex) {
+            throw UNSUPPORTED;
+        }
+    }
+
+    /**
+     * Possessive quantifiers wrap their child into a non capturing group, unless the child looks like a single atom;
+     * the same test is performed here and the child has to be a real single atom when it is not wrapped.
+     */
+    private static Translation possessive(Node child, int min, int max) {
+        String description = describe(child);
+        int l = child.isEscaped() ? description.length() - 1 : description.length();
+        boolean group = l > 1 && !child.isCharacterClass() && !(child instanceof Group) && !(child instanceof NonCapturingGroup);
+        Translation body = translate(child);
+        if (!group && body.shape != Shape.ATOM) {
+            throw UNSUPPORTED;
+        }
+        return repeat(body.term, min, max, true);
+    }
+
+    /**
+     * Greedy quantifiers are appended to the child description, the child has to be a single atom.
+     */
+    private static Translation greedy(Node child, int min, int max) {
+        Translation body = translate(child);
+        if (body.shape != Shape.ATOM) {
+            throw UNSUPPORTED;
+        }
+        return repeat(body.term, min, max, false);
+    }
+
+    private static Translation repeat(Term body, int min, int max, boolean possessive) {
+        //empty iterations follow special rules in java.util.regex
+        if (min < 0 || min > max || body.minLength() == 0) {
+            throw UNSUPPORTED;
+        }
+        return new Translation(new RepeatTerm(body, min, max, possessive), Shape.QUANTIFIED);
+    }
+
+    /**
+     * Parses a leaf description, outside of a character class
+     */
+    private static Translation literals(String value) {
+        List<Term> terms = new ArrayList<>(value.length());
+        int i = 0;
+        while (i < value.length()) {
+            char c = value.charAt(i);
+            if (c == '\\') {
+                if (i + 1 == value.length()) {
+                    throw UNSUPPORTED;
+                }
+                char escaped = value.charAt(i + 1);
+                CharClass predefined = predefined(escaped);
+                if (predefined != null) {
+                    terms.add(new CharTerm(predefined));
+                } else if (isQuotable(escaped)) {
+                    terms.add(new CharTerm(escaped));
+                } else {
+                    throw UNSUPPORTED;
+                }
+                i += 2;
+            } else if (c == '.') {
+                terms.add(new CharTerm(DOT));
+                i++;
+            } else if ("^$|()[]{}*+?".indexOf(c) >= 0 || Character.isSurrogate(c)) {
+                throw UNSUPPORTED;
+            } else {
+                terms.add(new CharTerm(c));
+                i++;
+            }
+        }
+        if (terms.isEmpty()) {
+            throw UNSUPPORTED;
+        }
+        if (terms.size() == 1) {
+            return new Translation(terms.get(0), Shape.ATOM);
+        }
+        return new Translation(new SeqTerm(terms), Shape.SEQUENCE);
+    }
+
+    /**
+     * Parses the content of a character class: chars, escaped punctuation, predefined classes and ranges
+     */
+    private static CharClass parseClass(String content) {
+        if (content.isEmpty()) {
+            throw UNSUPPORTED;
+        }
+        List<int[]> ranges = new ArrayList<>();
+        int i = 0;
+        while (i < content.length()) {
+            char c = content.charAt(i);
+            char low;
+            if (c == '\\') {
+                if (i + 1 == content.length()) {
+                    throw UNSUPPORTED;
+                }
+                char escaped = content.charAt(i + 1);
+                CharClass predefined = predefined(escaped);
+                if (predefined != null) {
+                    ranges.add(predefined.ranges);
+                    i += 2;
+                    if (i < content.length() && content.charAt(i) == '-') {
+                        throw UNSUPPORTED;
+                    }
+                    continue;
+                }
+                if (!isQuotable(escaped)) {
+                    throw UNSUPPORTED;
+                }
+                low = escaped;
+                i += 2;
+            } else if (isClassLiteral(c)) {
+                low = c;
+                i++;
+            } else {
+                throw UNSUPPORTED;
+            }
+            char high = low;
+            if (i < content.length() && content.charAt(i) == '-') {
+                if (i + 1 == content.length()) {
+                    throw UNSUPPORTED;
+                }
+                char d = content.charAt(i + 1);
+                if (d == '\\') {
+                    if (i + 2 == content.length() || !isQuotable(content.charAt(i + 2))) {
+                        throw UNSUPPORTED;
+                    }
+                    high = content.charAt(i + 2);
+                    i += 3;
+                } else if (isClassLiteral(d)) {
+                    high = d;
+                    i += 2;
+                } else {
+                    throw UNSUPPORTED;
+                }
+                if (high < low) {
+                    throw UNSUPPORTED;
+                }
+            }
+            ranges.add(new int[]{low, high});
+        }
+        return CharClass.union(ranges);
+    }
+
+    private static CharClass predefined(char c) {
+        switch (c) {
+            case 'd':
+                return DIGIT;
+            case 'D':
+                return DIGIT.complement();
+            case 'w':
+                return WORD;
+            case 'W':
+                return WORD.complement();
+            case 's':
+                return SPACE;
+            case 'S':
+                return SPACE.complement();
+            default:
+                return null;
+        }
+    }
+
+    //a backslash before a non alphabetic char quotes the char
+    private static boolean isQuotable(char c) {
+        return c < 128 && !Character.isLetterOrDigit(c);
+    }
+
+    private static boolean isClassLiteral(char c) {
+        return "\\[]^&-".indexOf(c) < 0 && !Character.isSurrogate(c);
+    }
+
+    private enum Shape {
+
+        ATOM, QUANTIFIED, SEQUENCE, ALTERNATION
+    }
+
+    private static final class Translation {
+
+        final Term term;
+        final Shape shape;
+
+        Translation(Term term, Shape shape) {
+            this.term = term;
+            this.shape = shape;
+        }
+    }
+
+    private static final class UnsupportedTreeException extends RuntimeException {
+
+        UnsupportedTreeException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class Emitter {
+
+        int loops = 0;
+    }
+
+    /*
+     * Terms: the structure of the regex, with the length information used by lookbehinds.
+     * Lengths follow the java.util.regex rules (TreeInfo).
+     */
+    abstract static class Term {
+
+        abstract int minLength();
+
+        //UNBOUNDED when the term has no maximum length
+        abstract int maxLength();
+
+        abstract boolean isLookbehindSafe();
+
+        abstract Op emit(Op next, Emitter emitter);
+    }
+
+    static final class CharTerm extends Term {
+
+        final CharClass charClass;
+        final char literal;
+
+        CharTerm(CharClass charClass) {
+            this.charClass = charClass;
+            this.literal = 0;
+        }
+
+        CharTerm(char literal) {
+            this.charClass = null;
+            this.literal = literal;
+        }
+
+        @Override
+        int minLength() {
+            return 1;
+        }
+
+        @Override
+        int maxLength() {
+            return 1;
+        }
+
+        @Override
+        boolean isLookbehindSafe() {
+            return true;
+        }
+
+        CharClass toCharClass() {
+            return (charClass != null) ? charClass : CharClass.of(new int[]{literal, literal});
+        }
+
+        @Override
+        Op emit(Op next, Emitter emitter) {
+            if (charClass == null) {
+                return new LiteralOp(literal, next);
+            }
+            return new CharOp(charClass, next);
+        }
+    }
+
+    static final class SeqTerm extends Term {
+
+        final List<Term> terms;
+
+        SeqTerm(List<Term> terms) {
+            this.terms = terms;
+        }
+
+        @Override
+        int minLength() {
+            long length = 0;
+            for (Term term : terms) {
+                length += term.minLength();
+            }
+            return (int) Math.min(length, UNBOUNDED);
+        }
+
+        @Override
+        int maxLength() {
+            long length = 0;
+            for (Term term : terms) {
+                length += term.maxLength();
+            }
+            return (int) Math.min(length, UNBOUNDED);
+        }
+
+        @Override
+        boolean isLookbehindSafe() {
+            for (Term term : terms) {
+                if (!term.isLookbehindSafe()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        Op emit(Op next, Emitter emitter) {
+            Op op = next;
+            for (int i = terms.size() - 1; i >= 0; i--) {
+                op = terms.get(i).emit(op, emitter);
+            }
+            return op;
+        }
+    }
+
+    static final class AltTerm extends Term {
+
+        final List<Term> terms;
+
+        AltTerm(List<Term> terms) {
+            this.terms = terms;
+        }
+
+        @Override
+        int minLength() {
+            int length = UNBOUNDED;
+            for (Term term : terms) {
+                length = Math.min(length, term.minLength());
+            }
+            return length;
+        }
+
+        @Override
+        int maxLength() {
+            int length = 0;
+            for (Term term : terms) {
+                length = Math.max(length, term.maxLength());
+            }
+            return length;
+        }
+
+        @Override
+        boolean isLookbehindSafe() {
+            for (Term term : terms) {
+                if (!term.isLookbehindSafe()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        Op emit(Op next, Emitter emitter) {
+            Op[] alternatives = new Op[terms.size()];
+            for (int i = 0; i < alternatives.length; i++) {
+                alternatives[i] = terms.get(i).emit(next, emitter);
+            }
+            return new Branch(alternatives);
+        }
+    }
+
+    static final class AnchorTerm extends Term {
+
+        final boolean begin;
+
+        AnchorTerm(boolean begin) {
+            this.begin = begin;
+        }
+
+        @Override
+        int minLength() {
+            return 0;
+        }
+
+        @Override
+        int maxLength() {
+            return 0;
+        }
+
+        @Override
+        boolean isLookbehindSafe() {
+            return true;
+        }
+
+        @Override
+        Op emit(Op next, Emitter emitter) {
+            return begin ? new Begin(next) : new Dollar(next);
+        }
+    }
+
+    static final class LookTerm extends Term {
+
+        final Term body;
+        final boolean negative;
+        final boolean behind;
+
+        LookTerm(Term body, boolean negative, boolean behind) {
+            this.body = body;
+            this.negative = negative;
+            this.behind = behind;
+        }
+
+        @Override
+        int minLength() {
+            return 0;
+        }
+
+        @Override
+        int maxLength() {
+            return 0;
+        }
+
+        @Override
+        boolean isLookbehindSafe() {
+            return true;
+        }
+
+        @Override
+        Op emit(Op next, Emitter emitter) {
+            if (behind) {
+                return new Behind(body.emit(new BehindEnd(), emitter), body.minLength(), body.maxLength(), negative, next);
+            }
+            return new Look(body.emit(new LookEnd(), emitter), negative, next);
+        }
+    }
+
+    static final class RepeatTerm extends Term {
+
+        final Term body;
+        final int min;
+        final int max;
+        final boolean possessive;
+
+        RepeatTerm(Term body, int min, int max, boolean possessive) {
+            this.body = body;
+            this.min = min;
+            this.max = max;
+            this.possessive = possessive;
+        }
+
+        @Override
+        int minLength() {
+            return (int) Math.min((long) body.minLength() * min, UNBOUNDED);
+        }
+
+        @Override
+        int maxLength() {
+            if (max == UNBOUNDED || body.maxLength() == UNBOUNDED) {
+                return UNBOUNDED;
+            }
+            return (int) Math.min((long) body.maxLength() * max, UNBOUNDED);
+        }
+
+        @Override
+        boolean isLookbehindSafe() {
+            //repeated groups are studied differently by java.util.regex
+            return body instanceof CharTerm && max != UNBOUNDED;
+        }
+
+        @Override
+        Op emit(Op next, Emitter emitter) {
+            if (body instanceof CharTerm) {
+                return new CharRepeat(((CharTerm) body).toCharClass(), min, max, possessive, next);
+            }
+            if (possessive) {
+                return new PossessiveRepeat(body.emit(new IterationEnd(), emitter), min, max, next);
+            }
+            Loop loop = new Loop(min, max, emitter.loops++, next);
+            loop.body = body.emit(new LoopTail(loop), emitter);
+            return loop;
+        }
+    }
+
+    /*
+     * Program: each operation matches at position i and then invokes the next operation,
+     * backtracking is performed by returning false.
+     */
+    private static final class State {
+
+        final CharSequence text;
+        final int length;
+        final int[] counts;
+        //end of the match
+        int last;
+        //end of the last possessive iteration
+        int iterationEnd;
+        //position where the current lookbehind body has to end
+        int behindTo;
+
+        State(CharSequence text, int loops) {
+            this.text = text;
+            this.length = text.length();
+            this.counts = new int[loops];
+        }
+    }
+
+    private abstract static class Op {
+
+        abstract boolean match(State state, int i);
+    }
+
+    private static final class Accept extends Op {
+
+        @Override
+        boolean match(State state, int i) {
+            state.last = i;
+            return true;
+        }
+    }
+
+    private static final class LookEnd extends Op {
+
+        @Override
+        boolean match(State state, int i) {
+            return true;
+        }
+    }
+
+    private static final class BehindEnd extends Op {
+
+        @Override
+        boolean match(State state, int i) {
+            return i == state.behindTo;
+        }
+    }
+
+    private static final class IterationEnd extends Op {
+
+        @Override
+        boolean match(State state, int i) {
+            state.iterationEnd = i;
+            return true;
+        }
+    }
+
+    private static final class LiteralOp extends Op {
+
+        final char literal;
+        final Op next;
+
+        LiteralOp(char literal, Op next) {
+            this.literal = literal;
+            this.next = next;
+        }
+
+        @Override
+        boolean match(State state, int i) {
+            return i < state.length && state.text.charAt(i) == literal && next.match(state, i + 1);
+        }
+    }
+
+    private static final class CharOp extends Op {
+
+        final CharClass charClass;
+        final Op next;
+
+        CharOp(CharClass charClass, Op next) {
+            this.charClass = charClass;
+            this.next = next;
+        }
+
+        @Override
+        boolean match(State state, int i) {
+            return i < state.length && charClass.contains(state.text.charAt(i)) && next.match(state, i + 1);
+        }
+    }
+
+    private static final class CharRepeat extends Op {
+
+        final CharClass charClass;
+        final int min;
+        final int max;
+        final boolean possessive;
+        final Op next;
+
+        CharRepeat(CharClass charClass, int min, int max, boolean possessive, Op next) {
+            this.charClass = charClass;
+            this.min = min;
+            this.max = max;
+            this.possessive = possessive;
+            this.next = next;
+        }
+
+        @Override
+        boolean match(State state, int i) {
+            int limit = Math.min(max, state.length - i);
+            int count = 0;
+            while (count < limit && charClass.contains(state.text.charAt(i + count))) {
+                count++;
+            }
+            if (count < min) {
+                return false;
+            }
+            if (possessive) {
+                return next.match(state, i + count);
+            }
+            for (; count >= min; count--) {
+                if (next.match(state, i + count)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class PossessiveRepeat extends Op {
+
+        final Op body;
+        final int min;
+        final int max;
+        final Op next;
+
+        PossessiveRepeat(Op body, int min, int max, Op next) {
+            this.body = body;
+            this.min = min;
+            this.max = max;
+            this.next = next;
+        }
+
+        @Override
+        boolean match(State state, int i) {
+            int count = 0;
+            for (; count < min; count++) {
+                if (!body.match(state, i)) {
+                    return false;
+                }
+                i = state.iterationEnd;
+            }
+            for (; count < max; count++) {
+                if (!body.match(state, i) || state.iterationEnd == i) {
+                    break;
+                }
+                i = state.iterationEnd;
+            }
+            return next.match(state, i);
+        }
+    }
+
+    private static final class Loop extends Op {
+
+        Op body;
+        final int min;
+        final int max;
+        final int slot;
+        final Op next;
+
+        Loop(int min, int max, int slot, Op next) {
+            this.min = min;
+            this.max = max;
+            this.slot = slot;
+            this.next = next;
+        }
+
+        @Override
+        boolean match(State state, int i) {
+            int saved = state.counts[slot];
+            boolean result;
+            if (min > 0) {
+                state.counts[slot] = 1;
+                result = body.match(state, i);
+            } else if (max > 0) {
+                state.counts[slot] = 1;
+                result = body.match(state, i) || next.match(state, i);
+            } else {
+                result = next.match(state, i);
+            }
+            state.counts[slot] = saved;
+            return result;
+        }
+
+        boolean iterate(State state, int i) {
+            int count = state.counts[slot];
+            if (count < min) {
+                state.counts[slot] = count + 1;
+                boolean result = body.match(state, i);
+                if (!result) {
+                    state.counts[slot] = count;
+                }
+                return result;
+            }
+            if (count < max) {
+                state.counts[slot] = count + 1;
+                if (body.match(state, i)) {
+                    return true;
+                }
+                state.counts[slot] = count;
+            }
+            return next.match(state, i);
+        }
+    }
+
+    private static final class LoopTail extends Op {
+
+        final Loop loop;
+
+        LoopTail(Loop loop) {
+            this.loop = loop;
+        }
+
+        @Override
+        boolean match(State state, int i) {
+            return loop.iterate(state, i);
+        }
+    }
+
+    private static final class Branch extends Op {
+
+        final Op[] alternatives;
+
+        Branch(Op[] alternatives) {
+            this.alternatives = alternatives;
+        }
+
+        @Override
+        boolean match(State state, int i) {
+            for (Op alternative : alternatives) {
+                if (alternative.match(state, i)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Begin extends Op {
+
+        final Op next;
+
+        Begin(Op next) {
+            this.next = next;
+        }
+
+        @Override
+        boolean match(State state, int i) {
+            return i == 0 && next.match(state, i);
+        }
+    }
+
+    private static final class Dollar extends Op {
+
+        final Op next;
+
+        Dollar(Op next) {
+            this.next = next;
+        }
+
+        @Override
+        boolean match(State state, int i) {
+            return isDollar(state.text, i) && next.match(state, i);
+        }
+    }
+
+    private static final class Look extends Op {
+
+        final Op body;
+        final boolean negative;
+        final Op next;
+
+        Look(Op body, boolean negative, Op next) {
+            this.body = body;
+            this.negative = negative;
+            this.next = next;
+        }
+
+        @Override
+        boolean match(State state, int i) {
+            return body.match(state, i) != negative && next.match(state, i);
+        }
+    }
+
+    private static final class Behind extends Op {
+
+        final Op body;
+        final int minLength;
+        final int maxLength;
+        final boolean negative;
+        final Op next;
+
+        Behind(Op body, int minLength, int maxLength, boolean negative, Op next) {
+            this.body = body;
+            this.minLength = minLength;
+            this.maxLength = maxLength;
+            this.negative = negative;
+            this.next = next;
+        }
+
+        @Override
+        boolean match(State state, int i) {
+            int saved = state.behindTo;
+            state.behindTo = i;
+            boolean matched = false;
+            int from = Math.max(i - maxLength, 0);
+            for (int j = i - minLength; !matched && j >= from; j--) {
+                matched = body.match(state, j);
+            }
+            state.behindTo = saved;
+            return matched != negative && next.match(state, i);
+        }
+    }
+
+    /**
+     * Immutable set of chars, stored as sorted and disjoint inclusive ranges
+     */
+    static final class CharClass {
+
+        final int[] ranges;
+        private final boolean[] ascii = new boolean[128];
+
+        private CharClass(int[] ranges) {
+            this.ranges = ranges;
+            for (int r = 0; r < ranges.length; r += 2) {
+                for (int c = ranges[r]; c <= ranges[r + 1] && c < 128; c++) {
+                    ascii[c] = true;
+                }
+            }
+        }
+
+        static CharClass of(int[] ranges) {
+            return union(Collections.singletonList(ranges));
+        }
+
+        static CharClass union(List<int[]> rangesList) {
+            List<int[]> pairs = new ArrayList<>();
+            for (int[] ranges : rangesList) {
+                for (int r = 0; r < ranges.length; r += 2) {
+                    pairs.add(new int[]{ranges[r], ranges[r + 1]});
+                }
+            }
+            Collections.sort(pairs, new Comparator<int[]>() {
+                @Override
+                public int compare(int[] o1, int[] o2) {
+                    return Integer.compare(o1[0], o2[0]);
+                }
+            });
+            int[] merged = new int[pairs.size() * 2];
+            int size = 0;
+            for (int[] pair : pairs) {
+                if (size > 0 && pair[0] <= merged[size - 1] + 1) {
+                    merged[size - 1] = Math.max(merged[size - 1], pair[1]);
+                } else {
+                    merged[size++] = pair[0];
+                    merged[size++] = pair[1];
+                }
+            }
+            return new CharClass(Arrays.copyOf(merged, size));
+        }
+
+        CharClass complement() {
+            int[] complement = new int[ranges.length + 2];
+            int size = 0;
+            int next = 0;
+            for (int r = 0; r < ranges.length; r += 2) {
+                if (ranges[r] > next) {
+                    complement[size++] = next;
+                    complement[size++] = ranges[r] - 1;
+                }
+                next = ranges[r + 1] + 1;
+            }
+            if (next <= Character.MAX_VALUE) {
+                complement[size++] = next;
+                complement[size++] = Character.MAX_VALUE;
+            }
+            return new CharClass(Arrays.copyOf(complement, size));
+        }
+
+        boolean contains(char c) {
+            if (c < 128) {
+                return ascii[c];
+            }
+            int low = 0;
+            int high = ranges.length / 2 - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (c < ranges[2 * mid]) {
+                    high = mid - 1;
+                } else if (c > ranges[2 * mid + 1]) {
+                    low = mid + 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -41,6 +41,8 @@ public class Context {
     private Random random;
     private Configuration configuration;
     private long seed;
+    private double[] dominationBound = null;
+    private DatasetView datasetView = null;
 
     public Context(EvaluationPhases phase, final Configuration configuration) {
         this.phase = phase;
@@ -49,6 +51,22 @@ public class Context {
         this.random = new Random(this.seed);
         
     }
+    
+    /**
+     * Creates a copy of the context, the copy has the same phase, flags, configuration and dataset view
+     * but its own random generator, initialized with the context seed.
+     * @param context
+     */
+    public Context(Context context) {
+        this.phase = context.phase;
+        this.stripedPhase = context.stripedPhase;
+        this.separateAndConquerEnabled = context.separateAndConquerEnabled;
+        this.configuration = context.configuration;
+        this.seed = context.seed;
+        this.random = new Random(this.seed);
+        this.dominationBound = context.dominationBound;
+        this.datasetView = context.datasetView;
+    }
 
     /**
      * true when we are in a striped phase. During a striped phase the Context has to return
@@ -103,17 +121,13 @@ public class Context {
         switch(this.phase){
             //NOTE: only training dataset admits a striped dataset version
             case TRAINING: 
-                    DataSet trainingDataset;
+                    if(separateAndConquerEnabled && this.datasetView != null){
+                        return this.datasetView.getLastDataSet(this.isStripedPhase());
+                    }
                     if(!this.isStripedPhase()){
-                       trainingDataset = this.getDataSetContainer().getTrainingDataset();
+                       return this.getDataSetContainer().getTrainingDataset();
                     }  else {
-                       trainingDataset = this.getDataSetContainer().getTrainingDataset().getStripedDataset();
-                    }
-                    if(separateAndConquerEnabled){
-                        //getSeed returns a number that in current implementation IS the JOBID
-                        return trainingDataset.getLastSeparateAndConquerDataSet((int) this.getSeed());
-                    } else {
-                        return trainingDataset;
+                       return this.getDataSetContainer().getTrainingDataset().getStripedDataset();
                     }
             case VALIDATION: return this.getDataSetContainer().getValidationDataset();
             case LEARNING: return this.getDataSetContainer().getLearningDataset();
@@ -139,6 +153,24 @@ public class Context {
         return configuration.getDatasetContainer().getTrainingDataset();
 }
     
+    /**
+     * Returns the "Separate and conquer" levels of the job, the view is created on first request.
+     * @return the job dataset view
+     */
+    public DatasetView getDatasetView() {
+        if (this.datasetView == null) {
+            this.datasetView = new DatasetView(this.getTrainingDataset());
+        }
+        return this.datasetView;
+    }
+
+    /**
+     * Drops the job dataset view, and its "Separate and conquer" levels; it is called when the job completes.
+     */
+    public void releaseDatasetView() {
+        this.datasetView = null;
+    }
+    
     /**
      * Affects only the training phase.
      * When enabled, true, the Current dataset returns the last generated "Separate and conquer" for the training.
@@ -148,5 +180,18 @@ public class Context {
     public void setSeparateAndConquerEnabled(boolean separateAndConquerEnabled) {
         this.separateAndConquerEnabled = separateAndConquerEnabled;
     }
+
+    /**
+     * When not null, the strategy discards the individuals whose fitness is strictly dominated by this point;
+     * objectives can stop the evaluation of an individual as soon as a lower bound of its fitness is dominated.
+     * @return the domination bound, or null
+     */
+    public double[] getDominationBound() {
+        return dominationBound;
+    }
+
+    public void setDominationBound(double[] dominationBound) {
+        this.dominationBound = dominationBound;
+    }
      
 }
@@ -17,20 +17,25 @@
  */
 package it.units.inginf.male.inputs;
 
+import it.units.inginf.male.utils.PatternCache;
 import it.units.inginf.male.utils.Range;
+import java.util.AbstractSequentialList;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.ListIterator;
 import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * New dataset structure, this is intended to be serialized in Json format using Gson
+ * Examples are stored in a random access list. The datasets derived from a dataset (sub-datasets, 
+ * striped datasets and "Separate and conquer" levels) share the Example instances and have an
+ * unmodifiable list of examples. 
  * @author MaleLabTs
  */
 public class DataSet {
@@ -51,7 +56,7 @@ public class DataSet {
     public String name;
     public String description;
     public String regexTarget;
-    public List<Example> examples = new LinkedList<>();
+    public List<Example> examples = new ArrayList<>();
     
     private transient int numberMatches;
     private transient int numberUnmatches;
@@ -62,7 +67,6 @@ public class DataSet {
     
     private transient DataSet stripedDataset;
     
-    private transient Map<Long, List<DataSet>> separateAndConquerLevels = new ConcurrentHashMap<>();
     //private transient DataSet datasetFocus = null;
     private final static Logger LOG = Logger.getLogger(DataSet.class.getName());  
     
@@ -70,20 +74,31 @@ public class DataSet {
      * Updates the dataset statistics, numberMatches, numberMatchesChars and so on
      */
     public void updateStats(){
+        this.resetStats();
+        for (Example ex : this.examples) {
+            this.addStats(ex);
+        }
+    }
+    
+    void resetStats(){
         this.numberMatches = 0;
         this.numberUnmatches = 0;
         this.numberMatchedChars = 0;
         this.numberUnmatchedChars = 0;
         this.numberUnAnnotatedChars = 0;
         this.numberOfChars = 0;
+    }
     
-        for (Example ex : this.examples) {
-            this.numberMatches += ex.match.size();
-            this.numberUnmatches += ex.unmatch.size();
-            this.numberMatchedChars += ex.getNumberMatchedChars();
-            this.numberUnmatchedChars += ex.getNumberUnmatchedChars();
-            this.numberOfChars += ex.getNumberOfChars();
-        }
+    /**
+     * Adds the example to the dataset statistics, the example is not added to the dataset
+     * @param ex
+     */
+    void addStats(Example ex){
+        this.numberMatches += ex.match.size();
+        this.numberUnmatches += ex.unmatch.size();
+        this.numberMatchedChars += ex.getNumberMatchedChars();
+        this.numberUnmatchedChars += ex.getNumberUnmatchedChars();
+        this.numberOfChars += ex.getNumberOfChars();
         this.numberUnAnnotatedChars = this.numberOfChars - this.numberMatchedChars -this.numberUnmatchedChars;
     }
 
@@ -160,13 +175,8 @@ public class DataSet {
             if((((i*100)/examples.size())%5)==0){
                 System.out.format("randomize %d%%\n",((i*100)/examples.size()));
             }
-            Example ex1;
-            Example ex2;
             int destIndex = random.nextInt(examples.size());
-            ex1 = examples.get(i);
-            ex2 = examples.get(destIndex);
-            examples.set(i, ex2);
-            examples.set(destIndex, ex1);
+            Collections.swap(examples, i, destIndex);
         }
     }
     
@@ -178,7 +188,7 @@ public class DataSet {
     }
     
     /**
-     * Populate examples with the temporary list of matched and unmatched strings (using current match and unmatch bounds)
+     * Updates the examples annotations after a change of their bounds, see {@link Example#populateAnnotatedStrings()}
      */
     public void populateAnnotatedStrings(){
             for(Example example : this.examples){
@@ -186,10 +196,31 @@ public class DataSet {
             }
     }
 
+    /**
+     * Returns the examples; the list is random access, getExample(index) is a constant time operation.
+     * For derived datasets (views) the list is unmodifiable.
+     * @return the examples list
+     */
     public List<Example> getExamples() {
         return this.examples;
     }
     
+    /**
+     * Creates a dataset which is a "view" of all the examples of the current dataset, in the same order.
+     * The view has an unmodifiable list of examples, Example instances are shared.
+     * @param name
+     * @return
+     */
+    public DataSet view(String name){
+        DataSet view = new DataSet(name);
+        view.setExamplesView(new ArrayList<>(this.examples));
+        return view;
+    }
+    
+    private void setExamplesView(List<Example> examples){
+        this.examples = Collections.unmodifiableList(examples);
+    }
+    
     /**
      * Create a dataset which is a "view" of the current dataset.A subset of the dataset defined by ranges.
      * @param name
@@ -199,11 +230,13 @@ public class DataSet {
     public DataSet subDataset(String name, List<Range> ranges){
             // ranges are inclusive
             DataSet subDataset = new DataSet(name);
+            List<Example> subDatasetExamples = new ArrayList<>();
             for(Range range : ranges){
                 for(int index = range.getStartIndex(); index <= range.getEndIndex(); index++){
-                    subDataset.getExamples().add(this.getExamples().get(index));
+                    subDatasetExamples.add(this.getExamples().get(index));
                 }           
             }
+            subDataset.setExamplesView(subDatasetExamples);
             return subDataset;
     }
     
@@ -214,9 +247,11 @@ public class DataSet {
      */
     public DataSet initStripedDatasetView(double marginSize){
         this.stripedDataset = new DataSet(this.name, this.description, this.regexTarget);
+        List<Example> stripedExamples = new ArrayList<>();
         for(Example example : this.examples){
-            this.stripedDataset.getExamples().addAll(this.stripeExample(example, marginSize));
+            stripedExamples.addAll(this.stripeExample(example, marginSize));
         }        
+        this.stripedDataset.setExamplesView(stripedExamples);
         return this.stripedDataset;
     }
     
@@ -249,7 +284,9 @@ public class DataSet {
         //Create examples from slices
         for(Bounds slice : savedBounds){
             Example sliceExample = new Example();
-            sliceExample.setString(example.getString().substring(slice.start, slice.end));
+            sliceExample.setString(example.substring(slice.start, slice.end));
+            sliceExample.origin = example.getOrigin();
+            sliceExample.originOffset = example.getOriginOffset() + slice.start;
             
             //find owned matches
             for(Bounds match : example.getMatch()){
@@ -291,90 +328,42 @@ public class DataSet {
           return this.stripedDataset;
     }
     
-    /**
-     * Returns the "Separate and Conquer" sub-dataset of the requested level.
-     * Level 0 is the original dataset, level 1 is the dataset obtained from
-     * the first reduction, level 2 is the dataset from the second reduction
-     * and so on.
-     * 
-     * @param divideEtImperaLevel
-     * @param jobId
-     * @return
-     */
-    public DataSet getSeparateAndConquerDataSet(int divideEtImperaLevel, int jobId) {
-         if(divideEtImperaLevel == 0){
-             return this;
-         }
-         return getSeparateAndConquerLevels(jobId).get(divideEtImperaLevel - 1);
-    }
-    
-    /**
-     * Divide dataset, defaults to converting match to unmatches and text extraction problem.
-     * @param individualRegex
-     * @param jobId
-     * @return
-     */
-    public boolean addSeparateAndConquerLevel(String individualRegex, int jobId){
-        return this.addSeparateAndConquerLevel(individualRegex, jobId, true, false);
-    }
-    
-    /**
-     * From the last generated "Separate and conquer" sub-dataset, creates a new sub-dataset.
-     * We evaluate the individualRegex on the dataset examples, matches that are 
-     * correctly extracted are removed. A removed match is converted to unmatch or unannotated depending
-     * on the convertToUnmatch value: True==unmatch
-     * In striping mode, the base dataset and striped dataset are reduced separately.
-     * There is no direct connection from --i.e the third level of the original dataset
-     * and the third level of the striped dataset. The reduced dataset depends only 
-     * by its parent.
-     * NOTE: The levels are the sub-dataset, level 0 is the original dataset, level 1 is
-     * the sub-dataset reduced from the original dataset, level 2 is a sub-dataset reduced
-     * from the level 1 dataset and so on.
-     * @param individualRegex
-     * @param jobId
-     * @param convertToUnmatch when true, the eliminated matches are converted into unmatches, otherwise unannotated area.
-     * @param isFlagging
-     * @return true, when the dataset has been modified by reduction
-     */
-    public boolean addSeparateAndConquerLevel(String individualRegex, int jobId, boolean convertToUnmatch, boolean isFlagging){
-        boolean modified = false;
-        DataSet oldDataset = this.getLastSeparateAndConquerDataSet(jobId);
-        DataSet dataset = oldDataset.reduceSeparateAndConquerDataset(individualRegex, convertToUnmatch, isFlagging);
-        dataset.updateStats();
-        modified = (dataset.getNumberMatches() != oldDataset.getNumberMatches());
-        this.getSeparateAndConquerLevels(jobId).add(dataset);
-        if(this.getStripedDataset()!=null){
-            modified = this.getStripedDataset().addSeparateAndConquerLevel(individualRegex,jobId, convertToUnmatch, isFlagging) || modified;       
-        }
-        return modified;
-    }
-    
    /**
      * Creates a DataSet (sub-dataset for "Separate and conquer") from this dataset instance.
      * We evaluate the individualRegex on the dataset examples, matches that are 
      * correctly extracted are removed. A removed match is converted to unmatch or unannotated depending
      * on the convertToUnmatch value: True==unmatch
+     * The reduction is copy-on-write: the examples which are not modified are shared with this dataset,
+     * only the modified ones are new Example instances (sharing the text).
+     * The levels of a job are managed by its {@link DatasetView}.
+     * @return the reduced dataset, with updated statistics
      */
-    private DataSet reduceSeparateAndConquerDataset(String individualRegex, boolean convertToUnmatch, boolean isFlagging ){
+    DataSet reduceSeparateAndConquerDataset(String individualRegex, boolean convertToUnmatch, boolean isFlagging ){
         //initialize pattern matcher
-        Pattern pattern = Pattern.compile(individualRegex);
+        Pattern pattern = PatternCache.getInstance().compile(individualRegex);
         Matcher individualRegexMatcher = pattern.matcher("");
     
         DataSet reducedDataset = new DataSet(this.name, "Reduction: "+individualRegex, this.regexTarget);
+        List<Example> reducedExamples = new ArrayList<>(this.examples.size());
         for(Example example : this.examples){
             if(!isFlagging){
-                reducedDataset.getExamples().add(this.reduceSeparateAndConquerExample(example, individualRegexMatcher, convertToUnmatch));
+                reducedExamples.add(this.reduceSeparateAndConquerExample(example, individualRegexMatcher, convertToUnmatch));
             } else {
-                reducedDataset.getExamples().add(this.reduceSeparateAndConquerFlaggingExample(example, individualRegexMatcher));
+                reducedExamples.add(this.reduceSeparateAndConquerFlaggingExample(example, individualRegexMatcher));
             }
         }        
+        reducedDataset.setExamplesView(reducedExamples);
+        reducedDataset.updateStats();
         return reducedDataset;
     }
     
     private boolean isTruePositiveFlaggingExample(Example example, Matcher individualRegexMatcher){
+        if (example.match.isEmpty()) {
+            return false;
+        }
         try {
-            Matcher m = individualRegexMatcher.reset(example.getString());
-            return (m.find() && !example.match.isEmpty());
+            Matcher m = individualRegexMatcher.reset(example.getText());
+            return m.find();
         } catch (StringIndexOutOfBoundsException ex) {
             return false;
             /**
@@ -390,11 +379,9 @@ public class DataSet {
     private Example reduceSeparateAndConquerFlaggingExample(Example example, Matcher individualRegexMatcher){
         //Negative or unannotated are left unchanged
         if(!isTruePositiveFlaggingExample(example, individualRegexMatcher)){
-            return new Example(example);
+            return example;
         }
-        Example unannotatedExample = new Example();
-        unannotatedExample.setString(example.getString());
-        return unannotatedExample;
+        return example.withAnnotations(new LinkedList<Bounds>(), new LinkedList<Bounds>());
     }
     
     private Example reduceSeparateAndConquerExample(Example example, Matcher individualRegexMatcher, boolean convertToUnmatch){
@@ -405,11 +392,15 @@ public class DataSet {
     //ELIMINATED Feature: When doFocus is true, the method perform focus action instead of examples reduction (Focus action creates the complementary of the reduction in order to focus evolution).
     
     //When convertToUnmatch is true extracted matches are converted into unannotated. 
+    //Returns the same example instance when the reduction does not modify it.
     private Example manipulateSeparateAndConquerExample(Example example, Matcher individualRegexMatcher, boolean convertToUnmatch){
-        Example exampleClone = new Example(example);
+        //there are no matches to remove, the example is only modified when its unmatches have to be merged
+        if (example.match.isEmpty()) {
+            return isMerged(example.unmatch) ? example : reducedExample(example, new LinkedList<>(example.match), new LinkedList<>(example.unmatch));
+        }
         List<Bounds> extractions = new LinkedList<>();
         try {
-            Matcher m = individualRegexMatcher.reset(example.getString());
+            Matcher m = individualRegexMatcher.reset(example.getText());
             while (m.find()) {
                 Bounds bounds = new Bounds(m.start(0), m.end(0));
                 extractions.add(bounds);
@@ -424,14 +415,18 @@ public class DataSet {
         }
         
         //remove extracted matches
-        for (Iterator<Bounds> it = exampleClone.getMatch().iterator(); it.hasNext();) {
+        List<Bounds> reducedMatch = new LinkedList<>(example.match);
+        List<Bounds> reducedUnmatch = new LinkedList<>(example.unmatch);
+        boolean modified = false;
+        for (Iterator<Bounds> it = reducedMatch.iterator(); it.hasNext();) {
             Bounds match = it.next();
             for(Bounds extraction : extractions){
                 //when doFocus is true, match is remove when equals
                 if(match.equals(extraction)){
                     it.remove();
+                    modified = true;
                     if(convertToUnmatch){
-                        exampleClone.getUnmatch().add(match);
+                        reducedUnmatch.add(match);
                     }
                     break;
                 }
@@ -443,82 +438,30 @@ public class DataSet {
             }
         }
         
-        exampleClone.mergeUnmatchesBounds();
-        exampleClone.populateAnnotatedStrings();
-        return exampleClone;
-    }
-    
-    public DataSet getLastSeparateAndConquerDataSet(int jobId){
-        List<DataSet> datasetsList =  this.getSeparateAndConquerLevels(jobId);
-        if(datasetsList.isEmpty()){
-            return this;
-        }
-        return datasetsList.get(datasetsList.size() -1);
-    }
-    
-    public int getNumberOfSeparateAndConquerLevels(int jobId){
-        return this.getSeparateAndConquerLevels(jobId).size();
-    }
-    
-    
-    /**
-     * Returns all the "Separate and conquer" sub-datasets lists, for all the current threads.
-     * The map resolves a ThreadID to the thread sub-datasets (levels) list. 
-     * @return
-     */
-    public Map<Long, List<DataSet>> getAllSeparateAndConquerLevels(){
-        return this.separateAndConquerLevels;
-    }
-    
-    /**
-     * Returns the list of the sub-datasets created by "Separate and conquer", for the current thread.
-     * The threads (aka active Jobs) have their own sub-datasets. This works right as
-     * far as there is a *:1 relation between Jobs and Threads and we clean the generated
-     * levels when a new Job is stated.
-     * The levels are the sub-dataset, level 0 is the original dataset, level 1 is
-     * the sub-dataset reduced from the original dataset, level 2 is a sub-dataset reduced
-     * from the level 1 dataset and so on.
-     * @param jobId
-     * @return The list of sub datasets
-     */
-    public List<DataSet> getSeparateAndConquerLevels(long jobId){
-        if (this.separateAndConquerLevels.containsKey(jobId)){
-            return this.separateAndConquerLevels.get(jobId);
-        } else {
-            List<DataSet> newDatasetList = new LinkedList<>();
-            this.separateAndConquerLevels.put(jobId, newDatasetList);
-            return newDatasetList;
+        if (!modified && isMerged(example.unmatch)) {
+            return example;
         }
+        return reducedExample(example, reducedMatch, reducedUnmatch);
     }
     
-    /**
-     * Resets the "Separate and conquer" for the current thread only.
-     * Deletes all the generated (reduced) sub-datasets for the current thread.
-     */
-    public void resetSeparateAndConquer(long jobId){
-        this.getSeparateAndConquerLevels(jobId).clear();
-        if(this.getStripedDataset()!=null){
-            this.getStripedDataset().getSeparateAndConquerLevels(jobId).clear();
-        }
-    }
-    
-    
-    /**
-     * Resets the "Separate and conquer", delete reduced sub-datasets, for all threads.
-     */
-    public void resetAllSeparateAndConquer(){
-        this.getAllSeparateAndConquerLevels().clear();
+    private static Example reducedExample(Example example, List<Bounds> match, List<Bounds> unmatch){
+        Example reducedExample = example.withAnnotations(match, unmatch);
+        reducedExample.mergeUnmatchesBounds();
+        reducedExample.populateAnnotatedStrings();
+        return reducedExample;
     }
     
-    
-    public void removeSeparateAndConquerLevel(int jobID){
-        List<DataSet> separateAndConquerLevelsForJob = this.getSeparateAndConquerLevels(jobID);
-        if(!separateAndConquerLevelsForJob.isEmpty()){
-            separateAndConquerLevelsForJob.remove(separateAndConquerLevelsForJob.size()-1);
+    //true when mergeBounds would not change the bounds: they are sorted, not overlapping and not adjacent
+    private static boolean isMerged(List<Bounds> boundsList){
+        Bounds previous = null;
+        for(Bounds bounds : boundsList){
+            if(previous != null && bounds.start <= previous.end){
+                return false;
+            }
+            previous = bounds;
         }
+        return true;
     }
-
-   
     
     public static class Example {
 
@@ -526,31 +469,97 @@ public class DataSet {
         }
         
         public Example(Example example) {
-            this.string = example.string;
+            this.string = example.getString();
             this.match= new LinkedList<>(example.match);
             this.unmatch = new LinkedList<>(example.unmatch);
-            if(example.matchedStrings!=null){
-                this.matchedStrings = new LinkedList<>(example.matchedStrings);
-            }
-            if(example.unmatchedStrings!=null){
-                this.unmatchedStrings = new LinkedList<>(example.unmatchedStrings);
-        }
+            this.origin = example.origin;
+            this.originOffset = example.originOffset;
+            //indexes are immutable, the copy has the same annotations
+            this.matchIndex = example.matchIndex;
+            this.unmatchIndex = example.unmatchIndex;
+            this.annotatedIndex = example.annotatedIndex;
         }
         
         public String string;
         public List<Bounds> match = new LinkedList<>();
         public List<Bounds> unmatch = new LinkedList<>();
-        transient protected List<String> matchedStrings = new LinkedList<>();
-        transient protected List<String> unmatchedStrings = new LinkedList<>();
+        transient private volatile IntervalIndex matchIndex;
+        transient private volatile IntervalIndex unmatchIndex;
+        transient private volatile IntervalIndex annotatedIndex;
+        //the example whose text contains the text of this example, null when this is an original example
+        transient Example origin;
+        transient int originOffset;
 
         public void addMatchBounds(int bs, int bf) {
             Bounds boundaries = new Bounds(bs, bf);
             match.add(boundaries);
+            this.invalidateAnnotationIndexes();
         }
         
         public void addUnmatchBounds(int bs, int bf) {
             Bounds boundaries = new Bounds(bs, bf);
             unmatch.add(boundaries);
+            this.invalidateAnnotationIndexes();
+        }
+        
+        /**
+         * Rebuilds the match, unmatch and annotated (match and unmatch) indexes from the current
+         * match and unmatch bounds.
+         */
+        public void updateAnnotationIndexes(){
+            this.matchIndex = IntervalIndex.build(this.match);
+            this.unmatchIndex = IntervalIndex.build(this.unmatch);
+            List<Bounds> annotated = new ArrayList<>(this.match);
+            annotated.addAll(this.unmatch);
+            this.annotatedIndex = IntervalIndex.build(annotated);
+        }
+        
+        private void invalidateAnnotationIndexes(){
+            this.matchIndex = null;
+            this.unmatchIndex = null;
+            this.annotatedIndex = null;
+        }
+        
+        /**
+         * Returns the sorted index of the match bounds; the index is built lazily, on the first request.
+         * When the match list is modified directly, you have to call updateAnnotationIndexes.
+         * @return the match index
+         */
+        public IntervalIndex getMatchIndex(){
+            IntervalIndex index = this.matchIndex;
+            if(index == null){
+                index = IntervalIndex.build(this.match);
+                this.matchIndex = index;
+            }
+            return index;
+        }
+        
+        /**
+         * Returns the sorted index of the unmatch bounds.
+         * @return the unmatch index
+         */
+        public IntervalIndex getUnmatchIndex(){
+            IntervalIndex index = this.unmatchIndex;
+            if(index == null){
+                index = IntervalIndex.build(this.unmatch);
+                this.unmatchIndex = index;
+            }
+            return index;
+        }
+        
+        /**
+         * Returns the sorted index of all the annotated bounds, matches and unmatches.
+         * @return the annotated bounds index
+         */
+        public IntervalIndex getAnnotatedIndex(){
+            IntervalIndex index = this.annotatedIndex;
+            if(index == null){
+                List<Bounds> annotated = new ArrayList<>(this.match);
+                annotated.addAll(this.unmatch);
+                index = IntervalIndex.build(annotated);
+                this.annotatedIndex = index;
+            }
+            return index;
         }
         
         public int getNumberMatchedChars(){
@@ -564,6 +573,16 @@ public class DataSet {
         public int getNumberOfChars(){
             return string.length();
         }
+
+        /**
+         * Returns the substring of the example text
+         * @param start the start index, inclusive
+         * @param end the end index, exclusive
+         * @return the substring
+         */
+        public String substring(int start, int end){
+            return this.string.substring(start, end);
+        }
         
         private int getNumberCharsInsideIntervals(List<Bounds> textIntervals){
             int countChars = 0;
@@ -573,30 +592,77 @@ public class DataSet {
             return countChars;
         }
         
+        /**
+         * Invalidates the annotation indexes after a change of the bounds; the indexes are rebuilt on request.
+         * The matched and unmatched strings are views over the current bounds and need no update.
+         */
         public void populateAnnotatedStrings(){
-            this.matchedStrings.clear();
-            for(Bounds bounds : this.match){
-                this.matchedStrings.add(this.string.substring(bounds.start,bounds.end));
-            }
-            this.unmatchedStrings.clear();
-            for(Bounds bounds : this.unmatch){
-                this.unmatchedStrings.add(this.string.substring(bounds.start,bounds.end));
-        }
+            this.invalidateAnnotationIndexes();
         }
 
-        
+        /**
+         * Returns a read only view of the matched strings, the substrings are extracted when they are accessed.
+         * Consumers which read the strings many times should copy them.
+         * @return the matched strings
+         */
         public List<String> getMatchedStrings() {
-            return matchedStrings;
+            return new AnnotatedStrings(this, this.match);
         }
       
+        /**
+         * Returns a read only view of the unmatched strings, see {@link #getMatchedStrings()}.
+         * @return the unmatched strings
+         */
         public List<String> getUnmatchedStrings() {
-            return unmatchedStrings;
+            return new AnnotatedStrings(this, this.unmatch);
         }
         
         public String getString() {
             return string;
         }
 
+        /**
+         * Returns the example text for the matchers; it is the string of the example, other implementations
+         * (see {@link MappedDataSet}) can return a text which is not stored in the heap.
+         * @return the example text
+         */
+        public CharSequence getText() {
+            return string;
+        }
+
+        /**
+         * Creates a new example with the same text of this example and the provided annotations.
+         * The annotated strings and indexes of the new example are not populated.
+         * @param match the match bounds
+         * @param unmatch the unmatch bounds
+         * @return the new example
+         */
+        protected Example withAnnotations(List<Bounds> match, List<Bounds> unmatch) {
+            Example example = new Example();
+            example.setString(this.string);
+            example.match = match;
+            example.unmatch = unmatch;
+            example.origin = this.getOrigin();
+            example.originOffset = this.originOffset;
+            return example;
+        }
+
+        /**
+         * Returns the original example this example has been derived from: the derived examples (striped slices and
+         * "Separate and conquer" reductions) have a text which is a slice of the original example text.
+         * @return the original example, this example when it is not derived
+         */
+        public Example getOrigin() {
+            return (this.origin != null) ? this.origin : this;
+        }
+
+        /**
+         * @return the position of the text of this example in the text of its origin example
+         */
+        public int getOriginOffset() {
+            return this.originOffset;
+        }
+
         public List<Bounds> getMatch() {
             return match;
         }
@@ -616,6 +682,7 @@ public class DataSet {
          */
         public void populateUnmatchesFromMatches(){
             this.unmatch.clear();
+            this.invalidateAnnotationIndexes();
             //generate unmatches
                 int previousMatchFinalIndex = 0;
                 for(DataSet.Bounds oneMatch : this.match){
@@ -624,12 +691,12 @@ public class DataSet {
                     }
                     previousMatchFinalIndex = oneMatch.end;
                 }
-                if(previousMatchFinalIndex < string.length()){
+                if(previousMatchFinalIndex < this.getNumberOfChars()){
                     /*
                     the right value of the interval can be equal than the string.lenght
                     because the substrings are left-inclusive and right-exclusive
                     */
-                    this.addUnmatchBounds(previousMatchFinalIndex, string.length());
+                    this.addUnmatchBounds(previousMatchFinalIndex, this.getNumberOfChars());
                 }
         }
 
@@ -644,10 +711,10 @@ public class DataSet {
         public List<String> getAnnotatedStrings(){
             List<String> annotatedStrings = new LinkedList<>();
             for(Bounds bounds : this.getMatch()){
-                annotatedStrings.add(this.getString().substring(bounds.start, bounds.end));
+                annotatedStrings.add(this.substring(bounds.start, bounds.end));
             }
             for(Bounds bounds : this.getUnmatch()){
-                annotatedStrings.add(this.getString().substring(bounds.start, bounds.end));
+                annotatedStrings.add(this.substring(bounds.start, bounds.end));
             }
             return annotatedStrings;
         }
@@ -664,7 +731,7 @@ public class DataSet {
             Collections.sort(boundsList);  
             List<String> annotatedStrings = new LinkedList<>();
             for(Bounds bounds : boundsList){
-                annotatedStrings.add(this.getString().substring(bounds.start, bounds.end));
+                annotatedStrings.add(this.substring(bounds.start, bounds.end));
     }
             return annotatedStrings;
         }
@@ -672,10 +739,84 @@ public class DataSet {
          
         public void mergeUnmatchesBounds(){
             this.unmatch = Bounds.mergeBounds(this.unmatch);
+            this.invalidateAnnotationIndexes();
         }
         
     }
     
+    /**
+     * Read only view of the strings annotated by a list of bounds, the substrings are extracted on access
+     */
+    private static final class AnnotatedStrings extends AbstractSequentialList<String> {
+
+        private final Example example;
+        private final List<Bounds> boundsList;
+
+        AnnotatedStrings(Example example, List<Bounds> boundsList) {
+            this.example = example;
+            this.boundsList = boundsList;
+        }
+
+        @Override
+        public int size() {
+            return boundsList.size();
+        }
+
+        @Override
+        public ListIterator<String> listIterator(int index) {
+            final ListIterator<Bounds> iterator = boundsList.listIterator(index);
+            return new ListIterator<String>() {
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public String next() {
+                    Bounds bounds = iterator.next();
+                    return example.substring(bounds.start, bounds.end);
+                }
+
+                @Override
+                public boolean hasPrevious() {
+                    return iterator.hasPrevious();
+                }
+
+                @Override
+                public String previous() {
+                    Bounds bounds = iterator.previous();
+                    return example.substring(bounds.start, bounds.end);
+                }
+
+                @Override
+                public int nextIndex() {
+                    return iterator.nextIndex();
+                }
+
+                @Override
+                public int previousIndex() {
+                    return iterator.previousIndex();
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public void set(String e) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public void add(String e) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+    
     static public class Bounds implements Comparable<Bounds>{
         public Bounds(int start, int end) {
             this.start = start;
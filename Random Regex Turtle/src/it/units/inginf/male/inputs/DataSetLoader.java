@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.inputs;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import it.units.inginf.male.inputs.DataSet.Bounds;
+import it.units.inginf.male.inputs.DataSet.Example;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Loads the datasets from file, JSON datasets are parsed with a streaming JsonReader: the examples are built
+ * one at a time, without buffering the file content, and their bounds are validated when the example is complete.
+ * Binary datasets (see {@link MappedDataSet}) are mapped.
+ * The JSON format is the Gson serialization of {@link DataSet}; unknown fields are skipped, null fields keep
+ * their default value.
+ * @author MaleLabTs
+ */
+public final class DataSetLoader {
+
+    private DataSetLoader() {
+    }
+
+    /**
+     * Receives the content of a JSON dataset, in file order
+     */
+    public interface Handler {
+
+        /**
+         * Invoked for the name, description and regexTarget fields
+         * @param name the field name
+         * @param value the field value
+         * @throws IOException
+         */
+        void property(String name, String value) throws IOException;
+
+        /**
+         * Invoked for every complete and validated example
+         * @param example the example, its annotated strings are not populated
+         * @throws IOException
+         */
+        void example(Example example) throws IOException;
+    }
+
+    /**
+     * Loads a JSON or binary dataset file
+     * @param file the dataset file
+     * @param updateStats when true the dataset statistics are updated (binary datasets always update them)
+     * @return the dataset
+     * @throws IOException when the file cannot be read or the dataset is not valid
+     */
+    public static DataSet load(File file, boolean updateStats) throws IOException {
+        if (MappedDataSet.isMappedDataSet(file)) {
+            return new MappedDataSet(file);
+        }
+        try (Reader reader = openJson(file)) {
+            return loadJson(reader, updateStats);
+        }
+    }
+
+    /**
+     * Opens a JSON dataset file, with the platform charset
+     * @param file the dataset file
+     * @return the buffered reader
+     * @throws IOException
+     */
+    public static Reader openJson(File file) throws IOException {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(file)));
+    }
+
+    /**
+     * Loads a JSON dataset
+     * @param reader the JSON source, it is not closed
+     * @param updateStats when true the dataset statistics are computed while reading the examples
+     * @return the dataset
+     * @throws IOException when the source cannot be read or the dataset is not valid
+     */
+    public static DataSet loadJson(Reader reader, final boolean updateStats) throws IOException {
+        final DataSet dataSet = new DataSet();
+        dataSet.resetStats();
+        readJson(reader, new Handler() {
+
+            @Override
+            public void property(String name, String value) {
+                switch (name) {
+                    case "name":
+                        dataSet.setName(value);
+                        break;
+                    case "description":
+                        dataSet.setDescription(value);
+                        break;
+                    case "regexTarget":
+                        dataSet.setRegexTarget(value);
+                        break;
+                }
+            }
+
+            @Override
+            public void example(Example example) {
+                dataSet.getExamples().add(example);
+                if (updateStats) {
+                    dataSet.addStats(example);
+                }
+            }
+        });
+        return dataSet;
+    }
+
+    /**
+     * Streams a JSON dataset to the handler
+     * @param reader the JSON source, it is not closed
+     * @param handler the handler
+     * @throws IOException when the source cannot be read or the dataset is not valid
+     */
+    public static void readJson(Reader reader, Handler handler) throws IOException {
+        JsonReader jsonReader = new JsonReader(reader);
+        //same leniency of Gson.fromJson
+        jsonReader.setLenient(true);
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String name = jsonReader.nextName();
+            if (jsonReader.peek() == JsonToken.NULL) {
+                jsonReader.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "name":
+                case "description":
+                case "regexTarget":
+                    handler.property(name, jsonReader.nextString());
+                    break;
+                case "examples":
+                    int index = 0;
+                    jsonReader.beginArray();
+                    while (jsonReader.hasNext()) {
+                        handler.example(readExample(jsonReader, index++));
+                    }
+                    jsonReader.endArray();
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+    }
+
+    private static Example readExample(JsonReader jsonReader, int index) throws IOException {
+        Example example = new Example();
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String name = jsonReader.nextName();
+            if (jsonReader.peek() == JsonToken.NULL) {
+                jsonReader.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "string":
+                    example.setString(jsonReader.nextString());
+                    break;
+                case "match":
+                    example.match = readBounds(jsonReader);
+                    break;
+                case "unmatch":
+                    example.unmatch = readBounds(jsonReader);
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+        if (example.getString() == null) {
+            throw new IOException("Example " + index + " has no string");
+        }
+        validate(example.match, example.getNumberOfChars(), index);
+        validate(example.unmatch, example.getNumberOfChars(), index);
+        return example;
+    }
+
+    private static List<Bounds> readBounds(JsonReader jsonReader) throws IOException {
+        List<Bounds> boundsList = new LinkedList<>();
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            int start = 0;
+            int end = 0;
+            jsonReader.beginObject();
+            while (jsonReader.hasNext()) {
+                String name = jsonReader.nextName();
+                if (name.equals("start")) {
+                    start = jsonReader.nextInt();
+                } else if (name.equals("end")) {
+                    end = jsonReader.nextInt();
+                } else {
+                    jsonReader.skipValue();
+                }
+            }
+            jsonReader.endObject();
+            boundsList.add(new Bounds(start, end));
+        }
+        jsonReader.endArray();
+        return boundsList;
+    }
+
+    private static void validate(List<Bounds> boundsList, int length, int index) throws IOException {
+        for (Bounds bounds : boundsList) {
+            if (bounds.start < 0 || bounds.start > bounds.end || bounds.end > length) {
+                throw new IOException("Invalid bounds [" + bounds.start + "," + bounds.end + "] in example " + index);
+            }
+        }
+    }
+}
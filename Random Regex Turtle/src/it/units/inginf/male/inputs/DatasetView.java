@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.inputs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The "Separate and conquer" sub-datasets (levels) of a single job, for the training dataset and for its striped version.
+ * The view is owned by the job Context and it is dropped when the job completes; levels are never shared between jobs.
+ * Level 0 is the original dataset, level 1 is the dataset obtained from the first reduction, level 2 is the dataset
+ * from the second reduction and so on.
+ * The base dataset and the striped dataset are reduced separately: the reduced dataset depends only by its parent.
+ * A view is used by a single job, it is not thread safe; the levels are immutable and can be read concurrently.
+ * @author MaleLabTs
+ */
+public class DatasetView {
+
+    private final DataSet dataset;
+    private final List<DataSet> levels = new ArrayList<>();
+    private final List<DataSet> stripedLevels = new ArrayList<>();
+
+    /**
+     * @param dataset the training dataset, the striped levels are created when it has a striped dataset
+     */
+    public DatasetView(DataSet dataset) {
+        this.dataset = dataset;
+    }
+
+    /**
+     * Returns the last "Separate and conquer" level
+     * @param striped when true, the level of the striped dataset is returned
+     * @return the last level, the original (or striped) dataset when there are no levels
+     */
+    public DataSet getLastDataSet(boolean striped) {
+        List<DataSet> datasets = striped ? stripedLevels : levels;
+        if (datasets.isEmpty()) {
+            return striped ? dataset.getStripedDataset() : dataset;
+        }
+        return datasets.get(datasets.size() - 1);
+    }
+
+    /**
+     * Returns the "Separate and conquer" sub-dataset of the requested level
+     * @param level the level, 0 is the original dataset
+     * @return the sub-dataset
+     */
+    public DataSet getDataSet(int level) {
+        if (level == 0) {
+            return dataset;
+        }
+        return levels.get(level - 1);
+    }
+
+    public int getNumberOfLevels() {
+        return levels.size();
+    }
+
+    /**
+     * Divide dataset, defaults to converting match to unmatches and text extraction problem.
+     * @param individualRegex
+     * @return true, when the dataset has been modified by reduction
+     */
+    public boolean addLevel(String individualRegex) {
+        return addLevel(individualRegex, true, false);
+    }
+
+    /**
+     * From the last generated "Separate and conquer" sub-dataset, creates a new sub-dataset.
+     * We evaluate the individualRegex on the dataset examples, matches that are 
+     * correctly extracted are removed. A removed match is converted to unmatch or unannotated depending
+     * on the convertToUnmatch value: True==unmatch
+     * In striping mode, the base dataset and striped dataset are reduced separately.
+     * @param individualRegex
+     * @param convertToUnmatch when true, the eliminated matches are converted into unmatches, otherwise unannotated area.
+     * @param isFlagging
+     * @return true, when the dataset has been modified by reduction
+     */
+    public boolean addLevel(String individualRegex, boolean convertToUnmatch, boolean isFlagging) {
+        DataSet oldDataset = getLastDataSet(false);
+        DataSet reducedDataset = oldDataset.reduceSeparateAndConquerDataset(individualRegex, convertToUnmatch, isFlagging);
+        boolean modified = (reducedDataset.getNumberMatches() != oldDataset.getNumberMatches());
+        levels.add(reducedDataset);
+        if (dataset.getStripedDataset() != null) {
+            DataSet oldStripedDataset = getLastDataSet(true);
+            DataSet reducedStripedDataset = oldStripedDataset.reduceSeparateAndConquerDataset(individualRegex, convertToUnmatch, isFlagging);
+            modified = (reducedStripedDataset.getNumberMatches() != oldStripedDataset.getNumberMatches()) || modified;
+            stripedLevels.add(reducedStripedDataset);
+        }
+        return modified;
+    }
+
+    /**
+     * Removes the last level, of both the base and the striped datasets
+     */
+    public void removeLastLevel() {
+        if (!levels.isEmpty()) {
+            levels.remove(levels.size() - 1);
+        }
+        if (!stripedLevels.isEmpty()) {
+            stripedLevels.remove(stripedLevels.size() - 1);
+        }
+    }
+
+    /**
+     * Deletes all the generated (reduced) sub-datasets.
+     */
+    public void reset() {
+        levels.clear();
+        stripedLevels.clear();
+    }
+}
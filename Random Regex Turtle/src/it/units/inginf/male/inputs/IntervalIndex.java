@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.inputs;
+
+import it.units.inginf.male.inputs.DataSet.Bounds;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable, sorted index of a set of annotated intervals (Bounds) of an example.
+ * Intervals are sorted by start and end; the index answers equality, overlap and intersection-length
+ * queries for a single interval with binary searches, with the same semantic of the
+ * nested loops over the Bounds lists that the objectives used before.
+ * Intersection queries run in logarithmic time when the indexed intervals are disjoint (the usual case
+ * for matches and merged unmatches) and fall back to a linear scan otherwise.
+ * @author MaleLabTs
+ */
+public final class IntervalIndex {
+
+    public static final IntervalIndex EMPTY = new IntervalIndex(new int[0], new int[0]);
+
+    private final int[] starts;
+    private final int[] ends;
+    //maximum end among the first i+1 intervals
+    private final int[] prefixMaxEnd;
+    //overall length of the first i intervals
+    private final long[] prefixLength;
+    //sorted ends of the non empty intervals
+    private final int[] nonEmptyEnds;
+    private final boolean disjoint;
+
+    private IntervalIndex(int[] starts, int[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+        int size = starts.length;
+        this.prefixMaxEnd = new int[size];
+        this.prefixLength = new long[size + 1];
+        int[] nonEmpty = new int[size];
+        int nonEmptyCount = 0;
+        boolean isDisjoint = true;
+        for (int i = 0; i < size; i++) {
+            prefixMaxEnd[i] = (i == 0) ? ends[i] : Math.max(prefixMaxEnd[i - 1], ends[i]);
+            prefixLength[i + 1] = prefixLength[i] + (ends[i] - starts[i]);
+            if (starts[i] < ends[i]) {
+                nonEmpty[nonEmptyCount++] = ends[i];
+            }
+            if (i > 0 && starts[i] < ends[i - 1]) {
+                isDisjoint = false;
+            }
+        }
+        this.nonEmptyEnds = Arrays.copyOf(nonEmpty, nonEmptyCount);
+        Arrays.sort(this.nonEmptyEnds);
+        this.disjoint = isDisjoint;
+    }
+
+    /**
+     * Builds the index of the provided intervals
+     * @param bounds the intervals, the collection is not modified
+     * @return the index
+     */
+    public static IntervalIndex build(Collection<Bounds> bounds) {
+        if (bounds.isEmpty()) {
+            return EMPTY;
+        }
+        long[] packed = new long[bounds.size()];
+        int i = 0;
+        for (Bounds b : bounds) {
+            //start and end are non negative, packing keeps the (start, end) order
+            packed[i++] = ((long) b.start << 32) | (b.end & 0xFFFFFFFFL);
+        }
+        Arrays.sort(packed);
+        int[] starts = new int[packed.length];
+        int[] ends = new int[packed.length];
+        for (i = 0; i < packed.length; i++) {
+            starts[i] = (int) (packed[i] >>> 32);
+            ends[i] = (int) packed[i];
+        }
+        return new IntervalIndex(starts, ends);
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    public boolean isEmpty() {
+        return starts.length == 0;
+    }
+
+    public boolean isDisjoint() {
+        return disjoint;
+    }
+
+    /**
+     * @param start
+     * @param end
+     * @return true when the index contains the interval [start, end)
+     */
+    public boolean contains(int start, int end) {
+        for (int i = lowerBound(starts, start); i < starts.length && starts[i] == start; i++) {
+            if (ends[i] == end) {
+                return true;
+            }
+            if (ends[i] > end) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true when the interval collides with the indexed intervals, with the same semantic
+     * of {@link Bounds#countRangesThatCollideZone(java.util.List, java.util.List)}: the interval
+     * collides when it overlaps ({@link Bounds#overlaps(Bounds)}) an indexed interval which starts
+     * before the interval end.
+     * @param start
+     * @param end
+     * @return true when the interval collides
+     */
+    public boolean collides(int start, int end) {
+        //candidates are the intervals [0,candidates) with starts[i] < end
+        int candidates = lowerBound(starts, end);
+        if (candidates == 0) {
+            return false;
+        }
+        //proper intersection: candidate.end > start
+        if (prefixMaxEnd[candidates - 1] > start) {
+            return true;
+        }
+        //same start, the candidate constraint requires start < end
+        if (start < end) {
+            int i = lowerBound(starts, start);
+            if (i < starts.length && starts[i] == start) {
+                return true;
+            }
+        }
+        //same end, an interval with the same end is a candidate only when it is not empty
+        int j = lowerBound(nonEmptyEnds, end);
+        return j < nonEmptyEnds.length && nonEmptyEnds[j] == end;
+    }
+
+    /**
+     * Returns the overall number of chars shared by the interval and each of the indexed intervals
+     * @param start
+     * @param end
+     * @return the intersection length
+     */
+    public int intersection(int start, int end) {
+        if (!disjoint) {
+            int overallNumChars = 0;
+            for (int i = 0; i < starts.length; i++) {
+                overallNumChars += Math.max(0, Math.min(end, ends[i]) - Math.max(start, starts[i]));
+            }
+            return overallNumChars;
+        }
+        //disjoint intervals have sorted ends too
+        int from = upperBound(ends, start);
+        int to = lowerBound(starts, end);
+        if (from >= to) {
+            return 0;
+        }
+        long overallNumChars = prefixLength[to] - prefixLength[from];
+        overallNumChars -= Math.max(0, start - starts[from]);
+        overallNumChars -= Math.max(0, ends[to - 1] - end);
+        return (int) Math.max(0, overallNumChars);
+    }
+
+    //first index i with array[i] >= key
+    private static int lowerBound(int[] array, int key) {
+        int low = 0;
+        int high = array.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (array[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    //first index i with array[i] > key
+    private static int upperBound(int[] array, int key) {
+        int low = 0;
+        int high = array.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (array[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.inputs;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Dataset read from the binary format written by {@link MappedDataSetWriter}.
+ * The example strings are not loaded in the heap: the text region of the file is memory mapped (in segments
+ * of at most MAX_SEGMENT_BYTES, aligned on example boundaries) and the examples expose it through
+ * {@link Example#getText()}; getString decodes the string on request.
+ * The match and unmatch bounds are loaded in the heap, as they can be modified (e.g. populateUnmatchesFromMatches).
+ * Examples derived from these ones (separate and conquer reduction) share the mapped text.
+ * @author MaleLabTs
+ */
+public class MappedDataSet extends DataSet {
+
+    public static final int MAGIC = 0x52474453;
+    public static final int VERSION = 2;
+    static final long MAX_SEGMENT_BYTES = 1L << 30;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final transient File file;
+
+    /**
+     * Opens the file and maps the text region; the statistics are updated
+     * @param file a file written by {@link MappedDataSetWriter}
+     * @throws IOException when the file is not a valid dataset
+     */
+    public MappedDataSet(File file) throws IOException {
+        this.file = file;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            if (randomAccessFile.length() < 12 || randomAccessFile.readInt() != MAGIC) {
+                throw new IOException("Not a binary dataset: " + file);
+            }
+            int version = randomAccessFile.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary dataset version " + version + ": " + file);
+            }
+            int numberExamples = randomAccessFile.readInt();
+            long textPosition = randomAccessFile.readLong();
+            long matchPosition = randomAccessFile.readLong();
+            long unmatchPosition = randomAccessFile.readLong();
+            long indexPosition = randomAccessFile.readLong();
+            long propertiesPosition = randomAccessFile.readLong();
+            if (numberExamples < 0 || textPosition > matchPosition || matchPosition > unmatchPosition || unmatchPosition > indexPosition
+                    || indexPosition + (numberExamples + 1) * 24L != propertiesPosition || propertiesPosition > randomAccessFile.length()) {
+                throw new IOException("Corrupted binary dataset: " + file);
+            }
+            randomAccessFile.seek(propertiesPosition);
+            this.name = readNullableString(randomAccessFile);
+            this.description = readNullableString(randomAccessFile);
+            this.regexTarget = readNullableString(randomAccessFile);
+            FileChannel channel = randomAccessFile.getChannel();
+            try (DataInputStream index = open(file, indexPosition);
+                    DataInputStream matches = open(file, matchPosition);
+                    DataInputStream unmatches = open(file, unmatchPosition)) {
+                this.examples = new ArrayList<>(numberExamples);
+                List<Segment> segments = new ArrayList<>();
+                Segment segment = null;
+                long textStart = index.readLong();
+                long matchStart = index.readLong();
+                long unmatchStart = index.readLong();
+                for (int i = 0; i < numberExamples; i++) {
+                    long textEnd = index.readLong();
+                    long matchEnd = index.readLong();
+                    long unmatchEnd = index.readLong();
+                    long length = textEnd - textStart;
+                    if (length < 0 || length * 2 > Integer.MAX_VALUE || matchEnd < matchStart || unmatchEnd < unmatchStart) {
+                        throw new IOException("Corrupted binary dataset, example " + i + ": " + file);
+                    }
+                    if (segment == null || (textEnd - segment.start) * 2 > MAX_SEGMENT_BYTES) {
+                        segment = new Segment(textStart);
+                        segments.add(segment);
+                    }
+                    segment.end = textEnd;
+                    MappedExample example = new MappedExample(segment, (int) (textStart - segment.start), (int) length);
+                    example.match = readBounds(matches, matchEnd - matchStart, (int) length);
+                    example.unmatch = readBounds(unmatches, unmatchEnd - unmatchStart, (int) length);
+                    this.examples.add(example);
+                    textStart = textEnd;
+                    matchStart = matchEnd;
+                    unmatchStart = unmatchEnd;
+                }
+                if (textPosition + textStart * 2 != matchPosition) {
+                    throw new IOException("Corrupted binary dataset: " + file);
+                }
+                for (Segment mappedSegment : segments) {
+                    //the mapping stays valid after the channel is closed
+                    mappedSegment.text = channel.map(FileChannel.MapMode.READ_ONLY, textPosition + mappedSegment.start * 2,
+                            (mappedSegment.end - mappedSegment.start) * 2).asCharBuffer();
+                }
+            }
+        }
+        for (Example example : this.examples) {
+            example.populateAnnotatedStrings();
+        }
+        this.updateStats();
+    }
+
+    private static String readNullableString(RandomAccessFile in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        int length = in.readInt();
+        if (length < 0 || length > in.length() - in.getFilePointer()) {
+            throw new IOException("Corrupted binary dataset properties");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static DataInputStream open(File file, long position) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            in.getChannel().position(position);
+        } catch (IOException ex) {
+            in.close();
+            throw ex;
+        }
+        InputStream buffered = new BufferedInputStream(Channels.newInputStream(in.getChannel()), BUFFER_SIZE);
+        return new DataInputStream(buffered);
+    }
+
+    private static List<Bounds> readBounds(DataInputStream in, long count, int length) throws IOException {
+        List<Bounds> boundsList = new LinkedList<>();
+        for (long i = 0; i < count; i++) {
+            int start = in.readInt();
+            int end = in.readInt();
+            if (start < 0 || start > end || end > length) {
+                throw new IOException("Corrupted binary dataset, invalid bounds [" + start + "," + end + "]");
+            }
+            boundsList.add(new Bounds(start, end));
+        }
+        return boundsList;
+    }
+
+    /**
+     * @return the mapped file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Checks the magic number of the file
+     * @param file the file
+     * @return true when the file is in the binary dataset format
+     */
+    public static boolean isMappedDataSet(File file) {
+        if (!file.isFile() || file.length() < 4) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == MAGIC;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * A mapped region of the text, the char offsets are relative to the text region
+     */
+    private static final class Segment {
+
+        private final long start;
+        private long end;
+        private CharBuffer text;
+
+        Segment(long start) {
+            this.start = start;
+        }
+    }
+
+    /**
+     * Example whose string is a slice of a mapped segment.
+     * The absolute get methods of the CharBuffer do not change its state, the segment is shared by threads.
+     */
+    static final class MappedExample extends Example {
+
+        private final transient Segment segment;
+        private final transient int offset;
+        private final transient int length;
+
+        private MappedExample(Segment segment, int offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public String getString() {
+            return getText().toString();
+        }
+
+        @Override
+        public CharSequence getText() {
+            return segment.text.subSequence(offset, offset + length);
+        }
+
+        @Override
+        public int getNumberOfChars() {
+            return length;
+        }
+
+        @Override
+        public String substring(int start, int end) {
+            if (start < 0 || start > end || end > length) {
+                throw new StringIndexOutOfBoundsException("[" + start + "," + end + "] length " + length);
+            }
+            return segment.text.subSequence(offset + start, offset + end).toString();
+        }
+
+        @Override
+        public void setString(String string) {
+            throw new UnsupportedOperationException("Mapped examples are read only");
+        }
+
+        @Override
+        protected Example withAnnotations(List<Bounds> match, List<Bounds> unmatch) {
+            MappedExample example = new MappedExample(segment, offset, length);
+            example.match = match;
+            example.unmatch = unmatch;
+            example.origin = this.getOrigin();
+            example.originOffset = this.getOriginOffset();
+            return example;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.inputs;
+
+import it.units.inginf.male.inputs.DataSet.Bounds;
+import it.units.inginf.male.inputs.DataSet.Example;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes a dataset in the binary format read by {@link MappedDataSet}.
+ * Examples are written one at a time, the writer does not hold them in memory.
+ * The file is made of:
+ * a header (magic number, version, number of examples, positions of the regions),
+ * the text region (the example strings, UTF-16 big endian chars),
+ * the match table and the unmatch table (start and end int pairs),
+ * the example offset index (for every example and for the end of the dataset: the text offset, in chars,
+ * the match table offset and the unmatch table offset, in bounds; three longs),
+ * the properties (name, description and regexTarget; a presence flag, an int length and the UTF-8 bytes).
+ * The tables and the index are buffered into temporary files and appended to the text region when the writer is closed;
+ * the properties can be set until then.
+ * @author MaleLabTs
+ */
+public class MappedDataSetWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    //position of the number of examples in the header, after magic and version; the region positions follow it
+    private static final int NUMBER_EXAMPLES_OFFSET = 8;
+
+    private final File file;
+    private final DataOutputStream text;
+    private final File matchFile;
+    private final DataOutputStream matches;
+    private final File unmatchFile;
+    private final DataOutputStream unmatches;
+    private final File indexFile;
+    private final DataOutputStream index;
+    private final long textPosition;
+    private String name;
+    private String description;
+    private String regexTarget;
+    private long textChars = 0;
+    private long numberMatches = 0;
+    private long numberUnmatches = 0;
+    private int numberExamples = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates the file and writes the header
+     * @param file the output file
+     * @param name the dataset name
+     * @param description the dataset description
+     * @param regexTarget the dataset regexTarget
+     * @throws IOException
+     */
+    public MappedDataSetWriter(File file, String name, String description, String regexTarget) throws IOException {
+        this(file);
+        this.name = name;
+        this.description = description;
+        this.regexTarget = regexTarget;
+    }
+
+    /**
+     * Creates the file and writes the header
+     * @param file the output file
+     * @throws IOException
+     */
+    public MappedDataSetWriter(File file) throws IOException {
+        this.file = file;
+        this.text = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+        text.writeInt(MappedDataSet.MAGIC);
+        text.writeInt(MappedDataSet.VERSION);
+        //number of examples and region positions are written on close
+        text.writeInt(0);
+        for (int i = 0; i < 5; i++) {
+            text.writeLong(0);
+        }
+        this.textPosition = text.size();
+        this.matchFile = File.createTempFile("matches", ".tmp", file.getAbsoluteFile().getParentFile());
+        this.matches = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(matchFile), BUFFER_SIZE));
+        this.unmatchFile = File.createTempFile("unmatches", ".tmp", file.getAbsoluteFile().getParentFile());
+        this.unmatches = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(unmatchFile), BUFFER_SIZE));
+        this.indexFile = File.createTempFile("index", ".tmp", file.getAbsoluteFile().getParentFile());
+        this.index = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile), BUFFER_SIZE));
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public void setRegexTarget(String regexTarget) {
+        this.regexTarget = regexTarget;
+    }
+
+    /**
+     * Writes a presence flag and, when the string is not null, its UTF-8 bytes prefixed by their int length;
+     * unlike writeUTF there is no 64KB limit
+     */
+    private static void writeNullableString(DataOutputStream out, String string) throws IOException {
+        out.writeBoolean(string != null);
+        if (string != null) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Appends an example to the dataset
+     * @param example the example, bounds have to be inside the example string
+     * @throws IOException
+     */
+    public void add(Example example) throws IOException {
+        String string = example.getString();
+        if (string == null) {
+            throw new IllegalArgumentException("Example " + numberExamples + " has no string");
+        }
+        writeIndexEntry();
+        text.writeChars(string);
+        textChars += string.length();
+        numberMatches += writeBounds(matches, example.getMatch(), string.length());
+        numberUnmatches += writeBounds(unmatches, example.getUnmatch(), string.length());
+        numberExamples++;
+    }
+
+    private void writeIndexEntry() throws IOException {
+        index.writeLong(textChars);
+        index.writeLong(numberMatches);
+        index.writeLong(numberUnmatches);
+    }
+
+    private int writeBounds(DataOutputStream out, List<Bounds> boundsList, int length) throws IOException {
+        for (Bounds bounds : boundsList) {
+            if (bounds.start < 0 || bounds.start > bounds.end || bounds.end > length) {
+                throw new IllegalArgumentException("Invalid bounds [" + bounds.start + "," + bounds.end + "] in example " + numberExamples);
+            }
+            out.writeInt(bounds.start);
+            out.writeInt(bounds.end);
+        }
+        return boundsList.size();
+    }
+
+    /**
+     * Completes the file: appends the tables, the index and the properties, updates the header and deletes the temporary files
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writeIndexEntry();
+            matches.close();
+            unmatches.close();
+            index.close();
+            long matchPosition = textPosition + textChars * 2;
+            long unmatchPosition = matchPosition + numberMatches * 8;
+            long indexPosition = unmatchPosition + numberUnmatches * 8;
+            long propertiesPosition = indexPosition + (numberExamples + 1) * 24L;
+            append(matchFile);
+            append(unmatchFile);
+            append(indexFile);
+            writeNullableString(text, name);
+            writeNullableString(text, description);
+            writeNullableString(text, regexTarget);
+            text.close();
+            try (RandomAccessFile header = new RandomAccessFile(file, "rw")) {
+                header.seek(NUMBER_EXAMPLES_OFFSET);
+                header.writeInt(numberExamples);
+                header.writeLong(textPosition);
+                header.writeLong(matchPosition);
+                header.writeLong(unmatchPosition);
+                header.writeLong(indexPosition);
+                header.writeLong(propertiesPosition);
+            }
+        } finally {
+            text.close();
+            matches.close();
+            unmatches.close();
+            index.close();
+            matchFile.delete();
+            unmatchFile.delete();
+            indexFile.delete();
+        }
+    }
+
+    private void append(File temporaryFile) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = new BufferedInputStream(new FileInputStream(temporaryFile), BUFFER_SIZE)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                text.write(buffer, 0, read);
+            }
+        }
+    }
+
+    /**
+     * Writes a dataset in the binary format
+     * @param dataset the dataset
+     * @param file the output file
+     * @throws IOException
+     */
+    public static void write(DataSet dataset, File file) throws IOException {
+        try (MappedDataSetWriter writer = new MappedDataSetWriter(file, dataset.getName(), dataset.getDescription(), dataset.getRegexTarget())) {
+            for (Example example : dataset.getExamples()) {
+                writer.add(example);
+            }
+        }
+    }
+
+    /**
+     * Converts a JSON dataset file into the binary format; the examples are streamed, one at a time
+     * @param jsonFile the JSON dataset
+     * @param file the output file
+     * @throws IOException
+     */
+    public static void convert(File jsonFile, File file) throws IOException {
+        try (Reader reader = DataSetLoader.openJson(jsonFile);
+                final MappedDataSetWriter writer = new MappedDataSetWriter(file)) {
+            DataSetLoader.readJson(reader, new DataSetLoader.Handler() {
+
+                @Override
+                public void property(String name, String value) {
+                    switch (name) {
+                        case "name":
+                            writer.setName(value);
+                            break;
+                        case "description":
+                            writer.setDescription(value);
+                            break;
+                        case "regexTarget":
+                            writer.setRegexTarget(value);
+                            break;
+                    }
+                }
+
+                @Override
+                public void example(Example example) throws IOException {
+                    writer.add(example);
+                }
+            });
+        } catch (IOException | RuntimeException ex) {
+            //the writer is closed, do not leave a partial dataset
+            file.delete();
+            throw ex;
+        }
+    }
+}
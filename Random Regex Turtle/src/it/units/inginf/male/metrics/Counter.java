@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.metrics;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A monotonic counter. Updates are spread over padded cells, selected by thread id, so that threads
+ * updating the same counter do not contend on the same cache line; updates never allocate.
+ * @author MaleLabTs
+ */
+public class Counter extends Metric {
+
+    //longs per cell, a cell fills a cache line
+    private static final int PADDING = 8;
+    private static final int CELLS = cellsCount();
+
+    private final AtomicLongArray cells = new AtomicLongArray(CELLS * PADDING);
+
+    Counter(String name, String help, Map<String, String> labels) {
+        super(name, help, labels);
+    }
+
+    private static int cellsCount() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        return Integer.highestOneBit(Math.max(1, processors - 1)) << 1;
+    }
+
+    public void increment() {
+        add(1);
+    }
+
+    /**
+     * @param value a non negative value
+     */
+    public void add(long value) {
+        cells.addAndGet(((int) Thread.currentThread().getId() & (CELLS - 1)) * PADDING, value);
+    }
+
+    /**
+     * @return the counter value; concurrent updates may be partially included
+     */
+    public long get() {
+        long sum = 0;
+        for (int i = 0; i < CELLS; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    @Override
+    public String getType() {
+        return "counter";
+    }
+}
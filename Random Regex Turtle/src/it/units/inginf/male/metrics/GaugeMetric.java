@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.metrics;
+
+import java.util.Map;
+
+/**
+ * A registered {@link Gauge}
+ * @author MaleLabTs
+ */
+public class GaugeMetric extends Metric {
+
+    private final Gauge gauge;
+
+    GaugeMetric(String name, String help, Map<String, String> labels, Gauge gauge) {
+        super(name, help, labels);
+        this.gauge = gauge;
+    }
+
+    public double getValue() {
+        return gauge.getValue();
+    }
+
+    @Override
+    public String getType() {
+        return "gauge";
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.metrics;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of durations, in nanoseconds, with power of two buckets: the bucket i counts the durations
+ * d with 2^(i-1) &lt;= d &lt; 2^i (bucket 0 counts the zero durations). Quantiles are interpolated inside
+ * the buckets, so they are approximated by less than a factor two.
+ * Recording a duration updates a few atomic longs and never allocates.
+ * The exported values are in seconds.
+ * @author MaleLabTs
+ */
+public class Histogram extends Metric {
+
+    public static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    Histogram(String name, String help, Map<String, String> labels) {
+        super(name, help, labels);
+    }
+
+    /**
+     * Records the time elapsed from startNanos
+     * @param startNanos a System.nanoTime() value
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @param nanos the duration, negative durations are recorded as zero
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos)));
+        sum.addAndGet(nanos);
+        long current = max.get();
+        while (nanos > current && !max.compareAndSet(current, nanos)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * @return the number of recorded durations
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @param bucket the bucket index
+     * @return the number of durations recorded into the bucket
+     */
+    public long getBucketCount(int bucket) {
+        return buckets.get(bucket);
+    }
+
+    /**
+     * @param bucket the bucket index
+     * @return the exclusive upper bound of the bucket, in nanoseconds
+     */
+    public static double getBucketUpperBound(int bucket) {
+        return Math.pow(2, bucket);
+    }
+
+    public long getSumNanos() {
+        return sum.get();
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * Estimates a quantile of the recorded durations
+     * @param quantile the quantile, between 0 and 1
+     * @return the estimated duration in nanoseconds, 0 when the histogram is empty
+     */
+    public double getQuantileNanos(double quantile) {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            count += counts[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        double rank = quantile * count;
+        long cumulated = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] > 0 && cumulated + counts[i] >= rank) {
+                if (i == 0) {
+                    return 0;
+                }
+                double lower = getBucketUpperBound(i - 1);
+                double estimate = lower + (rank - cumulated) / counts[i] * lower;
+                return Math.min(estimate, getMaxNanos());
+            }
+            cumulated += counts[i];
+        }
+        return getMaxNanos();
+    }
+
+    public static double toSeconds(double nanos) {
+        return nanos / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    @Override
+    public String getType() {
+        return "histogram";
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.metrics;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the runtime metrics of the engine: counters, duration histograms and gauges, identified by name and labels.
+ * Metrics are created (or looked up) once, when the instrumented object is set up, and then updated without
+ * allocations; lookups are not meant for the hot paths.
+ * The shared instance is updated by evaluators, caches, strategies and variation operators; listeners can read it
+ * in their callbacks (see {@link it.units.inginf.male.strategy.impl.MetricsExecutionListener}) and export it as JSON
+ * or as Prometheus text. Metrics are cumulative, they are never reset.
+ * @author MaleLabTs
+ */
+public class MetricsRegistry {
+
+    private static final int FIRST_EXPORTED_BUCKET = 10;
+    private static final int LAST_EXPORTED_BUCKET = 36;
+    private static final MetricsRegistry instance = new MetricsRegistry();
+
+    private final ConcurrentMap<String, Metric> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * @return the registry shared by the engine
+     */
+    public static MetricsRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the counter with the name and labels, the counter is created when it does not exist
+     * @param name the metric name
+     * @param help the metric description
+     * @param labels label names and values, alternated
+     * @return the counter
+     */
+    public Counter counter(String name, String help, String... labels) {
+        Map<String, String> labelsMap = toMap(labels);
+        return register(new Counter(name, help, labelsMap), Counter.class, false);
+    }
+
+    /**
+     * Returns the histogram with the name and labels, the histogram is created when it does not exist
+     * @param name the metric name
+     * @param help the metric description
+     * @param labels label names and values, alternated
+     * @return the histogram
+     */
+    public Histogram histogram(String name, String help, String... labels) {
+        Map<String, String> labelsMap = toMap(labels);
+        return register(new Histogram(name, help, labelsMap), Histogram.class, false);
+    }
+
+    /**
+     * Registers a gauge, it replaces the gauge with the same name and labels
+     * @param name the metric name
+     * @param help the metric description
+     * @param gauge the sampled value
+     * @param labels label names and values, alternated
+     */
+    public void gauge(String name, String help, Gauge gauge, String... labels) {
+        register(new GaugeMetric(name, help, toMap(labels), gauge), GaugeMetric.class, true);
+    }
+
+    private <T extends Metric> T register(T metric, Class<T> type, boolean replace) {
+        String key = key(metric.getName(), metric.getLabels());
+        for (Metric other : metrics.values()) {
+            if (other.getName().equals(metric.getName()) && !type.isInstance(other)) {
+                throw new IllegalArgumentException("Metric " + metric.getName() + " is already registered as a " + other.getType());
+            }
+        }
+        if (replace) {
+            metrics.put(key, metric);
+            return metric;
+        }
+        Metric registered = metrics.putIfAbsent(key, metric);
+        return (registered == null) ? metric : type.cast(registered);
+    }
+
+    private static Map<String, String> toMap(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name and value pairs");
+        }
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < labels.length; i += 2) {
+            map.put(labels[i], labels[i + 1]);
+        }
+        return map;
+    }
+
+    private static String key(String name, Map<String, String> labels) {
+        StringBuilder builder = new StringBuilder(name);
+        appendLabels(builder, labels, null);
+        return builder.toString();
+    }
+
+    /**
+     * @return the registered metrics, sorted by name and labels
+     */
+    public List<Metric> getMetrics() {
+        List<Metric> sorted = new ArrayList<>(metrics.values());
+        Collections.sort(sorted, new Comparator<Metric>() {
+            @Override
+            public int compare(Metric o1, Metric o2) {
+                return key(o1.getName(), o1.getLabels()).compareTo(key(o2.getName(), o2.getLabels()));
+            }
+        });
+        return sorted;
+    }
+
+    /**
+     * Writes the metrics in the Prometheus text exposition format; durations are in seconds.
+     * @param writer
+     * @throws IOException
+     */
+    public void writePrometheus(Writer writer) throws IOException {
+        String lastName = null;
+        for (Metric metric : getMetrics()) {
+            String name = metric.getName();
+            if (!name.equals(lastName)) {
+                writer.write("# HELP " + name + " " + metric.getHelp().replace("\\", "\\\\").replace("\n", "\\n") + "\n");
+                writer.write("# TYPE " + name + " " + metric.getType() + "\n");
+                lastName = name;
+            }
+            if (metric instanceof Counter) {
+                writeSample(writer, name, metric.getLabels(), null, ((Counter) metric).get());
+            } else if (metric instanceof GaugeMetric) {
+                writeSample(writer, name, metric.getLabels(), null, ((GaugeMetric) metric).getValue());
+            } else if (metric instanceof Histogram) {
+                Histogram histogram = (Histogram) metric;
+                //a fixed set of buckets, from 1 microsecond to about 68 seconds
+                long cumulated = 0;
+                for (int i = 0; i <= LAST_EXPORTED_BUCKET; i++) {
+                    cumulated += histogram.getBucketCount(i);
+                    if (i >= FIRST_EXPORTED_BUCKET) {
+                        //buckets are exclusive, the Prometheus bounds are inclusive: the difference is one nanosecond
+                        writeSample(writer, name + "_bucket", metric.getLabels(), formatDouble(Histogram.toSeconds(Histogram.getBucketUpperBound(i))), cumulated);
+                    }
+                }
+                long count = histogram.getCount();
+                writeSample(writer, name + "_bucket", metric.getLabels(), "+Inf", count);
+                writeSample(writer, name + "_sum", metric.getLabels(), null, Histogram.toSeconds(histogram.getSumNanos()));
+                writeSample(writer, name + "_count", metric.getLabels(), null, count);
+            }
+        }
+    }
+
+    private static void writeSample(Writer writer, String name, Map<String, String> labels, String le, double value) throws IOException {
+        StringBuilder builder = new StringBuilder(name);
+        appendLabels(builder, labels, le);
+        builder.append(' ').append(formatDouble(value)).append('\n');
+        writer.write(builder.toString());
+    }
+
+    private static void appendLabels(StringBuilder builder, Map<String, String> labels, String le) {
+        if (labels.isEmpty() && le == null) {
+            return;
+        }
+        builder.append('{');
+        boolean first = true;
+        for (Map.Entry<String, String> label : labels.entrySet()) {
+            if (!first) {
+                builder.append(',');
+            }
+            builder.append(label.getKey()).append("=\"")
+                    .append(label.getValue().replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")).append('"');
+            first = false;
+        }
+        if (le != null) {
+            builder.append(first ? "" : ",").append("le=\"").append(le).append('"');
+        }
+        builder.append('}');
+    }
+
+    private static String formatDouble(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            return String.valueOf((long) value);
+        }
+        return String.format(Locale.ROOT, "%.9g", value);
+    }
+
+    /**
+     * Writes the metrics as a JSON object; histograms are summarized by count, sum, max and quantiles, in seconds.
+     * @param writer
+     * @throws IOException
+     */
+    public void writeJson(Writer writer) throws IOException {
+        JsonObject root = new JsonObject();
+        root.addProperty("timestamp", System.currentTimeMillis());
+        JsonArray array = new JsonArray();
+        for (Metric metric : getMetrics()) {
+            JsonObject object = new JsonObject();
+            object.addProperty("name", metric.getName());
+            object.addProperty("type", metric.getType());
+            object.addProperty("help", metric.getHelp());
+            JsonObject labels = new JsonObject();
+            for (Map.Entry<String, String> label : metric.getLabels().entrySet()) {
+                labels.addProperty(label.getKey(), label.getValue());
+            }
+            object.add("labels", labels);
+            if (metric instanceof Counter) {
+                object.addProperty("value", ((Counter) metric).get());
+            } else if (metric instanceof GaugeMetric) {
+                double value = ((GaugeMetric) metric).getValue();
+                object.addProperty("value", (Double.isNaN(value) || Double.isInfinite(value)) ? null : value);
+            } else if (metric instanceof Histogram) {
+                Histogram histogram = (Histogram) metric;
+                object.addProperty("count", histogram.getCount());
+                object.addProperty("sum", Histogram.toSeconds(histogram.getSumNanos()));
+                object.addProperty("max", Histogram.toSeconds(histogram.getMaxNanos()));
+                object.addProperty("p50", Histogram.toSeconds(histogram.getQuantileNanos(0.5)));
+                object.addProperty("p90", Histogram.toSeconds(histogram.getQuantileNanos(0.9)));
+                object.addProperty("p99", Histogram.toSeconds(histogram.getQuantileNanos(0.99)));
+            }
+            array.add(object);
+        }
+        root.add("metrics", array);
+        new GsonBuilder().setPrettyPrinting().serializeNulls().create().toJson(root, writer);
+    }
+
+    /**
+     * Exports the metrics to a file, in JSON format when the file name ends with ".json" and in Prometheus text format
+     * otherwise. The file is written to a temporary file and then renamed, readers never see a partial file.
+     * @param file
+     * @throws IOException
+     */
+    public void export(File file) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        File temporary = File.createTempFile(file.getName(), ".tmp", directory);
+        try {
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(temporary), StandardCharsets.UTF_8)) {
+                if (file.getName().toLowerCase(Locale.ROOT).endsWith(".json")) {
+                    writeJson(writer);
+                } else {
+                    writePrometheus(writer);
+                }
+            }
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            temporary.delete();
+        }
+    }
+}
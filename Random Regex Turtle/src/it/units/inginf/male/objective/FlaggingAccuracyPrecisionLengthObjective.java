@@ -18,6 +18,8 @@
 package it.units.inginf.male.objective;
 
 import it.units.inginf.male.utils.BasicStats;
+import it.units.inginf.male.evaluators.EvaluationResults;
+import it.units.inginf.male.evaluators.BlacklistedIndividualException;
 import it.units.inginf.male.evaluators.TreeEvaluationException;
 import it.units.inginf.male.evaluators.TreeEvaluator;
 import it.units.inginf.male.inputs.Context;
@@ -55,14 +57,15 @@ public class FlaggingAccuracyPrecisionLengthObjective implements Objective {
 
         double fitnessLenght;
 
-        List<List<Bounds>> evaluate;
+        EvaluationResults evaluate;
         try {
             evaluate = evaluator.evaluate(individual, context);
-            StringBuilder builder = new StringBuilder();
-            individual.describe(builder);
-            fitnessLenght = builder.length();
+            fitnessLenght = individual.getDescription().length();
         } catch (TreeEvaluationException ex) {
-            Logger.getLogger(FlaggingAccuracyPrecisionLengthObjective.class.getName()).log(Level.SEVERE, null, ex);
+            //blacklisted individuals have already been aborted, and logged, once
+            if (!(ex instanceof BlacklistedIndividualException)) {
+                Logger.getLogger(FlaggingAccuracyPrecisionLengthObjective.class.getName()).log(Level.SEVERE, null, ex);
+            }
             Arrays.fill(fitness, Double.POSITIVE_INFINITY);
             return fitness;
         }
@@ -71,8 +74,7 @@ public class FlaggingAccuracyPrecisionLengthObjective implements Objective {
 
        BasicStats statsOverall = new BasicStats();
 
-        for (int i = 0; i < evaluate.size(); i++) {
-            List<Bounds> result = evaluate.get(i);
+        for (int i = 0; i < evaluate.getExamplesCount(); i++) {
             BasicStats stats = new BasicStats();
             
             Example example = dataSetView.getExample(i);
@@ -83,10 +85,10 @@ public class FlaggingAccuracyPrecisionLengthObjective implements Objective {
             
             // TODO check example integrity: an example can NOT have both matches and unmatches
             
-            stats.tp = isTruePositive(result, example.match) ? 1 : 0;
-            stats.fp = isFalsePositive(result, example.unmatch) ? 1 : 0;
-            stats.fn = isFalseNegative(result, example.match) ? 1 : 0;
-            stats.tn = isTrueNegative(result, example.unmatch) ? 1 : 0;
+            stats.tp = isTruePositive(evaluate.getMatchesCount(i), example.match) ? 1 : 0;
+            stats.fp = isFalsePositive(evaluate.getMatchesCount(i), example.unmatch) ? 1 : 0;
+            stats.fn = isFalseNegative(evaluate.getMatchesCount(i), example.match) ? 1 : 0;
+            stats.tn = isTrueNegative(evaluate.getMatchesCount(i), example.unmatch) ? 1 : 0;
             
             statsOverall.add(stats);
         }
@@ -102,20 +104,20 @@ public class FlaggingAccuracyPrecisionLengthObjective implements Objective {
         return ex.match.isEmpty() && ex.unmatch.isEmpty();
     }
      
-    public static boolean isTruePositive(List<Bounds> individualMatches, List<Bounds> expectedMatches){
-        return !individualMatches.isEmpty() && !expectedMatches.isEmpty();
+    public static boolean isTruePositive(int individualMatches, List<Bounds> expectedMatches){
+        return individualMatches > 0 && !expectedMatches.isEmpty();
     }
 
-    public static boolean isFalsePositive(List<Bounds> individualMatches, List<Bounds> expectedUnmatches){
-        return !individualMatches.isEmpty() && !expectedUnmatches.isEmpty();
+    public static boolean isFalsePositive(int individualMatches, List<Bounds> expectedUnmatches){
+        return individualMatches > 0 && !expectedUnmatches.isEmpty();
     }
     
-    public static boolean isFalseNegative(List<Bounds> individualMatches, List<Bounds> expectedMatches){
-        return individualMatches.isEmpty() && !expectedMatches.isEmpty();
+    public static boolean isFalseNegative(int individualMatches, List<Bounds> expectedMatches){
+        return individualMatches == 0 && !expectedMatches.isEmpty();
     }
     
-    public static boolean isTrueNegative(List<Bounds> individualMatches, List<Bounds> expectedUnmatches){
-        return individualMatches.isEmpty() && !expectedUnmatches.isEmpty();
+    public static boolean isTrueNegative(int individualMatches, List<Bounds> expectedUnmatches){
+        return individualMatches == 0 && !expectedUnmatches.isEmpty();
     }
     
     @Override
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.objective;
+
+import it.units.inginf.male.evaluators.EvaluationMonitor;
+import it.units.inginf.male.evaluators.EvaluationResults;
+import it.units.inginf.male.evaluators.StreamingTreeEvaluator;
+import it.units.inginf.male.evaluators.TreeEvaluationException;
+import it.units.inginf.male.evaluators.TreeEvaluator;
+import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.inputs.DataSet;
+import it.units.inginf.male.inputs.DataSet.Example;
+import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.utils.BasicStats;
+import it.units.inginf.male.utils.Utils;
+
+/**
+ * Match and char statistics of an individual, accumulated example by example.
+ * When the context provides a domination bound (see {@link Context#getDominationBound()}) and the evaluator supports
+ * streaming, the evaluation is stopped as soon as the lower bound of the final fitness is strictly dominated by the bound:
+ * the individual is going to be discarded and the lower bound can be used as its fitness.
+ * @author MaleLabTs
+ */
+abstract class PartialStatistics implements EvaluationMonitor {
+
+    protected final DataSet dataSet;
+    protected final double fitnessLength;
+    protected final BasicStats stats = new BasicStats();
+    protected final BasicStats statsChars = new BasicStats();
+    //expected matches and matched chars of the examples not accumulated yet
+    protected long remainingMatches;
+    protected long remainingMatchedChars;
+    private final double[] bound;
+    private int examples = 0;
+    private boolean stopped = false;
+
+    PartialStatistics(DataSet dataSet, double fitnessLength, double[] bound) {
+        this.dataSet = dataSet;
+        this.fitnessLength = fitnessLength;
+        this.bound = bound;
+        this.remainingMatches = dataSet.getNumberMatches();
+        this.remainingMatchedChars = dataSet.getNumberMatchedChars();
+    }
+
+    /**
+     * Evaluates the individual, with a streaming evaluation when possible, and accumulates the statistics
+     * of all the evaluated examples
+     * @param evaluator
+     * @param individual
+     * @param context
+     * @throws TreeEvaluationException
+     */
+    void evaluate(TreeEvaluator evaluator, Node individual, Context context) throws TreeEvaluationException {
+        EvaluationResults results;
+        if (bound != null && evaluator instanceof StreamingTreeEvaluator) {
+            results = ((StreamingTreeEvaluator) evaluator).evaluate(individual, context, this);
+        } else {
+            results = evaluator.evaluate(individual, context);
+        }
+        //cached results are not streamed
+        for (int i = examples; i < results.getExamplesCount(); i++) {
+            Example example = dataSet.getExample(i);
+            add(example, results.countIdenticalRanges(i, example.getMatchIndex()), results.countRangesThatCollideZone(i, example.getAnnotatedIndex()),
+                    results.intersection(i, example.getMatchIndex()), results.intersection(i, example.getUnmatchIndex()));
+        }
+    }
+
+    @Override
+    public boolean exampleEvaluated(int index, EvaluationResults.Builder results) {
+        Example example = dataSet.getExample(index);
+        add(example, results.countIdenticalRanges(index, example.getMatchIndex()), results.countRangesThatCollideZone(index, example.getAnnotatedIndex()),
+                results.intersection(index, example.getMatchIndex()), results.intersection(index, example.getUnmatchIndex()));
+        if (examples < dataSet.getNumberExamples()) {
+            double[] lowerBound = lowerBound();
+            if (lowerBound != null && Utils.isAParetoDominateByB(lowerBound, bound)) {
+                stopped = true;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void add(Example example, int tp, int collisions, int tpChars, int fpChars) {
+        stats.tp += tp;
+        stats.fp += collisions - tp;
+        statsChars.tp += tpChars;
+        statsChars.fp += fpChars;
+        remainingMatches -= example.getNumberMatches();
+        remainingMatchedChars -= example.getNumberMatchedChars();
+        examples++;
+    }
+
+    /**
+     * @return true when the evaluation has been stopped, the statistics are partial
+     */
+    boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Returns the fitness of the individual: the lower bound when the evaluation has been stopped, the fitness
+     * of the accumulated statistics otherwise
+     * @return the fitness
+     */
+    double[] fitness() {
+        if (stopped) {
+            return lowerBound();
+        }
+        BasicStats overallChars = new BasicStats();
+        overallChars.tp = statsChars.tp;
+        overallChars.fp = statsChars.fp;
+        completeChars(overallChars);
+        return fitness(stats, overallChars);
+    }
+
+    /**
+     * Completes the char statistics with the true negatives and false negatives, for the whole dataset
+     * @param statsChars the accumulated (or optimistic) char statistics
+     */
+    protected void completeChars(BasicStats statsChars) {
+        statsChars.tn = dataSet.getNumberUnmatchedChars() - statsChars.fp;
+        statsChars.fn = dataSet.getNumberMatchedChars() - statsChars.tp;
+    }
+
+    /**
+     * Optimistic char statistics: all the matched chars of the remaining examples are extracted
+     * and no other unmatched char is extracted
+     * @return the optimistic char statistics, completed
+     */
+    protected BasicStats optimisticChars() {
+        BasicStats optimistic = new BasicStats();
+        optimistic.tp = Math.min(statsChars.tp + remainingMatchedChars, dataSet.getNumberMatchedChars());
+        optimistic.fp = statsChars.fp;
+        completeChars(optimistic);
+        return optimistic;
+    }
+
+    /**
+     * Computes the fitness from the overall statistics
+     * @param stats the match statistics, only tp and fp are defined
+     * @param statsChars the char statistics, completed
+     * @return the fitness
+     */
+    protected abstract double[] fitness(BasicStats stats, BasicStats statsChars);
+
+    /**
+     * Returns a lower bound of the final fitness, given the statistics accumulated so far; components have to be
+     * computed with the same floating point operations of the final fitness, on optimistic statistics.
+     * @return the lower bound, or null when the final fitness could be undefined (NaN)
+     */
+    protected abstract double[] lowerBound();
+}
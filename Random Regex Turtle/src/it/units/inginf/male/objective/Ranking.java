@@ -45,9 +45,7 @@ public class Ranking {
     }    
     
     public String getDescription(){
-        StringBuilder sb = new StringBuilder();
-        this.tree.describe(sb);
-        return sb.toString();
+        return this.tree.getDescription();
     }
 
     @Override
@@ -19,17 +19,19 @@ package it.units.inginf.male.objective.performance;
 
 import it.units.inginf.male.configuration.Configuration;
 import it.units.inginf.male.utils.BasicStats;
+import it.units.inginf.male.evaluators.EvaluationResults;
+import it.units.inginf.male.evaluators.BlacklistedIndividualException;
 import it.units.inginf.male.evaluators.TreeEvaluationException;
 import it.units.inginf.male.evaluators.TreeEvaluator;
 import it.units.inginf.male.inputs.Context;
 import it.units.inginf.male.inputs.DataSet;
 import it.units.inginf.male.inputs.DataSet.Bounds;
 import it.units.inginf.male.inputs.DataSet.Example;
+import it.units.inginf.male.inputs.IntervalIndex;
 import it.units.inginf.male.objective.Objective;
 import it.units.inginf.male.outputs.FinalSolution;
 import it.units.inginf.male.tree.Constant;
 import it.units.inginf.male.tree.Node;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -62,11 +64,14 @@ public class PerformacesObjective implements Objective {
         DataSet dataSetView = this.context.getCurrentDataSet();
         TreeEvaluator evaluator = context.getConfiguration().getEvaluator();
         double[] fitness = new double[12];
-        List<List<Bounds>> evaluate;
+        EvaluationResults evaluate;
         try {
             evaluate = evaluator.evaluate(individual, context);
         } catch (TreeEvaluationException ex) {
-            Logger.getLogger(PerformacesObjective.class.getName()).log(Level.SEVERE, null, ex);
+            //blacklisted individuals have already been aborted, and logged, once
+            if (!(ex instanceof BlacklistedIndividualException)) {
+                Logger.getLogger(PerformacesObjective.class.getName()).log(Level.SEVERE, null, ex);
+            }
             Arrays.fill(fitness, Double.POSITIVE_INFINITY);
             return fitness;
         }
@@ -80,37 +85,34 @@ public class PerformacesObjective implements Objective {
         //Flagging
         BasicStats statsOverallFlagging = new BasicStats();
 
-        int i = 0;
-        for (List<Bounds> result : evaluate) {
+        for (int i = 0; i < evaluate.getExamplesCount(); i++) {
             BasicStats stats = new BasicStats();
             BasicStats statsChars = new BasicStats();
             BasicStats statsFlagging = new BasicStats();
 
             //Characted extracted in the right place (match)
             Example example = dataSetView.getExample(i);
-            List<Bounds> expectedMatchMask = example.getMatch();
-            List<Bounds> expectedUnmatchMask = example.getUnmatch();
-            List<Bounds> annotatedMask = new ArrayList<>(expectedMatchMask);
-            annotatedMask.addAll(expectedUnmatchMask);
+            IntervalIndex expectedMatchMask = example.getMatchIndex();
+            IntervalIndex expectedUnmatchMask = example.getUnmatchIndex();
+            IntervalIndex annotatedMask = example.getAnnotatedIndex();
 
-            stats.tp = countIdenticalRanges(result, expectedMatchMask);
-            stats.fp = Bounds.countRangesThatCollideZone(result, annotatedMask) - stats.tp;
-            statsChars.tp = intersection(result, expectedMatchMask);
-            statsChars.fp = intersection(result, expectedUnmatchMask);
+            stats.tp = evaluate.countIdenticalRanges(i, expectedMatchMask);
+            stats.fp = evaluate.countRangesThatCollideZone(i, annotatedMask) - stats.tp;
+            statsChars.tp = evaluate.intersection(i, expectedMatchMask);
+            statsChars.fp = evaluate.intersection(i, expectedUnmatchMask);
 
             //Flagging
             
             if (!this.isUnannotated(example)){
-                statsFlagging.tp = isTruePositive(result, example.match) ? 1 : 0;
-                statsFlagging.fp = isFalsePositive(result, example.unmatch) ? 1 : 0;
-                statsFlagging.fn = isFalseNegative(result, example.match) ? 1 : 0;
-                statsFlagging.tn = isTrueNegative(result, example.unmatch) ? 1 : 0;
+                statsFlagging.tp = isTruePositive(evaluate.getMatchesCount(i), example.match) ? 1 : 0;
+                statsFlagging.fp = isFalsePositive(evaluate.getMatchesCount(i), example.unmatch) ? 1 : 0;
+                statsFlagging.fn = isFalseNegative(evaluate.getMatchesCount(i), example.match) ? 1 : 0;
+                statsFlagging.tn = isTrueNegative(evaluate.getMatchesCount(i), example.unmatch) ? 1 : 0;
                 statsOverallFlagging.add(statsFlagging);
             }
             
             statsOverall.add(stats);
             statsCharsOverall.add(statsChars);
-            i++;
         }
 
         statsCharsOverall.tn = dataSetView.getNumberUnmatchedChars() - statsCharsOverall.fp;
@@ -140,34 +142,6 @@ public class PerformacesObjective implements Objective {
         return fitness;
     }
 
-    //Returns number of chars of this extracted ranges which falls into expected ranges
-    private int intersection(List<Bounds> extractedRanges, List<Bounds> expectedRanges) {
-        int overallNumChars = 0;
-
-        for (Bounds extractedBounds : extractedRanges) {
-            for (Bounds expectedBounds : expectedRanges) {
-                int numChars = Math.min(extractedBounds.end, expectedBounds.end) - Math.max(extractedBounds.start, expectedBounds.start);
-                overallNumChars += Math.max(0, numChars);
-            }
-        }
-        return overallNumChars;
-    }
-
-    //Rerurns the number of idential intervals in two list of ranges
-    private int countIdenticalRanges(List<Bounds> rangesA, List<Bounds> rangesB) {
-        int identicalRanges = 0;
-
-        for (Bounds boundsA : rangesA) {
-            for (Bounds boundsB : rangesB) {
-                if (boundsA.equals(boundsB)) {
-                    identicalRanges++;
-                    break;
-                }
-            }
-        }
-        return identicalRanges;
-    }
-
     @Override
     public TreeEvaluator getTreeEvaluator() {
         return context.getConfiguration().getEvaluator();
@@ -229,19 +203,19 @@ public class PerformacesObjective implements Objective {
         return ex.match.isEmpty() && ex.unmatch.isEmpty();
     }
 
-    public static boolean isTruePositive(List<Bounds> individualMatches, List<Bounds> expectedMatches) {
-        return !individualMatches.isEmpty() && !expectedMatches.isEmpty();
+    public static boolean isTruePositive(int individualMatches, List<Bounds> expectedMatches) {
+        return individualMatches > 0 && !expectedMatches.isEmpty();
     }
 
-    public static boolean isFalsePositive(List<Bounds> individualMatches, List<Bounds> expectedUnmatches) {
-        return !individualMatches.isEmpty() && !expectedUnmatches.isEmpty();
+    public static boolean isFalsePositive(int individualMatches, List<Bounds> expectedUnmatches) {
+        return individualMatches > 0 && !expectedUnmatches.isEmpty();
     }
 
-    public static boolean isFalseNegative(List<Bounds> individualMatches, List<Bounds> expectedMatches) {
-        return individualMatches.isEmpty() && !expectedMatches.isEmpty();
+    public static boolean isFalseNegative(int individualMatches, List<Bounds> expectedMatches) {
+        return individualMatches == 0 && !expectedMatches.isEmpty();
     }
 
-    public static boolean isTrueNegative(List<Bounds> individualMatches, List<Bounds> expectedUnmatches) {
-        return individualMatches.isEmpty() && !expectedUnmatches.isEmpty();
+    public static boolean isTrueNegative(int individualMatches, List<Bounds> expectedUnmatches) {
+        return individualMatches == 0 && !expectedUnmatches.isEmpty();
     }
 }
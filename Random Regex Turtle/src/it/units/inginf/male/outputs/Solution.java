@@ -29,9 +29,7 @@ public class Solution {
     }
     
     public Solution(Ranking individual){
-        StringBuilder builder = new StringBuilder();
-        individual.getTree().describe(builder);
-        this.solution = builder.toString();
+        this.solution = individual.getTree().getDescription();
         this.fitness = individual.getFitness();
     }
 
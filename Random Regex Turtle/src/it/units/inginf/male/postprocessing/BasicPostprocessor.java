@@ -28,6 +28,7 @@ import it.units.inginf.male.outputs.Results;
 import it.units.inginf.male.tree.Constant;
 import it.units.inginf.male.tree.Node;
 import it.units.inginf.male.utils.BasicStats;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -70,7 +71,12 @@ public class BasicPostprocessor implements Postprocessor {
         results.setOverallExecutionTimeMillis(timeTaken);
         //Populate optional fields
         if(populateOptionalFields){
-            results.setExamples(config.getDatasetContainer().getDataset().getExamples());
+            //plain copies, the serialized examples need the string field (mapped examples do not store it)
+            List<Example> examples = new ArrayList<>();
+            for (Example example : config.getDatasetContainer().getDataset().getExamples()) {
+                examples.add(new Example(example));
+            }
+            results.setExamples(examples);
         }
         try {
             //Populate extractions data and stats
@@ -107,7 +113,7 @@ public class BasicPostprocessor implements Postprocessor {
     private List<List<DataSet.Bounds>> getEvaluations(String solution, Configuration configuration, Context.EvaluationPhases phase) throws TreeEvaluationException{
         TreeEvaluator treeEvaluator = configuration.getEvaluator();
         Node bestIndividualReplica = new Constant(solution);
-        return treeEvaluator.evaluate(bestIndividualReplica, new Context(phase, configuration));
+        return treeEvaluator.evaluate(bestIndividualReplica, new Context(phase, configuration)).toBounds();
     }
     
     private List<List<String>> getEvaluationsStrings(List<List<Bounds>> extractions, DataSet dataset){
@@ -117,7 +123,7 @@ public class BasicPostprocessor implements Postprocessor {
             Example example = it.next();
             List<String> extractionsOfExampleStrings = new LinkedList<>();
             for (Bounds bounds : extractionsOfExample) {
-                extractionsOfExampleStrings.add(example.getString().substring(bounds.start,bounds.end));
+                extractionsOfExampleStrings.add(example.substring(bounds.start,bounds.end));
             }
             evaluationsStrings.add(extractionsOfExampleStrings);
         }
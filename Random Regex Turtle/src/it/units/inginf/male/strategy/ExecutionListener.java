@@ -20,11 +20,13 @@ package it.units.inginf.male.strategy;
 import it.units.inginf.male.objective.Ranking;
 import it.units.inginf.male.tree.Node;
 import it.units.inginf.male.evaluators.TreeEvaluationException;
+import it.units.inginf.male.metrics.MetricsRegistry;
 import java.io.Serializable;
 import java.util.List;
 
 /**
- *
+ * Receives the evolution events of the jobs; the callbacks are invoked by the job threads.
+ * The runtime metrics of the engine can be read, in the callbacks, from the shared {@link MetricsRegistry}.
  * @author MaleLabTs
  */
 public interface ExecutionListener extends Serializable{
@@ -235,7 +235,7 @@ public class BasicExecutionListener implements ExecutionListener, ExecutionListe
     public List<List<DataSet.Bounds>> getBestEvaluations() throws TreeEvaluationException{
         TreeEvaluator treeEvaluator = this.configuration.getEvaluator();
         Node bestIndividualReplica = new Constant(this.status.best.getSolution());
-        return treeEvaluator.evaluate(bestIndividualReplica, new Context(Context.EvaluationPhases.LEARNING, this.configuration));
+        return treeEvaluator.evaluate(bestIndividualReplica, new Context(Context.EvaluationPhases.LEARNING, this.configuration)).toBounds();
     }
  
     //errors per example, on learning
@@ -76,7 +76,7 @@ public class CombinedMultithreadStrategy extends AbstractExecutionStrategy {
         
         String altFitnessClassName = null;
         
-        executor = Executors.newFixedThreadPool(threads);
+        executor = createExecutor(threads);
         ExecutorCompletionService<Void> completionService = new ExecutorCompletionService<Void>(executor);
         long initialSeed = configuration.getInitialSeed();
         int jobs = configuration.getJobs();
@@ -108,6 +108,7 @@ public class CombinedMultithreadStrategy extends AbstractExecutionStrategy {
             
             jobConf.setJobId(i);
             jobConf.setInitialSeed(initialSeed + i);
+            configureJob(jobConf);
             job.setup(jobConf, listenerFactory.getNewListener());
             completionService.submit(job);
         }
@@ -146,6 +147,22 @@ public class CombinedMultithreadStrategy extends AbstractExecutionStrategy {
         }
     }
 
+    /**
+     * Creates the executor which runs the jobs
+     * @param threads the number of threads
+     * @return the executor
+     */
+    protected ExecutorService createExecutor(int threads) {
+        return Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * Customizes the configuration of a job before the job is set up; it does nothing by default
+     * @param jobConfiguration the job configuration, a copy of the execution configuration
+     */
+    protected void configureJob(Configuration jobConfiguration) {
+    }
+
     @Override
     public void shutdown() {
         executor.shutdownNow();
@@ -35,13 +35,20 @@ import it.units.inginf.male.strategy.ExecutionStrategy;
 import it.units.inginf.male.strategy.RunStrategy;
 import it.units.inginf.male.tree.Node;
 import it.units.inginf.male.utils.Utils;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -49,6 +56,12 @@ import java.util.logging.Logger;
  * A textual interface that works only on Unix systems. Uses the ANSI escape
  * sequence 0x1B+"[2J" to clear the screen. Handy for experiments that take a
  * long time.
+ * The job threads only publish lightweight generation snapshots to a bounded queue; a single background thread
+ * evaluates the best individuals on the learning set, computes the population diversity, tracks the best and repaints
+ * the screen, at most once every RENDER_INTERVAL_MILLIS. When the queue is full the generation snapshots are
+ * dropped (the progress and the evaluated characters are still accounted), job starts and completions are never dropped.
+ * The job which completes, or fails, last waits for the background thread to print the final screen. When the evolution
+ * is stopped the snapshots left in the queue, and the generations logged later, are only accounted as evaluated characters.
  *
  * @author MaleLabTs
  */
@@ -64,13 +77,16 @@ public class CoolTextualExecutionListener implements ExecutionListener, Executio
     private static final String ANSI_CYAN = "\u001B[36m";
     private static final String ANSI_WHITE = "\u001B[37m";
     private final static Logger LOG = Logger.getLogger(DefaultExecutionListener.class.getName());
+    public static final int QUEUE_CAPACITY = 1024;
+    public static final long RENDER_INTERVAL_MILLIS = 250;
     private final Map<Integer, String> screen = new TreeMap<>();
     private final Map<Integer, Long> jobStartTimes = new ConcurrentHashMap<>();
     private final NavigableSet<Integer> remove = new TreeSet<>();
     private final String header;
-    private int jobDone = 0;
+    private final AtomicInteger jobDone = new AtomicInteger();
+    private final AtomicInteger jobFinished = new AtomicInteger();
     private int jobTotal = 0;
-    private int overallDone = 0;
+    private final AtomicInteger overallDone = new AtomicInteger();
     private int overallTotal = 0;
     private final long startTime = System.currentTimeMillis();
     private String eta;
@@ -78,6 +94,14 @@ public class CoolTextualExecutionListener implements ExecutionListener, Executio
     private final Results results;
     private boolean isEvaluatorCached = false;
     private final boolean isFlagging;
+    //generation snapshots waiting to be rendered, by job; accessed by the consumer thread only
+    private final Map<Integer, GenerationSnapshot> pendingSnapshots = new LinkedHashMap<>();
+    private final AtomicLong droppedCharacters = new AtomicLong();
+    private final AtomicLong droppedSnapshots = new AtomicLong();
+    private transient final BlockingQueue<Event> events = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private transient final CountDownLatch terminated = new CountDownLatch(1);
+    //set by the consumer thread before its last drain of the queue
+    private volatile boolean closed = false;
 
     public CoolTextualExecutionListener(String message, Configuration configuration, Results results) {
         this.header = ((message!=null)? message.concat("\n") : "") +"Output folder: " + configuration.getOutputFolder().getName();
@@ -88,6 +112,9 @@ public class CoolTextualExecutionListener implements ExecutionListener, Executio
             this.isEvaluatorCached = true;
         }
         this.isFlagging = configuration.isIsFlagging();
+        Thread consumer = new Thread(new Consumer(), "CoolTextualExecutionListener");
+        consumer.setDaemon(true);
+        consumer.start();
     }
 
     private synchronized void print() {
@@ -95,15 +122,17 @@ public class CoolTextualExecutionListener implements ExecutionListener, Executio
         String clear = esc + "[2J";
         System.out.print(clear);
 
-        int doneAll = 20 * overallDone / overallTotal;
-        double percAll = Math.round(1000 * overallDone / (double) overallTotal) / 10.0;
+        int done = overallDone.get();
+        int doneAll = 20 * done / overallTotal;
+        double percAll = Math.round(1000 * done / (double) overallTotal) / 10.0;
+        updateEta(done);
 
         System.out.println(header);
         if (isEvaluatorCached) {
             CachedEvaluator evaluator = (CachedEvaluator) this.results.getConfiguration().getEvaluator();
-            System.out.printf("[%s] %.2f%%  | %d/%d | ETA: %s | CR: %.2f\n", progress(doneAll), percAll, jobDone, jobTotal, eta, evaluator.getRatio());
+            System.out.printf("[%s] %.2f%%  | %d/%d | ETA: %s | CR: %.2f\n", progress(doneAll), percAll, jobDone.get(), jobTotal, eta, evaluator.getRatio());
         } else {
-            System.out.printf("[%s] %.2f%%  | %d/%d | ETA: %s\n", progress(doneAll), percAll, jobDone, jobTotal, eta);
+            System.out.printf("[%s] %.2f%%  | %d/%d | ETA: %s\n", progress(doneAll), percAll, jobDone.get(), jobTotal, eta);
         }
         for (Integer jobId : screen.keySet()) {
             String color = "";
@@ -113,61 +142,56 @@ public class CoolTextualExecutionListener implements ExecutionListener, Executio
             System.out.println(color + screen.get(jobId) + ANSI_RESET);
         }
 
-        System.out.println("Best: " + ANSI_GREEN + printRegex(best.getSolution()) + ANSI_RESET);
+        if (best != null) {
+            System.out.println("Best: " + ANSI_GREEN + printRegex(best.getSolution()) + ANSI_RESET);
+        }
+
+    }
+
+    private void updateEta(int done) {
+        if (done == 0) {
+            return;
+        }
+        long timeTakenPerGen = (System.currentTimeMillis() - startTime) / done;
+        long elapsedMillis = Math.max(0, overallTotal - done) * timeTakenPerGen;
 
+        eta = String.format("%d h, %d m, %d s",
+                TimeUnit.MILLISECONDS.toHours(elapsedMillis),
+                TimeUnit.MILLISECONDS.toMinutes(elapsedMillis) - TimeUnit.HOURS.toMinutes(TimeUnit.MILLISECONDS.toHours(elapsedMillis)),
+                TimeUnit.MILLISECONDS.toSeconds(elapsedMillis) - TimeUnit.MINUTES.toSeconds(TimeUnit.MILLISECONDS.toMinutes(elapsedMillis)));
     }
 
     @Override
     public void evolutionStarted(RunStrategy strategy) {
         int jobId = strategy.getConfiguration().getJobId();
-        String print = "[                     ] 0% Gen --> 0 job: " + jobId;
-
-        synchronized (screen) {
-            screen.put(jobId, print);
-        }
-
         this.jobStartTimes.put(jobId, System.currentTimeMillis());
+        publish(new JobStarted(jobId));
     }
 
     @Override
     public void logGeneration(RunStrategy strategy, int generation, Node best, double[] fitness, List<Ranking> population) {
-        int jobId = strategy.getConfiguration().getJobId();
-        int done = 20 * generation / strategy.getConfiguration().getEvolutionParameters().getGenerations();
-        double perc = Math.round(1000 * generation / (double) strategy.getConfiguration().getEvolutionParameters().getGenerations()) / 10f;
-
-        overallDone++;
-
-        long timeTakenPerGen = (System.currentTimeMillis() - startTime) / overallDone;
-        long elapsedMillis = (overallTotal - overallDone) * timeTakenPerGen;
-
-        eta = String.format("%d h, %d m, %d s",
-                TimeUnit.MILLISECONDS.toHours(elapsedMillis),
-                TimeUnit.MILLISECONDS.toMinutes(elapsedMillis) - TimeUnit.HOURS.toMinutes(TimeUnit.MILLISECONDS.toHours(elapsedMillis)),
-                TimeUnit.MILLISECONDS.toSeconds(elapsedMillis) - TimeUnit.MINUTES.toSeconds(TimeUnit.MILLISECONDS.toMinutes(elapsedMillis)));
-
+        overallDone.incrementAndGet();
+        //the population list is updated by the strategy, the rankings are not
+        GenerationSnapshot snapshot = new GenerationSnapshot(strategy.getConfiguration(), generation, best, fitness.clone(),
+                new ArrayList<>(population), strategy.getContext().getCurrentDataSet().getNumberOfChars() * (long) population.size());
+        if (closed) {
+            addCharacters(snapshot.characters);
+        } else if (!events.offer(snapshot)) {
+            droppedSnapshots.incrementAndGet();
+            droppedCharacters.addAndGet(snapshot.characters);
+            if (closed) {
+                addCharacters(droppedCharacters.getAndSet(0));
+            }
+        } else if (closed && events.remove(snapshot)) {
+            //the consumer has already drained the queue
+            addCharacters(snapshot.characters);
+        }
+    }
 
-        //let's store the current generatin best(fitness) individual performances on validation. remind performances indexes != fintesses 
-        Ranking bestRanking = new Ranking(best, fitness);
-        FinalSolution generationBestSolution = new FinalSolution(bestRanking);
-         
- 
-        //Only  the learning performance i needed by the checkBestCandidate
-        Objective learningObjective = PerformancesFactory.buildObjective(Context.EvaluationPhases.LEARNING, strategy.getConfiguration());
-        double[] learningPerformance = learningObjective.fitness(population.get(0).getTree());
-        PerformacesObjective.populatePerformancesMap(learningPerformance, generationBestSolution.getLearningPerformances(), isFlagging);
-        //update best for visualization sake; uses the same algorithm as in BasicExecutionListener
-        this.updateBest(generationBestSolution);
-        
-        
-
-        String print = String.format("[%s] %.2f%% g: %d j: %d f: %s d: %.2f%% ", progress(done), perc, generation, jobId, printArray(fitness), Utils.diversity(population));
-        synchronized (screen) {
-            screen.put(jobId, print);
-            print();
+    private void addCharacters(long characters) {
+        synchronized (results) {
+            results.addCharachterEvaluated(characters);
         }
-        
-        
-        results.addCharachterEvaluated(strategy.getContext().getCurrentDataSet().getNumberOfChars() * population.size());
     }
 
     @Override
@@ -177,21 +201,10 @@ public class CoolTextualExecutionListener implements ExecutionListener, Executio
 
         //Strategies can stop first than the maximum number of generations; we consider jumped generations like succesfully executed(useful for ETA):
         int jumpedGenerations = strategy.getConfiguration().getEvolutionParameters().getGenerations() - generation;
-        overallDone+=jumpedGenerations;
-        
-        synchronized (screen) {
-            remove.add(jobId);
-
-            if (screen.size() > 10) {
-                screen.remove(remove.pollFirst());
-            }
-        }
-
-        jobDone++;
+        overallDone.addAndGet(jumpedGenerations);
+        jobDone.incrementAndGet();
+        publish(new JobFinished(jobId, true));
 
-        if (jobDone >= strategy.getConfiguration().getJobs()) {
-            print();
-        }
         JobEvolutionTrace jobTrace = this.results.getJobTrace(jobId);
         jobTrace.setExecutionTime(executionTime);
         /*
@@ -215,15 +228,17 @@ public class CoolTextualExecutionListener implements ExecutionListener, Executio
             }
             jobTrace.getFinalGeneration().add(finalSolution);
         }
+        if (jobFinished.incrementAndGet() >= jobTotal) {
+            awaitTermination();
+        }
     }
 
     @Override
     public void evolutionFailed(RunStrategy strategy, TreeEvaluationException cause) {
         int jobId = strategy.getConfiguration().getJobId();
-        try {
-            
-        } catch (Exception ex) {
-            LOG.log(Level.SEVERE, null, ex);
+        publish(new JobFinished(jobId, false));
+        if (jobFinished.incrementAndGet() >= jobTotal) {
+            awaitTermination();
         }
     }
 
@@ -285,26 +300,218 @@ public class CoolTextualExecutionListener implements ExecutionListener, Executio
      * @param candidate
      */
     synchronized public void updateBest(FinalSolution candidate){
-        if(this.best == null){
+        if (isBetterThanBest(candidate.getFitness())) {
             this.best = candidate;
-            return;
+        }
+    }
+
+    private synchronized boolean isBetterThanBest(double[] fitness) {
+        if(this.best == null){
+            return true;
         }
         int index = 0;
         for(double value : this.best.getFitness()){
-            if(value > candidate.getFitness()[index]){
-                this.best = candidate;
-                return;
+            if(value > fitness[index]){
+                return true;
             }
-            if(value < candidate.getFitness()[index]){
-                return;
+            if(value < fitness[index]){
+                return false;
             }
             //values are equal, go ahead with the next one
             index++;
         }
+        return false;
     }
    
     @Override
     public void evolutionStopped() {
-        //let's do nothing, there is no status here
+        publish(new Stop());
+        awaitTermination();
+    }
+
+    /**
+     * @return the number of generation snapshots dropped because the queue was full
+     */
+    public long getDroppedSnapshots() {
+        return droppedSnapshots.get();
+    }
+
+    private void publish(Event event) {
+        if (terminated.getCount() == 0) {
+            return;
+        }
+        try {
+            events.put(event);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitTermination() {
+        try {
+            terminated.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Processes the events in the background thread; the screen is rendered when the last job is finished, or
+     * RENDER_INTERVAL_MILLIS after the last rendering when some job has changed.
+     */
+    private class Consumer implements Runnable {
+
+        private int finished = 0;
+        private boolean stopped = false;
+        private boolean changed = false;
+        private long lastRender = 0;
+
+        @Override
+        public void run() {
+            List<Event> batch = new ArrayList<>();
+            try {
+                while (!stopped && finished < jobTotal) {
+                    Event event = events.poll(RENDER_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (event != null) {
+                        batch.add(event);
+                        events.drainTo(batch);
+                        for (Event e : batch) {
+                            process(e);
+                        }
+                        batch.clear();
+                    }
+                    if (changed && System.currentTimeMillis() - lastRender >= RENDER_INTERVAL_MILLIS) {
+                        render();
+                    }
+                }
+                if (!stopped) {
+                    render();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException ex) {
+                LOG.log(Level.SEVERE, "Generation logging failed", ex);
+            } finally {
+                closed = true;
+                List<Event> remaining = new ArrayList<>();
+                events.drainTo(remaining);
+                for (Event event : remaining) {
+                    if (event instanceof GenerationSnapshot) {
+                        addCharacters(((GenerationSnapshot) event).characters);
+                    }
+                }
+                addCharacters(droppedCharacters.getAndSet(0));
+                terminated.countDown();
+            }
+        }
+
+        private void process(Event event) {
+            changed = true;
+            if (event instanceof GenerationSnapshot) {
+                GenerationSnapshot snapshot = (GenerationSnapshot) event;
+                updateBest(snapshot);
+                pendingSnapshots.put(snapshot.jobId, snapshot);
+                addCharacters(snapshot.characters + droppedCharacters.getAndSet(0));
+            } else if (event instanceof JobStarted) {
+                int jobId = ((JobStarted) event).jobId;
+                screen.put(jobId, "[                     ] 0% Gen --> 0 job: " + jobId);
+            } else if (event instanceof JobFinished) {
+                JobFinished jobFinished = (JobFinished) event;
+                finished++;
+                if (jobFinished.completed) {
+                    updateLines();
+                    remove.add(jobFinished.jobId);
+                    if (screen.size() > 10) {
+                        screen.remove(remove.pollFirst());
+                    }
+                }
+            } else if (event instanceof Stop) {
+                stopped = true;
+            }
+        }
+
+        private void updateBest(GenerationSnapshot snapshot) {
+            //the learning performance is only needed by a new best, which is chosen by fitness
+            if (!isBetterThanBest(snapshot.fitness)) {
+                return;
+            }
+            //let's store the current generatin best(fitness) individual performances on validation. remind performances indexes != fintesses 
+            FinalSolution generationBestSolution = new FinalSolution(new Ranking(snapshot.best, snapshot.fitness));
+            //Only  the learning performance i needed by the checkBestCandidate
+            Objective learningObjective = PerformancesFactory.buildObjective(Context.EvaluationPhases.LEARNING, snapshot.configuration);
+            double[] learningPerformance = learningObjective.fitness(snapshot.population.get(0).getTree());
+            PerformacesObjective.populatePerformancesMap(learningPerformance, generationBestSolution.getLearningPerformances(), isFlagging);
+            //update best for visualization sake; uses the same algorithm as in BasicExecutionListener
+            CoolTextualExecutionListener.this.updateBest(generationBestSolution);
+        }
+
+        private void updateLines() {
+            for (GenerationSnapshot snapshot : pendingSnapshots.values()) {
+                int done = 20 * snapshot.generation / snapshot.generations;
+                double perc = Math.round(1000 * snapshot.generation / (double) snapshot.generations) / 10f;
+                screen.put(snapshot.jobId, String.format("[%s] %.2f%% g: %d j: %d f: %s d: %.2f%% ", progress(done), perc,
+                        snapshot.generation, snapshot.jobId, printArray(snapshot.fitness), Utils.diversity(snapshot.population)));
+            }
+            pendingSnapshots.clear();
+        }
+
+        private void render() {
+            updateLines();
+            print();
+            changed = false;
+            lastRender = System.currentTimeMillis();
+        }
+    }
+
+    private static abstract class Event {
+    }
+
+    private static class JobStarted extends Event {
+
+        final int jobId;
+
+        JobStarted(int jobId) {
+            this.jobId = jobId;
+        }
+    }
+
+    private static class JobFinished extends Event {
+
+        final int jobId;
+        final boolean completed;
+
+        JobFinished(int jobId, boolean completed) {
+            this.jobId = jobId;
+            this.completed = completed;
+        }
+    }
+
+    private static class Stop extends Event {
+    }
+
+    /**
+     * The state of a job at the end of a generation, the population is a copy of the rankings list
+     */
+    private static class GenerationSnapshot extends Event {
+
+        final Configuration configuration;
+        final int jobId;
+        final int generation;
+        final int generations;
+        final Node best;
+        final double[] fitness;
+        final List<Ranking> population;
+        final long characters;
+
+        GenerationSnapshot(Configuration configuration, int generation, Node best, double[] fitness, List<Ranking> population, long characters) {
+            this.configuration = configuration;
+            this.jobId = configuration.getJobId();
+            this.generation = generation;
+            this.generations = configuration.getEvolutionParameters().getGenerations();
+            this.best = best;
+            this.fitness = fitness;
+            this.population = population;
+            this.characters = characters;
+        }
     }
 }
@@ -24,6 +24,8 @@ import it.units.inginf.male.generations.Generation;
 import it.units.inginf.male.generations.InitialPopulationBuilder;
 import it.units.inginf.male.generations.Ramped;
 import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.metrics.Histogram;
+import it.units.inginf.male.metrics.MetricsRegistry;
 import it.units.inginf.male.objective.Objective;
 import it.units.inginf.male.objective.Ranking;
 import it.units.inginf.male.selections.Selection;
@@ -46,10 +48,20 @@ import java.util.Map;
  * Optional accepted parameters:
  * "terminationCriteria", Boolean, then True the termination criteria is enabled when false is disabled, Default value: false
  * "terminationCriteriaGenerations", Integer, number of generations for the termination criteria.Default value: 200   
+ * "parallelEvaluation", Boolean, when true the fitness of the individuals of a generation is evaluated in parallel, the results do not change. Default value: false
+ * "parallelEvaluationBatchSize", Integer, number of individuals evaluated by a single parallel task. Default value: 16
+ * "parallelEvaluationThreads", Integer, number of threads of the shared evaluation pool, used when the job does not run inside a ForkJoinPool. Default value: number of processors
+ * Fitness, ranking and generation times (by job) are recorded into the shared {@link MetricsRegistry}; the generation time is
+ * measured from the start of the generation to its logging.
  * @author MaleLabTs
  */
 public class DefaultStrategy implements RunStrategy {
 
+    static final Histogram FITNESS_TIME = MetricsRegistry.getInstance().histogram("regexturtle_fitness_seconds",
+            "Duration of the fitness computation of an individual");
+    static final Histogram RANKING_TIME = MetricsRegistry.getInstance().histogram("regexturtle_ranking_seconds",
+            "Duration of the Pareto ranking of a population");
+
     protected Context context;
     protected int maxDepth;
     protected List<Node> population;
@@ -62,6 +74,10 @@ public class DefaultStrategy implements RunStrategy {
     protected boolean terminationCriteria = false; //Termination criteria enables/disables the premature termination of thread when best regex/individual doens't change for
                                                    //a speciefied amount of generations (terminationCriteriaGenerations)
     protected int terminationCriteriaGenerations = 200;
+    protected boolean parallelEvaluation = false;
+    protected int parallelEvaluationBatchSize = ParallelFitnessEvaluator.DEFAULT_BATCH_SIZE;
+    protected int parallelEvaluationThreads = 0;
+    protected Histogram generationTime;
 
     
     
@@ -78,6 +94,8 @@ public class DefaultStrategy implements RunStrategy {
         this.selection = new Tournament(this.context);
         this.variation = new Variation(this.context);
         this.listener = listener;
+        this.generationTime = MetricsRegistry.getInstance().histogram("regexturtle_generation_seconds",
+                "Duration of a generation", "job", String.valueOf(configuration.getJobId()));
 
         this.objective.setup(context);
     }
@@ -92,6 +110,15 @@ public class DefaultStrategy implements RunStrategy {
             if (parameters.containsKey("terminationCriteria")) {
                 terminationCriteria = Boolean.valueOf(parameters.get("terminationCriteria"));
             }
+            if (parameters.containsKey("parallelEvaluation")) {
+                parallelEvaluation = Boolean.valueOf(parameters.get("parallelEvaluation"));
+            }
+            if (parameters.containsKey("parallelEvaluationBatchSize")) {
+                parallelEvaluationBatchSize = Integer.valueOf(parameters.get("parallelEvaluationBatchSize"));
+            }
+            if (parameters.containsKey("parallelEvaluationThreads")) {
+                parallelEvaluationThreads = Integer.valueOf(parameters.get("parallelEvaluationThreads"));
+            }
         }
     }
 
@@ -105,22 +132,19 @@ public class DefaultStrategy implements RunStrategy {
             Generation ramped = new Ramped(this.maxDepth, this.context);
             this.population.addAll(ramped.generate(param.getPopulationSize() - population.size()));
             List<Ranking> tmp = buildRankings(population, objective);
-            while (tmp.size() > 0) {
-                List<Ranking> t = Utils.getFirstParetoFront(tmp);
-                tmp.removeAll(t);
-                sortByFirst(t);
-                this.rankings.addAll(t);
-            }
+            sortByParetoFronts(tmp, this.rankings);
             //Variables for termination criteria
             String oldGenerationBestValue = null;
             int terminationCriteriaGenerationsCounter = 0;
             int doneGenerations = 0;
             for (generation = 0; generation < param.getGenerations(); generation++) {
+                long generationStart = System.nanoTime();
                 context.setStripedPhase(context.getDataSetContainer().isDataSetStriped() && ((generation % context.getDataSetContainer().getProposedNormalDatasetInterval()) != 0));
 
                 evolve();
                 Ranking best = rankings.get(0);
                 doneGenerations = generation + 1;
+                generationTime.recordSince(generationStart);
                 if (listener != null) {
                     listener.logGeneration(this, doneGenerations, best.getTree(), best.getFitness(), this.rankings);
                 }
@@ -217,18 +241,18 @@ public class DefaultStrategy implements RunStrategy {
         population = newPopulation;
         List<Ranking> tmp = buildRankings(population, objective);
         rankings.clear();
-        while (tmp.size() > 0) {
-            List<Ranking> t = Utils.getFirstParetoFront(tmp);
-            tmp.removeAll(t);
-            sortByFirst(t);
-            rankings.addAll(t);
-        }
+        sortByParetoFronts(tmp, rankings);
     }
 
     protected List<Ranking> buildRankings(List<Node> population, Objective objective) {
+        if (parallelEvaluation) {
+            return ParallelFitnessEvaluator.evaluate(population, objective, context, parallelEvaluationBatchSize, parallelEvaluationThreads);
+        }
         List<Ranking> result = new ArrayList<>(population.size());
         for (Node tree : population) {
+            long start = System.nanoTime();
             double fitness[] = objective.fitness(tree);
+            FITNESS_TIME.recordSince(start);
             result.add(new Ranking(tree, fitness));
         }
         return result;
@@ -244,6 +268,21 @@ public class DefaultStrategy implements RunStrategy {
         return listener;
     }
 
+    /**
+     * Sorts the rankings by Pareto front and, inside each front, with sortByFirst; the sorted 
+     * rankings are appended to the destination list
+     * @param rankings the unsorted rankings
+     * @param destination the list which receives the sorted rankings
+     */
+    protected void sortByParetoFronts(List<Ranking> rankings, List<Ranking> destination) {
+        long start = System.nanoTime();
+        for (List<Ranking> front : Utils.getParetoFronts(rankings)) {
+            sortByFirst(front);
+            destination.addAll(front);
+        }
+        RANKING_TIME.recordSince(start);
+    }
+
     protected void sortByFirst(List<Ranking> front) {
         Collections.sort(front, new Comparator<Ranking>() {
             @Override
@@ -20,12 +20,16 @@ package it.units.inginf.male.strategy.impl;
 import it.units.inginf.male.configuration.Configuration;
 import it.units.inginf.male.generations.Generation;
 import it.units.inginf.male.generations.Ramped;
+import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.objective.CharmaskMatchLengthObjective;
+import it.units.inginf.male.objective.PrecisionCharmaskLengthObjective;
 import it.units.inginf.male.objective.Ranking;
 import it.units.inginf.male.tree.Node;
 import it.units.inginf.male.utils.Pair;
 import it.units.inginf.male.utils.UniqueList;
 import it.units.inginf.male.utils.Utils;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -35,11 +39,19 @@ import java.util.Map;
  * "terminationCriteriaGenerations", Integer, number of generations for the termination criteria.Default value: 200  
  * "deepDiversity", Boolean, when false the diversity is imposed only on new generated individuals (then those individuals are merged to the older ones)
  * when true, a new individual is accepted when it is unique thru the current populations and the new generated individuals (more strict condition) 
+ * "structuralDiversity", Boolean, when true individuals are unique by tree structure (structural hash), when false by regex. Default value: false
+ * "dominationPruning", Boolean, when true the new individuals are evaluated with the worst fitness of the current population as domination bound
+ * (see {@link Context#getDominationBound()}): the evaluation of an individual stops as soon as it cannot survive the truncation
+ * to the population size. The evolution does not change. Only {@link PrecisionCharmaskLengthObjective} and {@link CharmaskMatchLengthObjective}
+ * provide a lower bound of the fitness, and only with a streaming evaluator; with the other objectives the new individuals are evaluated
+ * in full. Default value: false
  * @author MaleLabTs
  */
 public class DiversityElitarismStrategy extends DefaultStrategy{
     
     boolean deepDiversity = false;
+    boolean structuralDiversity = false;
+    boolean dominationPruning = false;
     
     @Override
     protected void readParameters(Configuration configuration) {
@@ -50,6 +62,12 @@ public class DiversityElitarismStrategy extends DefaultStrategy{
             if (parameters.containsKey("deepDiversity")) {
                 deepDiversity = Boolean.valueOf(parameters.get("deepDiversity"));
             }
+            if (parameters.containsKey("structuralDiversity")) {
+                structuralDiversity = Boolean.valueOf(parameters.get("structuralDiversity"));
+            }
+            if (parameters.containsKey("dominationPruning")) {
+                dominationPruning = Boolean.valueOf(parameters.get("dominationPruning"));
+            }
         }
     }
     
@@ -57,7 +75,7 @@ public class DiversityElitarismStrategy extends DefaultStrategy{
     protected void evolve() {
         int popSize = population.size();
         int oldPopSize = (int) (popSize * 0.9); //oldPopsize are the number of individuals generated from the older population
-        List<Node> newPopulation = new UniqueList<>(popSize);
+        List<Node> newPopulation = new UniqueList<>(popSize, structuralDiversity);
         
         if(deepDiversity){
             newPopulation.addAll(population);
@@ -108,14 +126,9 @@ public class DiversityElitarismStrategy extends DefaultStrategy{
         if(!deepDiversity){
             newPopulation.addAll(population);
         }
-        List<Ranking> tmp = buildRankings(newPopulation, objective);
+        List<Ranking> tmp = dominationPruning ? buildPrunedRankings(newPopulation) : buildRankings(newPopulation, objective);
         rankings.clear();
-        while (tmp.size() > 0) {
-            List<Ranking> t = Utils.getFirstParetoFront(tmp);
-            tmp.removeAll(t);
-            sortByFirst(t);
-            rankings.addAll(t);
-        }
+        sortByParetoFronts(tmp, rankings);
         rankings = new ArrayList<>(rankings.subList(0, popSize));
         population.clear();
         //Obtain an ordinated (as Rankings are) population
@@ -124,5 +137,74 @@ public class DiversityElitarismStrategy extends DefaultStrategy{
         }
     }   
 
-     
+    /**
+     * Evaluates the current population first, then evaluates the other individuals with a domination bound: the worst fitness
+     * (component by component) of the population individuals which do not dominate any other population individual.
+     * Every population individual is, or dominates, one of them; so an individual whose fitness is strictly dominated by
+     * the bound has at least popSize ancestors in the Pareto ranking (population individuals are in newPopulation, or an
+     * identical individual is) and never survives the truncation. When its lower bound fitness dominates another individual,
+     * that individual is in the same condition: survivors and their order do not change.
+     * @param newPopulation the merged population
+     * @return the rankings, in newPopulation order
+     */
+    private List<Ranking> buildPrunedRankings(List<Node> newPopulation) {
+        List<Ranking> oldRankings = buildRankings(population, objective);
+        Map<Node, Ranking> evaluated = new IdentityHashMap<>();
+        double[] bound = null;
+        for (Ranking ranking : oldRankings) {
+            evaluated.put(ranking.getTree(), ranking);
+            if (dominatesAny(ranking, oldRankings)) {
+                continue;
+            }
+            double[] fitness = ranking.getFitness();
+            if (hasNaN(fitness)) {
+                bound = null;
+                break;
+            }
+            if (bound == null) {
+                bound = fitness.clone();
+            }
+            for (int i = 0; i < bound.length; i++) {
+                bound[i] = Math.max(bound[i], fitness[i]);
+            }
+        }
+        List<Node> evaluate = new ArrayList<>();
+        for (Node node : newPopulation) {
+            if (!evaluated.containsKey(node)) {
+                evaluate.add(node);
+            }
+        }
+        context.setDominationBound(bound);
+        List<Ranking> newRankings;
+        try {
+            newRankings = buildRankings(evaluate, objective);
+        } finally {
+            context.setDominationBound(null);
+        }
+        List<Ranking> result = new ArrayList<>(newPopulation.size());
+        int next = 0;
+        for (Node node : newPopulation) {
+            Ranking ranking = evaluated.get(node);
+            result.add(ranking != null ? ranking : newRankings.get(next++));
+        }
+        return result;
+    }
+
+    private static boolean dominatesAny(Ranking ranking, List<Ranking> rankings) {
+        for (Ranking other : rankings) {
+            if (Utils.isAParetoDominateByB(other.getFitness(), ranking.getFitness())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasNaN(double[] fitness) {
+        for (double value : fitness) {
+            if (Double.isNaN(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy.impl;
+
+import it.units.inginf.male.evaluators.TreeEvaluationException;
+import it.units.inginf.male.metrics.MetricsRegistry;
+import it.units.inginf.male.objective.Ranking;
+import it.units.inginf.male.strategy.ExecutionListener;
+import it.units.inginf.male.strategy.ExecutionListenerFactory;
+import it.units.inginf.male.strategy.ExecutionStrategy;
+import it.units.inginf.male.strategy.RunStrategy;
+import it.units.inginf.male.tree.Node;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Decorates a listener factory: the callbacks are forwarded to the listeners of the decorated factory, and the
+ * shared {@link MetricsRegistry} is exported to a file (see {@link MetricsRegistry#export(java.io.File)}) when a job
+ * completes, fails or stops, and on generation callbacks at most once every interval.
+ * The export runs in the calling job thread.
+ * @author MaleLabTs
+ */
+public class MetricsExecutionListener implements ExecutionListenerFactory {
+
+    private final static Logger LOG = Logger.getLogger(MetricsExecutionListener.class.getName());
+    private final ExecutionListenerFactory factory;
+    private final File file;
+    private final long intervalMillis;
+    private final AtomicLong lastExport = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * @param factory the decorated factory
+     * @param file the export file, JSON when its name ends with ".json", Prometheus text otherwise
+     * @param intervalMillis the minimum interval between two exports on generation callbacks
+     */
+    public MetricsExecutionListener(ExecutionListenerFactory factory, File file, long intervalMillis) {
+        this.factory = factory;
+        this.file = file;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @Override
+    public void register(ExecutionStrategy strategy) {
+        factory.register(strategy);
+    }
+
+    @Override
+    public ExecutionListener getNewListener() {
+        return new Listener(factory.getNewListener());
+    }
+
+    /**
+     * Exports the metrics, errors are logged
+     */
+    public synchronized void export() {
+        lastExport.set(System.currentTimeMillis());
+        try {
+            MetricsRegistry.getInstance().export(file);
+        } catch (IOException ex) {
+            LOG.log(Level.SEVERE, "Cannot export the metrics to " + file, ex);
+        }
+    }
+
+    private void exportIfDue() {
+        long last = lastExport.get();
+        long now = System.currentTimeMillis();
+        if (now - last >= intervalMillis && lastExport.compareAndSet(last, now)) {
+            export();
+        }
+    }
+
+    private class Listener implements ExecutionListener {
+
+        private final ExecutionListener listener;
+
+        Listener(ExecutionListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void evolutionStarted(RunStrategy strategy) {
+            if (listener != null) {
+                listener.evolutionStarted(strategy);
+            }
+        }
+
+        @Override
+        public void logGeneration(RunStrategy strategy, int generation, Node best, double[] fitness, List<Ranking> population) {
+            if (listener != null) {
+                listener.logGeneration(strategy, generation, best, fitness, population);
+            }
+            exportIfDue();
+        }
+
+        @Override
+        public void evolutionComplete(RunStrategy strategy, int generation, List<Ranking> population) {
+            if (listener != null) {
+                listener.evolutionComplete(strategy, generation, population);
+            }
+            export();
+        }
+
+        @Override
+        public void evolutionFailed(RunStrategy strategy, TreeEvaluationException cause) {
+            if (listener != null) {
+                listener.evolutionFailed(strategy, cause);
+            }
+            export();
+        }
+
+        @Override
+        public void evolutionStopped() {
+            if (listener != null) {
+                listener.evolutionStopped();
+            }
+            export();
+        }
+    }
+}
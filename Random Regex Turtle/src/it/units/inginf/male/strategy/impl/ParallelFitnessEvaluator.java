@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy.impl;
+
+import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.objective.Objective;
+import it.units.inginf.male.objective.Ranking;
+import it.units.inginf.male.tree.Node;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates the fitness of a population in parallel, using a ForkJoinPool.
+ * The population is split into batches of consecutive individuals; every batch is evaluated
+ * by its own clone of the objective, set up with its own copy of the job Context, so that
+ * objectives never share state (Context.getRandom included) between threads.
+ * The returned rankings are in the same order of the population, the results do not depend on
+ * the number of threads.
+ * When invoked from a ForkJoinPool worker the batches are forked in that pool, otherwise
+ * they are executed by a shared pool.
+ * @author MaleLabTs
+ */
+public class ParallelFitnessEvaluator {
+
+    public static final int DEFAULT_BATCH_SIZE = 16;
+
+    private static final ConcurrentMap<Integer, ForkJoinPool> SHARED_POOLS = new ConcurrentHashMap<>();
+
+    private ParallelFitnessEvaluator() {
+    }
+
+    /**
+     * Returns the shared pool with the requested parallelism, the pool is created on first request.
+     * @param parallelism the number of threads; when less than 1 the number of available processors is used
+     * @return the shared pool
+     */
+    public static ForkJoinPool getSharedPool(int parallelism) {
+        if (parallelism < 1) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        ForkJoinPool pool = SHARED_POOLS.get(parallelism);
+        if (pool == null) {
+            ForkJoinPool newPool = new ForkJoinPool(parallelism);
+            pool = SHARED_POOLS.putIfAbsent(parallelism, newPool);
+            if (pool == null) {
+                pool = newPool;
+            } else {
+                newPool.shutdown();
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Evaluates the population and returns the rankings, in population order.
+     * @param population the individuals to evaluate
+     * @param objective the objective, it is used as prototype (cloneObjective) and it is not invoked
+     * @param context the job context, it is copied for every batch
+     * @param batchSize the number of individuals evaluated by a single task
+     * @param parallelism the shared pool parallelism, used when the caller is not a ForkJoinPool worker
+     * @return the list of rankings
+     */
+    public static List<Ranking> evaluate(List<Node> population, Objective objective, Context context, int batchSize, int parallelism) {
+        Node[] individuals = population.toArray(new Node[population.size()]);
+        Ranking[] rankings = new Ranking[individuals.length];
+        EvaluationTask task = new EvaluationTask(individuals, rankings, 0, individuals.length, Math.max(1, batchSize), objective, context);
+        if (ForkJoinTask.inForkJoinPool()) {
+            task.invoke();
+        } else {
+            getSharedPool(parallelism).invoke(task);
+        }
+        return new ArrayList<>(Arrays.asList(rankings));
+    }
+
+    private static class EvaluationTask extends RecursiveAction {
+
+        private final Node[] individuals;
+        private final Ranking[] rankings;
+        private final int from;
+        private final int to;
+        private final int batchSize;
+        private final Objective objective;
+        private final Context context;
+
+        EvaluationTask(Node[] individuals, Ranking[] rankings, int from, int to, int batchSize, Objective objective, Context context) {
+            this.individuals = individuals;
+            this.rankings = rankings;
+            this.from = from;
+            this.to = to;
+            this.batchSize = batchSize;
+            this.objective = objective;
+            this.context = context;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= batchSize) {
+                Objective batchObjective = objective.cloneObjective();
+                batchObjective.setup(new Context(context));
+                for (int i = from; i < to; i++) {
+                    long start = System.nanoTime();
+                    rankings[i] = new Ranking(individuals[i], batchObjective.fitness(individuals[i]));
+                    DefaultStrategy.FITNESS_TIME.recordSince(start);
+                }
+                return;
+            }
+            //split on a batch boundary, batches do not depend on the splitting order
+            int middle = from + ((to - from) / batchSize / 2) * batchSize;
+            if (middle == from) {
+                middle += batchSize;
+            }
+            invokeAll(new EvaluationTask(individuals, rankings, from, middle, batchSize, objective, context),
+                    new EvaluationTask(individuals, rankings, middle, to, batchSize, objective, context));
+        }
+    }
+}
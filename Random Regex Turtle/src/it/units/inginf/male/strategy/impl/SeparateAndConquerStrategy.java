@@ -27,7 +27,6 @@ import it.units.inginf.male.objective.Ranking;
 import it.units.inginf.male.objective.performance.PerformacesObjective;
 import it.units.inginf.male.tree.Node;
 import it.units.inginf.male.tree.operator.Or;
-import it.units.inginf.male.utils.Utils;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -83,12 +82,7 @@ public class SeparateAndConquerStrategy extends DiversityElitarismStrategy{
         Generation ramped = new Ramped(this.maxDepth, this.context);
         this.population.addAll(ramped.generate(targetPopSize - population.size()));
         List<Ranking> tmp = buildRankings(population, objective);
-        while (tmp.size() > 0) {
-            List<Ranking> t = Utils.getFirstParetoFront(tmp);
-            tmp.removeAll(t);
-            sortByFirst(t);
-            this.rankings.addAll(t);
-        }     
+        sortByParetoFronts(tmp, this.rankings);     
     }
 
     @Override
@@ -104,6 +98,7 @@ public class SeparateAndConquerStrategy extends DiversityElitarismStrategy{
             context.setSeparateAndConquerEnabled(true);
             
             for (generation = 0; generation < param.getGenerations(); generation++) {
+                long generationStart = System.nanoTime();
                 context.setStripedPhase(context.getDataSetContainer().isDataSetStriped() && ((generation % context.getDataSetContainer().getProposedNormalDatasetInterval()) != 0));
 
                 evolve();
@@ -120,7 +115,7 @@ public class SeparateAndConquerStrategy extends DiversityElitarismStrategy{
                 double[] fitnessOfJoined = objective.fitness(joinedBest);
                 context.setSeparateAndConquerEnabled(true);
                 
-                
+                generationTime.recordSince(generationStart);
                 if (listener != null) {
                     //note: the rankings contains the individuals of the current sub-evolution (on divided training)
                     //logGeneration usually takes into account best and fitness fields for stats and persistence,
@@ -160,11 +155,11 @@ public class SeparateAndConquerStrategy extends DiversityElitarismStrategy{
                     // remove matched matches
                     StringBuilder builder = new StringBuilder();
                     rankings.get(0).getTree().describe(builder);
-                    context.getTrainingDataset().addSeparateAndConquerLevel(builder.toString(), (int) context.getSeed(), convertToUnmatch, isFlagging);
+                    context.getDatasetView().addLevel(builder.toString(), convertToUnmatch, isFlagging);
 
                     // check if matches still exists, when matches are zero, the new level is removed and the evolution exits.
                     if (context.getCurrentDataSet().getNumberMatches() == 0) {
-                        context.getTrainingDataset().removeSeparateAndConquerLevel((int) context.getSeed());
+                        context.getDatasetView().removeLastLevel();
                         break;
                     }
                     // re-initialize population
@@ -202,6 +197,9 @@ public class SeparateAndConquerStrategy extends DiversityElitarismStrategy{
             return null;
         } catch (Throwable x) {
             throw new TreeEvaluationException("Error during evaluation of a tree", x, this);
+        } finally {
+            //the levels of this job are no more needed
+            context.releaseDatasetView();
         }
     }
 
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy.impl;
+
+import it.units.inginf.male.configuration.Configuration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs the jobs in a work stealing ForkJoinPool and schedules the fitness evaluation at the granularity of 
+ * a batch of individuals, instead of a whole job.
+ * Every job evaluates its generations with the DefaultStrategy parallel evaluation: the batches are forked
+ * into the pool and idle threads steal them, so when fewer jobs than threads are left the remaining
+ * jobs get the whole machine. The results are the same of the CombinedMultithreadStrategy.
+ * Accepted parameters are the CombinedMultithreadStrategy ones, plus:
+ * "parallelEvaluation", Boolean, it is set to true for every job unless explicitly set to false
+ * "parallelEvaluationBatchSize", Integer, number of individuals evaluated by a single task, see DefaultStrategy
+ * @author MaleLabTs
+ */
+public class WorkStealingMultithreadStrategy extends CombinedMultithreadStrategy {
+
+    public static final String PARALLEL_EVALUATION_KEY = "parallelEvaluation";
+
+    @Override
+    protected ExecutorService createExecutor(int threads) {
+        return new ForkJoinPool(threads);
+    }
+
+    @Override
+    protected void configureJob(Configuration jobConfiguration) {
+        Map<String, String> parameters = jobConfiguration.getStrategyParameters();
+        if (!parameters.containsKey(PARALLEL_EVALUATION_KEY)) {
+            parameters.put(PARALLEL_EVALUATION_KEY, "true");
+        }
+    }
+}
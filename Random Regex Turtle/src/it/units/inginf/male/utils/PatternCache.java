@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.utils;
+
+import it.units.inginf.male.metrics.Counter;
+import it.units.inginf.male.metrics.Histogram;
+import it.units.inginf.male.metrics.MetricsRegistry;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Bounded, thread safe cache of compiled regular expressions, keyed by the regex string.
+ * The cache is split into segments, each one guarded by its own lock; inside a segment the least
+ * recently used patterns are evicted when the segment holds more than its share of the maximum size.
+ * Compiled patterns are immutable and can be shared by all the threads.
+ * The shared instance is used by the tree evaluators and by the separate and conquer dataset reductions,
+ * so a regex is compiled once regardless of the evaluation phase or dataset view.
+ * Compile times, hits, misses and evictions are also added to the totals of the shared {@link MetricsRegistry}.
+ * @author MaleLabTs
+ */
+public class PatternCache {
+
+    public static final int DEFAULT_MAX_SIZE = 4096;
+    private static final int SEGMENTS = 16;
+
+    //totals of all the caches
+    private static final Counter HITS = MetricsRegistry.getInstance().counter("regexturtle_pattern_cache_hits_total",
+            "Compile requests served by the pattern cache");
+    private static final Counter MISSES = MetricsRegistry.getInstance().counter("regexturtle_pattern_cache_misses_total",
+            "Compile requests not served by the pattern cache");
+    private static final Counter EVICTIONS = MetricsRegistry.getInstance().counter("regexturtle_pattern_cache_evictions_total",
+            "Patterns evicted from the pattern cache");
+    private static final Histogram COMPILE_TIME = MetricsRegistry.getInstance().histogram("regexturtle_pattern_compile_seconds",
+            "Duration of the compilation of a regex, cached patterns excluded");
+
+    private static final PatternCache instance = new PatternCache(DEFAULT_MAX_SIZE);
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private volatile int maxSize;
+
+    /**
+     * Creates an empty cache
+     * @param maxSize the maximum number of cached patterns
+     */
+    public PatternCache(int maxSize) {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+        setMaxSize(maxSize);
+    }
+
+    /**
+     * @return the cache shared by evaluators and datasets
+     */
+    public static PatternCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the compiled pattern for the regex, compiling and caching it when it is not cached.
+     * Regexes that do not compile are not cached.
+     * @param regex
+     * @return the compiled pattern
+     * @throws PatternSyntaxException when the regex is not valid
+     */
+    public Pattern compile(String regex) {
+        Segment segment = segmentFor(regex);
+        Pattern pattern = segment.get(regex);
+        if (pattern != null) {
+            hits.incrementAndGet();
+            HITS.increment();
+            return pattern;
+        }
+        misses.incrementAndGet();
+        MISSES.increment();
+        //two threads may compile the same regex, the patterns are equivalent
+        long start = System.nanoTime();
+        pattern = Pattern.compile(regex);
+        COMPILE_TIME.recordSince(start);
+        segment.put(regex, pattern, Math.max(1, maxSize / SEGMENTS));
+        return pattern;
+    }
+
+    /**
+     * Changes the maximum number of cached patterns, segments shrink on their next insertion
+     * @param maxSize
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The pattern cache size must be a positive number");
+        }
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * @return the fraction of compile requests served by the cache
+     */
+    public double getRatio() {
+        long hit = hits.get();
+        long total = hit + misses.get();
+        return (total == 0) ? 0 : (double) hit / total;
+    }
+
+    private Segment segmentFor(String regex) {
+        int hash = regex.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[hash & (SEGMENTS - 1)];
+    }
+
+    private class Segment {
+
+        private final LinkedHashMap<String, Pattern> patterns = new LinkedHashMap<>(64, 0.75f, true);
+
+        synchronized Pattern get(String regex) {
+            return patterns.get(regex);
+        }
+
+        synchronized void put(String regex, Pattern pattern, int capacity) {
+            patterns.put(regex, pattern);
+            Iterator<Pattern> iterator = patterns.values().iterator();
+            while (patterns.size() > capacity && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                evictions.incrementAndGet();
+                EVICTIONS.increment();
+            }
+        }
+
+        synchronized void clear() {
+            patterns.clear();
+        }
+
+        synchronized int size() {
+            return patterns.size();
+        }
+    }
+}
@@ -20,26 +20,43 @@ package it.units.inginf.male.utils;
 import it.units.inginf.male.tree.Node;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
- *
+ * A list of unique individuals. By default individuals are unique by regex (description); in structural mode
+ * they are unique by tree structure, using the structural hash and Node.structurallyEquals.
  * @author MaleLabTs
  */
 public class UniqueList<E> extends ArrayList<Node> {
 
     private Set<String> hashes = new HashSet<>();
+    private Map<Long, List<Node>> structuralHashes = null;
 
     public UniqueList(int initialCapacity) {
         super(initialCapacity);
     }        
 
+    /**
+     * @param initialCapacity
+     * @param structural when true, trees with the same structure are duplicates; otherwise trees with the same description are duplicates 
+     */
+    public UniqueList(int initialCapacity, boolean structural) {
+        super(initialCapacity);
+        if (structural) {
+            structuralHashes = new HashMap<>();
+        }
+    }
+
     @Override
     public boolean add(Node e) {
-        StringBuilder builder = new StringBuilder();
-        e.describe(builder);
-        String hash = builder.toString();
+        if (structuralHashes != null) {
+            return addStructural(e);
+        }
+        String hash = e.getDescription();
         if (hashes.contains(hash)) {
             return false;
         }
@@ -47,6 +64,23 @@ public class UniqueList<E> extends ArrayList<Node> {
         return super.add(e);
     }   
 
+    private boolean addStructural(Node e) {
+        Long hash = e.getStructuralHash();
+        List<Node> sameHash = structuralHashes.get(hash);
+        if (sameHash == null) {
+            sameHash = new ArrayList<>(1);
+            structuralHashes.put(hash, sameHash);
+        } else {
+            for (Node node : sameHash) {
+                if (node.structurallyEquals(e)) {
+                    return false;
+                }
+            }
+        }
+        sameHash.add(e);
+        return super.add(e);
+    }
+
     @Override
     public boolean addAll(Collection<? extends Node> c) {
         boolean ret = false;
@@ -20,6 +20,7 @@ package it.units.inginf.male.utils;
 import it.units.inginf.male.inputs.DataSet;
 import it.units.inginf.male.inputs.DataSet.Bounds;
 import it.units.inginf.male.objective.Ranking;
+import it.units.inginf.male.tree.Node;
 import it.units.inginf.male.tree.RegexRange;
 import java.io.BufferedReader;
 import java.io.File;
@@ -29,6 +30,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
@@ -94,6 +96,110 @@ public class Utils {
         return front;
     }
 
+    /**
+     * Splits the population into its Pareto fronts, with the fast non dominated sorting algorithm (Deb et al.).
+     * Fronts are returned in rank order, the first one is the first Pareto front; the rankings in a front
+     * keep their population order. The result is the same of repeatedly extracting (and removing) the 
+     * first Pareto front of the population, with quadratic instead of cubic cost.
+     * @param population
+     * @return the list of fronts
+     */
+    public static List<List<Ranking>> getParetoFronts(List<Ranking> population) {
+        double[][] fitness = new double[population.size()][];
+        int i = 0;
+        for (Ranking ranking : population) {
+            fitness[i++] = ranking.getFitness();
+        }
+        int[] ranks = getParetoRanks(fitness);
+        int frontsCount = 0;
+        for (int rank : ranks) {
+            frontsCount = Math.max(frontsCount, rank + 1);
+        }
+        List<List<Ranking>> fronts = new ArrayList<>(frontsCount);
+        for (i = 0; i < frontsCount; i++) {
+            fronts.add(new ArrayList<Ranking>());
+        }
+        i = 0;
+        for (Ranking ranking : population) {
+            fronts.get(ranks[i++]).add(ranking);
+        }
+        return fronts;
+    }
+
+    /**
+     * Returns the Pareto front index (rank) of each fitness, 0 is the first front. 
+     * Dominance has the same semantic of {@link #isAParetoDominateByB(double[], double[])}, smaller values are better.
+     * @param fitness the fitness arrays, all with the same length
+     * @return the ranks, in the fitness order
+     */
+    public static int[] getParetoRanks(double[][] fitness) {
+        int n = fitness.length;
+        int[] ranks = new int[n];
+        //number of individuals which dominate the individual i
+        int[] dominationCounts = new int[n];
+        //individuals dominated by the individual i
+        int[][] dominated = new int[n][];
+        int[] dominatedSizes = new int[n];
+        for (int i = 0; i < n; i++) {
+            double[] a = fitness[i];
+            for (int j = i + 1; j < n; j++) {
+                double[] b = fitness[j];
+                boolean aWorse = false;
+                boolean bWorse = false;
+                for (int k = 0; k < a.length; k++) {
+                    if (a[k] > b[k]) {
+                        aWorse = true;
+                    } else if (a[k] < b[k]) {
+                        bWorse = true;
+                    }
+                }
+                if (aWorse && !bWorse) {
+                    dominationCounts[i]++;
+                    dominated[j] = append(dominated[j], dominatedSizes[j]++, i);
+                } else if (bWorse && !aWorse) {
+                    dominationCounts[j]++;
+                    dominated[i] = append(dominated[i], dominatedSizes[i]++, j);
+                }
+            }
+        }
+        int[] front = new int[n];
+        int frontSize = 0;
+        for (int i = 0; i < n; i++) {
+            if (dominationCounts[i] == 0) {
+                front[frontSize++] = i;
+            }
+        }
+        int[] nextFront = new int[n];
+        for (int rank = 0; frontSize > 0; rank++) {
+            int nextFrontSize = 0;
+            for (int f = 0; f < frontSize; f++) {
+                int p = front[f];
+                ranks[p] = rank;
+                for (int d = 0; d < dominatedSizes[p]; d++) {
+                    int q = dominated[p][d];
+                    if (--dominationCounts[q] == 0) {
+                        nextFront[nextFrontSize++] = q;
+                    }
+                }
+            }
+            int[] swap = front;
+            front = nextFront;
+            nextFront = swap;
+            frontSize = nextFrontSize;
+        }
+        return ranks;
+    }
+
+    private static int[] append(int[] array, int size, int value) {
+        if (array == null) {
+            array = new int[4];
+        } else if (size == array.length) {
+            array = Arrays.copyOf(array, size * 2);
+        }
+        array[size] = value;
+        return array;
+    }
+
     public static String cpuInfo() throws IOException {
         if (!System.getProperty("os.name").toLowerCase().contains("linux")) {
             return "Unaviable";
@@ -119,6 +225,19 @@ public class Utils {
         return 100 * tmp.size() / (double) population.size();
     }
 
+    /**
+     * Returns the percentage of structurally different individuals in the population
+     * @param population
+     * @return the structural diversity
+     */
+    public static double structuralDiversity(List<Ranking> population) {
+        UniqueList<Node> tmp = new UniqueList<>(population.size(), true);
+        for (Ranking r : population) {
+            tmp.add(r.getTree());
+        }
+        return 100 * tmp.size() / (double) population.size();
+    }
+
     //remove empty extractions 
     public static void removeEmptyExtractions(List<DataSet.Bounds> extractions) {
         for (Iterator<Bounds> it = extractions.iterator(); it.hasNext();) {
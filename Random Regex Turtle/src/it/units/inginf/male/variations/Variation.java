@@ -21,6 +21,8 @@ import it.units.inginf.male.configuration.EvolutionParameters;
 import it.units.inginf.male.generations.Generation;
 import it.units.inginf.male.generations.Growth;
 import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.metrics.Histogram;
+import it.units.inginf.male.metrics.MetricsRegistry;
 import it.units.inginf.male.tree.Leaf;
 import it.units.inginf.male.tree.Node;
 import it.units.inginf.male.tree.operator.Group;
@@ -31,11 +33,16 @@ import java.util.LinkedList;
 import java.util.List;
 
 /**
- *
+ * Crossover and mutation operators; their durations are recorded into the shared {@link MetricsRegistry}.
  * @author MaleLabTs
  */
 public class Variation {
 
+    private static final Histogram CROSSOVER_TIME = MetricsRegistry.getInstance().histogram("regexturtle_variation_seconds",
+            "Duration of a variation operator", "operator", "crossover");
+    private static final Histogram MUTATION_TIME = MetricsRegistry.getInstance().histogram("regexturtle_variation_seconds",
+            "Duration of a variation operator", "operator", "mutation");
+
     private Context context;
     private Generation growth;
 
@@ -52,6 +59,13 @@ public class Variation {
      * @return two new individuals
      */
     public Pair<Node, Node> crossover(Node individualA, Node individualB) {
+        long start = System.nanoTime();
+        Pair<Node, Node> newIndividuals = crossoverTrees(individualA, individualB);
+        CROSSOVER_TIME.recordSince(start);
+        return newIndividuals;
+    }
+
+    private Pair<Node, Node> crossoverTrees(Node individualA, Node individualB) {
         boolean isGood = false;
         Node newIndividualA = null;
         Node newIndividualB = null;
@@ -76,6 +90,8 @@ public class Variation {
                 bChilds.set(bIndex, randomNodeA);
                 randomNodeA.setParent(bParent);
                 randomNodeB.setParent(aParent);
+                aParent.invalidateDescription();
+                bParent.invalidateDescription();
 
                  
                 if (checkMaxDepth(newIndividualA, 1)
@@ -108,6 +124,13 @@ public class Variation {
      * @return a new mutated individual
      */
     public Node mutate(Node individual) {
+        long start = System.nanoTime();
+        Node mutant = mutateTree(individual);
+        MUTATION_TIME.recordSince(start);
+        return mutant;
+    }
+
+    private Node mutateTree(Node individual) {
 
         List<Node> newNodes = this.growth.generate(20);
         Node mutant = individual.cloneTree();
@@ -180,6 +203,7 @@ public class Variation {
         newChild.setParent(parent);
         oldChild.setParent(null);
         childs.set(index, newChild);
+        parent.invalidateDescription();
     }
 
     private void swapNodes(Node a, Node b) {
@@ -194,6 +218,8 @@ public class Variation {
         bChilds.set(bIndex, a);
         a.setParent(bParent);
         b.setParent(aParent);
+        aParent.invalidateDescription();
+        bParent.invalidateDescription();
     }
 
     private boolean checkMaxDepth(Node root, int depth) {
@@ -240,6 +266,7 @@ public class Variation {
                 ncg.setParent(group.getParent());
                 int indexOf = ncg.getParent().getChildrens().indexOf(group);
                 ncg.getParent().getChildrens().set(indexOf, ncg);
+                ncg.getParent().invalidateDescription();
 
             } else {
                 root = ncg;
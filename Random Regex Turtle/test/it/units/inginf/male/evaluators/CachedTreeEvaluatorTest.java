@@ -0,0 +1,202 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+package it.units.inginf.male.evaluators;
+
+import it.units.inginf.male.configuration.Configuration;
+import it.units.inginf.male.configuration.DatasetContainer;
+import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.inputs.DataSet;
+import it.units.inginf.male.inputs.DataSet.Example;
+import it.units.inginf.male.metrics.GaugeMetric;
+import it.units.inginf.male.metrics.Metric;
+import it.units.inginf.male.metrics.MetricsRegistry;
+import it.units.inginf.male.objective.PrecisionCharmaskLengthObjective;
+import it.units.inginf.male.tree.Constant;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author MaleLabTs
+ */
+public class CachedTreeEvaluatorTest {
+
+    private static final String CATASTROPHIC = "(?:a|a){0,100}b";
+
+    public CachedTreeEvaluatorTest() {
+    }
+
+    /**
+     * An individual which exceeds the budget is counted once and then blacklisted.
+     */
+    @Test(timeout = 10000)
+    public void testExceededIndividualIsBlacklisted() throws TreeEvaluationException {
+        CachedTreeEvaluator evaluator = newEvaluator();
+        Context context = newContext(evaluator, "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa");
+        try {
+            evaluator.evaluate(new Constant(CATASTROPHIC), context);
+            fail("The budget has not been enforced");
+        } catch (BlacklistedIndividualException ex) {
+            fail("The individual has been blacklisted before its evaluation");
+        } catch (EvaluationBudgetException ex) {
+            assertEquals(CATASTROPHIC, ex.getIndividual());
+        }
+        try {
+            evaluator.evaluate(new Constant(CATASTROPHIC), context);
+            fail("The individual has not been blacklisted");
+        } catch (BlacklistedIndividualException ex) {
+            assertEquals(CATASTROPHIC, ex.getIndividual());
+        }
+        assertEquals(1, evaluator.getAbortedEvaluations());
+    }
+
+    /**
+     * An interrupted evaluation is neither counted as aborted nor blacklisted.
+     */
+    @Test
+    public void testInterruptedIndividualIsNotBlacklisted() throws TreeEvaluationException {
+        CachedTreeEvaluator evaluator = newEvaluator();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            text.append('a');
+        }
+        Context context = newContext(evaluator, text.toString());
+        Thread.currentThread().interrupt();
+        try {
+            evaluator.evaluate(new Constant("a"), context);
+            fail("The interruption has been ignored");
+        } catch (EvaluationBudgetException ex) {
+            fail("The interruption has been reported as an exhausted budget");
+        } catch (TreeEvaluationException ex) {
+            assertTrue(ex.getCause() instanceof EvaluationBudget.InterruptedEvaluationException);
+        } finally {
+            assertTrue(Thread.interrupted());
+        }
+        assertEquals(0, evaluator.getAbortedEvaluations());
+        assertEquals(10000, evaluator.evaluate(new Constant("a"), context).getMatchesCount());
+    }
+
+    /**
+     * Blacklisted individuals get the worst fitness and no SEVERE log.
+     */
+    @Test(timeout = 10000)
+    public void testBlacklistedIndividualIsNotLogged() {
+        CachedTreeEvaluator evaluator = newEvaluator();
+        Context context = newContext(evaluator, "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa");
+        PrecisionCharmaskLengthObjective objective = new PrecisionCharmaskLengthObjective();
+        objective.setup(context);
+        final List<LogRecord> records = new ArrayList<>();
+        Handler handler = new Handler() {
+
+            @Override
+            public void publish(LogRecord record) {
+                records.add(record);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Logger logger = Logger.getLogger(PrecisionCharmaskLengthObjective.class.getName());
+        logger.addHandler(handler);
+        try {
+            objective.fitness(new Constant(CATASTROPHIC));
+            assertEquals(1, records.size());
+            double[] fitness = objective.fitness(new Constant(CATASTROPHIC));
+            assertEquals(1, records.size());
+            for (double value : fitness) {
+                assertEquals(Double.POSITIVE_INFINITY, value, 0);
+            }
+        } finally {
+            logger.removeHandler(handler);
+        }
+        assertEquals(Level.SEVERE, records.get(0).getLevel());
+    }
+
+    /**
+     * The results served by the cache are not counted as evaluations.
+     */
+    @Test
+    public void testCachedResultsAreNotEvaluations() throws TreeEvaluationException {
+        CachedTreeEvaluator evaluator = newEvaluator();
+        Context context = newContext(evaluator, "aaa");
+        evaluator.evaluate(new Constant("a"), context);
+        evaluator.evaluate(new Constant("a"), context);
+        assertEquals(1, evaluator.getEvaluations());
+        evaluator.evaluate(new Constant("b"), context);
+        assertEquals(2, evaluator.getEvaluations());
+    }
+
+    /**
+     * The cache size gauge sums the caches of the live evaluators and does not keep them alive.
+     */
+    @Test
+    public void testCacheSizeGauge() throws TreeEvaluationException, InterruptedException {
+        CachedTreeEvaluator first = newEvaluator();
+        CachedTreeEvaluator second = newEvaluator();
+        double before = cacheSizeGauge().getValue();
+        first.evaluate(new Constant("a"), newContext(first, "aaa"));
+        second.evaluate(new Constant("b"), newContext(second, "bbb"));
+        assertTrue(first.getCacheSizeBytes() > 0);
+        assertEquals(before + first.getCacheSizeBytes() + second.getCacheSizeBytes(), cacheSizeGauge().getValue(), 0);
+        WeakReference<CachedTreeEvaluator> released = new WeakReference<>(second);
+        second = null;
+        for (int i = 0; i < 100 && released.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(released.get());
+        assertEquals(before + first.getCacheSizeBytes(), cacheSizeGauge().getValue(), 0);
+    }
+
+    private static GaugeMetric cacheSizeGauge() {
+        for (Metric metric : MetricsRegistry.getInstance().getMetrics()) {
+            if (metric.getName().equals("regexturtle_evaluation_cache_used_bytes")) {
+                return (GaugeMetric) metric;
+            }
+        }
+        throw new AssertionError("The cache size gauge is not registered");
+    }
+
+    private static CachedTreeEvaluator newEvaluator() {
+        CachedTreeEvaluator evaluator = new CachedTreeEvaluator();
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put(CachedTreeEvaluator.CACHE_BUDGET_MB_KEY, "1");
+        parameters.put(CachedTreeEvaluator.BLACKLIST_ABORTED_KEY, "true");
+        parameters.put(DefaultTreeEvaluator.STEP_BUDGET_KEY, "1000000");
+        evaluator.setup(parameters);
+        return evaluator;
+    }
+
+    static Context newContext(TreeEvaluator evaluator, String... texts) {
+        DataSet dataSet = new DataSet("test");
+        for (String text : texts) {
+            Example example = new Example();
+            example.setString(text);
+            dataSet.getExamples().add(example);
+        }
+        DatasetContainer datasetContainer = new DatasetContainer(dataSet);
+        datasetContainer.setTrainingDataset(dataSet);
+        Configuration configuration = new Configuration();
+        configuration.setDatasetContainer(datasetContainer);
+        configuration.setEvaluator(evaluator);
+        return new Context(Context.EvaluationPhases.TRAINING, configuration);
+    }
+}
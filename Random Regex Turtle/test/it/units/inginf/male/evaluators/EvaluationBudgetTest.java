@@ -0,0 +1,72 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+package it.units.inginf.male.evaluators;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author MaleLabTs
+ */
+public class EvaluationBudgetTest {
+
+    private static final String TEXT = "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa";
+
+    public EvaluationBudgetTest() {
+    }
+
+    /**
+     * A catastrophic backtracking is stopped by the step budget.
+     */
+    @Test(timeout = 10000)
+    public void testStepBudgetStopsBacktracking() {
+        EvaluationBudget budget = new EvaluationBudget(1000000, 0);
+        Matcher matcher = Pattern.compile("(?:a|a){0,100}b").matcher(budget.wrap(TEXT));
+        try {
+            matcher.find();
+            fail("The budget has not been enforced");
+        } catch (EvaluationBudget.ExceededException ex) {
+            assertEquals(1000001, budget.getSteps());
+        }
+    }
+
+    /**
+     * A catastrophic backtracking is stopped by the deadline.
+     */
+    @Test(timeout = 10000)
+    public void testTimeoutStopsBacktracking() {
+        EvaluationBudget budget = new EvaluationBudget(0, 50);
+        Matcher matcher = Pattern.compile("(?:a|a){0,100}b").matcher(budget.wrap(TEXT));
+        try {
+            matcher.find();
+            fail("The timeout has not been enforced");
+        } catch (EvaluationBudget.ExceededException ex) {
+            assertTrue(budget.getSteps() > 0);
+        }
+    }
+
+    /**
+     * Evaluations within the budget are not affected.
+     */
+    @Test
+    public void testBudgetedTextMatchesAsString() {
+        EvaluationBudget budget = new EvaluationBudget(1000, 1000);
+        String text = "ab:12 cd:3";
+        Matcher budgeted = Pattern.compile("\\w+:\\d++").matcher(budget.wrap(text));
+        Matcher plain = Pattern.compile("\\w+:\\d++").matcher(text);
+        while (plain.find()) {
+            assertTrue(budgeted.find());
+            assertEquals(plain.start(), budgeted.start());
+            assertEquals(plain.end(), budgeted.end());
+            assertEquals(plain.group(), budgeted.group());
+        }
+        assertFalse(budgeted.find());
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+package it.units.inginf.male.evaluators;
+
+import it.units.inginf.male.inputs.Context.EvaluationPhases;
+import it.units.inginf.male.utils.Triplet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author MaleLabTs
+ */
+public class EvaluationCacheTest {
+
+    private static final int THREADS = 8;
+
+    public EvaluationCacheTest() {
+    }
+
+    /**
+     * The least recently used entries are evicted first and the used bytes follow the estimated sizes.
+     */
+    @Test
+    public void testEvictionOrder() {
+        Triplet<EvaluationPhases, Boolean, String> a = key("a");
+        Triplet<EvaluationPhases, Boolean, String> b = key("b");
+        Triplet<EvaluationPhases, Boolean, String> c = key("c");
+        EvaluationResults results = results(2);
+        long size = EvaluationCache.estimateSize(a, results);
+        EvaluationCache cache = new EvaluationCache(2 * size + size / 2, 1);
+        cache.put(a, results);
+        cache.put(b, results);
+        assertEquals(2 * size, cache.getUsedBytes());
+        assertSame(results, cache.get(a));
+        cache.put(c, results);
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get(b));
+        assertSame(results, cache.get(a));
+        assertSame(results, cache.get(c));
+        assertEquals(2, cache.size());
+        assertEquals(2 * size, cache.getUsedBytes());
+        assertTrue(cache.getUsedBytes() <= cache.getBudgetBytes());
+        //replacing an entry does not count it twice
+        cache.put(c, results);
+        assertEquals(2 * size, cache.getUsedBytes());
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getUsedBytes());
+    }
+
+    /**
+     * Entries bigger than a segment budget are not cached and do not evict the other entries.
+     */
+    @Test
+    public void testOversizedEntryIsRejected() {
+        Triplet<EvaluationPhases, Boolean, String> small = key("a");
+        Triplet<EvaluationPhases, Boolean, String> big = key("b");
+        long size = EvaluationCache.estimateSize(small, results(1));
+        EvaluationCache cache = new EvaluationCache(4 * size, 2);
+        cache.put(small, results(1));
+        EvaluationResults bigResults = results(1000);
+        assertTrue(EvaluationCache.estimateSize(big, bigResults) > cache.getBudgetBytes() / 2);
+        cache.put(big, bigResults);
+        assertNull(cache.get(big));
+        assertNotNull(cache.get(small));
+        assertEquals(size, cache.getUsedBytes());
+        assertEquals(0, cache.getEvictions());
+    }
+
+    /**
+     * Concurrent requests for the same missing key are computed once, the waiting threads are hits.
+     */
+    @Test(timeout = 10000)
+    public void testConcurrentCallersComputeOnce() throws Exception {
+        final EvaluationCache cache = new EvaluationCache(1024 * 1024);
+        final EvaluationResults results = results(3);
+        final AtomicInteger computations = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        Callable<EvaluationResults> computation = new Callable<EvaluationResults>() {
+
+            @Override
+            public EvaluationResults call() throws Exception {
+                computations.incrementAndGet();
+                release.await();
+                return results;
+            }
+        };
+        List<Caller> callers = startCallers(cache, computation);
+        release.countDown();
+        for (Caller caller : callers) {
+            caller.join();
+            assertNull(caller.exception);
+            assertSame(results, caller.results);
+        }
+        assertEquals(1, computations.get());
+        assertEquals(1, cache.getMisses());
+        assertEquals(THREADS - 1, cache.getHits());
+        assertSame(results, cache.get(key("a")));
+    }
+
+    /**
+     * A failed computation is propagated to all the waiting threads, nothing is cached and the waiters are not hits.
+     */
+    @Test(timeout = 10000)
+    public void testExceptionIsPropagatedToWaiters() throws Exception {
+        final EvaluationCache cache = new EvaluationCache(1024 * 1024);
+        final AtomicInteger computations = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final TreeEvaluationException failure = new TreeEvaluationException("failed");
+        Callable<EvaluationResults> computation = new Callable<EvaluationResults>() {
+
+            @Override
+            public EvaluationResults call() throws Exception {
+                computations.incrementAndGet();
+                release.await();
+                throw failure;
+            }
+        };
+        List<Caller> callers = startCallers(cache, computation);
+        release.countDown();
+        for (Caller caller : callers) {
+            caller.join();
+            assertNull(caller.results);
+            assertSame(failure, caller.exception);
+        }
+        assertEquals(1, computations.get());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0, cache.getHits());
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getUsedBytes());
+        //the next request computes again
+        EvaluationResults results = results(1);
+        assertSame(results, cache.getOrCompute(key("a"), constant(results)));
+        assertSame(results, cache.get(key("a")));
+    }
+
+    /**
+     * Starts the callers and returns when all of them are waiting: one in the computation, the others for its results
+     */
+    private static List<Caller> startCallers(EvaluationCache cache, Callable<EvaluationResults> computation) throws InterruptedException {
+        List<Caller> callers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Caller caller = new Caller(cache, computation);
+            callers.add(caller);
+            caller.start();
+        }
+        for (Caller caller : callers) {
+            while (caller.getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+        }
+        return callers;
+    }
+
+    private static Callable<EvaluationResults> constant(final EvaluationResults results) {
+        return new Callable<EvaluationResults>() {
+
+            @Override
+            public EvaluationResults call() {
+                return results;
+            }
+        };
+    }
+
+    private static Triplet<EvaluationPhases, Boolean, String> key(String regex) {
+        return new Triplet<>(EvaluationPhases.TRAINING, false, regex);
+    }
+
+    private static EvaluationResults results(int matches) {
+        EvaluationResults.Builder builder = new EvaluationResults.Builder(1);
+        for (int i = 0; i < matches; i++) {
+            builder.add(2 * i, 2 * i + 1);
+        }
+        builder.endExample();
+        return builder.build();
+    }
+
+    private static class Caller extends Thread {
+
+        private final EvaluationCache cache;
+        private final Callable<EvaluationResults> computation;
+        private volatile EvaluationResults results;
+        private volatile TreeEvaluationException exception;
+
+        Caller(EvaluationCache cache, Callable<EvaluationResults> computation) {
+            this.cache = cache;
+            this.computation = computation;
+        }
+
+        @Override
+        public void run() {
+            try {
+                results = cache.getOrCompute(key("a"), computation);
+            } catch (TreeEvaluationException ex) {
+                exception = ex;
+            }
+        }
+    }
+}
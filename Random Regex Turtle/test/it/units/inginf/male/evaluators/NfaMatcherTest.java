@@ -0,0 +1,93 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+package it.units.inginf.male.evaluators;
+
+import it.units.inginf.male.inputs.DataSet.Bounds;
+import it.units.inginf.male.tree.Constant;
+import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.tree.operator.Concatenator;
+import it.units.inginf.male.tree.operator.Group;
+import it.units.inginf.male.tree.operator.MatchZeroOrMoreGreedy;
+import it.units.inginf.male.tree.operator.Or;
+import java.util.Collections;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static it.units.inginf.male.evaluators.TreeMatcherTest.node;
+import static it.units.inginf.male.evaluators.TreeMatcherTest.randomText;
+import static it.units.inginf.male.evaluators.TreeMatcherTest.randomTree;
+
+/**
+ *
+ * @author MaleLabTs
+ */
+public class NfaMatcherTest {
+
+    public NfaMatcherTest() {
+    }
+
+    /**
+     * Compares the matches found by the NfaMatcher with the ones found by java.util.regex on the
+     * description of random trees.
+     */
+    @Test
+    public void testMatchesJavaRegex() {
+        Random random = new Random(1);
+        int compiled = 0;
+        int trees = 3000;
+        for (int round = 0; round < trees; round++) {
+            Node root = randomTree(random, 4);
+            NfaMatcher nfaMatcher = NfaMatcher.compile(root);
+            if (nfaMatcher == null) {
+                continue;
+            }
+            compiled++;
+            String regex = root.getDescription();
+            Matcher matcher = Pattern.compile(regex).matcher("");
+            for (int i = 0; i < 20; i++) {
+                String text = randomText(random);
+                EvaluationResults.Builder expected = new EvaluationResults.Builder(1);
+                matcher.reset(text);
+                while (matcher.find()) {
+                    expected.add(matcher.start(), matcher.end());
+                }
+                expected.endExample();
+                EvaluationResults.Builder actual = new EvaluationResults.Builder(1);
+                assertTrue(nfaMatcher.findAll(text, actual));
+                actual.endExample();
+                assertEquals(regex + " on \"" + text + "\"", expected.build().toBounds(), actual.build().toBounds());
+            }
+        }
+        assertTrue("Too few supported trees: " + compiled, compiled > trees / 5);
+    }
+
+    /**
+     * (a|a)*b backtracks exponentially on a long sequence of a, the automaton does not.
+     */
+    @Test(timeout = 5000)
+    public void testNoCatastrophicBacktracking() {
+        Node or = node(new Or(), new Constant("a"), new Constant("a"));
+        Node root = node(new Concatenator(), node(new MatchZeroOrMoreGreedy(), node(new Group(), or)), new Constant("b"));
+        assertEquals("(a|a)*b", root.getDescription());
+        NfaMatcher nfaMatcher = NfaMatcher.compile(root);
+        assertNotNull(nfaMatcher);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            text.append('a');
+        }
+        EvaluationResults.Builder results = new EvaluationResults.Builder(2);
+        assertTrue(nfaMatcher.findAll(text.toString(), results));
+        results.endExample();
+        assertTrue(nfaMatcher.findAll(text.append('b').toString(), results));
+        results.endExample();
+        EvaluationResults evaluationResults = results.build();
+        assertTrue(evaluationResults.isEmpty(0));
+        assertEquals(Collections.singletonList(new Bounds(0, 10001)), evaluationResults.getBounds(1));
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+package it.units.inginf.male.evaluators;
+
+import it.units.inginf.male.inputs.DataSet;
+import it.units.inginf.male.inputs.DataSet.Example;
+import it.units.inginf.male.tree.Node;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static it.units.inginf.male.evaluators.TreeMatcherTest.randomText;
+import static it.units.inginf.male.evaluators.TreeMatcherTest.randomTree;
+
+/**
+ *
+ * @author MaleLabTs
+ */
+public class StripedProjectionTest {
+
+    public StripedProjectionTest() {
+    }
+
+    @Test
+    public void testIsContextFree() {
+        assertTrue(StripedProjection.isContextFree("\\d+(?:\\w*:)+[^$^+]\\.\\+{2}"));
+        assertTrue(StripedProjection.isContextFree("a+?b*?c??[+*]\\Q++\\E"));
+        assertFalse(StripedProjection.isContextFree("\\d+(?:\\w*+:)++[^$^]\\."));
+        assertFalse(StripedProjection.isContextFree("a?+"));
+        assertFalse(StripedProjection.isContextFree("a{2,}+"));
+        assertFalse(StripedProjection.isContextFree("(?>ab|a)b"));
+        assertTrue(StripedProjection.isContextFree("[]^]\\Q^$\\E"));
+        assertFalse(StripedProjection.isContextFree("^\\d+"));
+        assertFalse(StripedProjection.isContextFree("\\d+$"));
+        assertFalse(StripedProjection.isContextFree("\\bab"));
+        assertFalse(StripedProjection.isContextFree("(a)\\1"));
+        assertFalse(StripedProjection.isContextFree("a(?=b)"));
+        assertFalse(StripedProjection.isContextFree("(?<!b)a"));
+    }
+
+    /**
+     * Possessive quantifiers commit, over the full text, to a match which reads past the slice end and fails, while
+     * over the slice they succeed: they are not projected. The same regex without the possessive quantifier is.
+     */
+    @Test
+    public void testPossessiveRegexIsNotProjected() {
+        DataSet dataSet = new DataSet("test");
+        Example example = new Example();
+        example.setString("xxxxabcX");
+        example.addMatchBounds(3, 5);
+        dataSet.getExamples().add(example);
+        DataSet striped = dataSet.initStripedDatasetView(1);
+        assertEquals("xxab", striped.getExamples().get(0).getString());
+        StripedProjection projection = StripedProjection.build(striped, dataSet);
+        assertNotNull(projection);
+
+        assertFalse(StripedProjection.isContextFree("(?:abc|a)++b"));
+        Pattern possessive = Pattern.compile("(?:abc|a)++b");
+        assertEquals(0, evaluate(possessive, dataSet.getExamples()).getMatchesCount(0));
+        assertEquals(1, evaluate(possessive, striped.getExamples()).getMatchesCount(0));
+
+        assertTrue(StripedProjection.isContextFree("(?:abc|a)+b"));
+        Pattern greedy = Pattern.compile("(?:abc|a)+b");
+        EvaluationResults fullResults = evaluate(greedy, dataSet.getExamples());
+        List<Integer> conflicts = projection.conflicts(fullResults);
+        assertTrue(conflicts.isEmpty());
+        EvaluationResults projected = projection.project(fullResults, conflicts, null);
+        assertEquals(evaluate(greedy, striped.getExamples()), projected);
+        assertEquals(1, projected.getMatchesCount(0));
+    }
+
+    /**
+     * Compares the results projected from the full examples with the results of java.util.regex on the
+     * striped examples, for random trees.
+     */
+    @Test
+    public void testProjectionMatchesJavaRegex() {
+        Random random = new Random(7);
+        int projected = 0;
+        for (int i = 0; i < 2000; i++) {
+            Node tree = randomTree(random, 4);
+            String regex = tree.getDescription();
+            if (!StripedProjection.isContextFree(regex)) {
+                continue;
+            }
+            Pattern pattern;
+            try {
+                pattern = Pattern.compile(regex);
+            } catch (RuntimeException ex) {
+                continue;
+            }
+            DataSet dataSet = new DataSet("test");
+            for (int j = 0; j < 3; j++) {
+                Example example = new Example();
+                example.setString(randomText(random) + randomText(random) + randomText(random) + randomText(random));
+                int length = example.getNumberOfChars();
+                int position = 0;
+                while (length - position > 2) {
+                    int start = position + random.nextInt(length - position - 1);
+                    int end = start + 1 + random.nextInt(Math.min(3, length - start));
+                    example.addMatchBounds(start, end);
+                    position = end + 1;
+                }
+                dataSet.getExamples().add(example);
+            }
+            DataSet striped = dataSet.initStripedDatasetView(random.nextDouble() * 2);
+            StripedProjection projection = StripedProjection.build(striped, dataSet);
+            assertNotNull(projection);
+            assertEquals(striped.getNumberExamples(), projection.size());
+
+            EvaluationResults fullResults = evaluate(pattern, dataSet.getExamples());
+            EvaluationResults expected = evaluate(pattern, striped.getExamples());
+            List<Integer> conflicts = projection.conflicts(fullResults);
+            projected += striped.getNumberExamples() - conflicts.size();
+            EvaluationResults conflictResults = evaluate(pattern, projection.getExamples(conflicts));
+            assertEquals(regex, expected, projection.project(fullResults, conflicts, conflictResults));
+        }
+        assertTrue(projected > 0);
+    }
+
+    private static EvaluationResults evaluate(Pattern pattern, List<Example> examples) {
+        EvaluationResults.Builder builder = new EvaluationResults.Builder(examples.size());
+        for (Example example : examples) {
+            Matcher matcher = pattern.matcher(example.getText());
+            while (matcher.find()) {
+                builder.add(matcher.start(), matcher.end());
+            }
+            builder.endExample();
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+package it.units.inginf.male.evaluators;
+
+import it.units.inginf.male.tree.Anchor;
+import it.units.inginf.male.tree.Constant;
+import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.tree.RegexRange;
+import it.units.inginf.male.tree.operator.Backreference;
+import it.units.inginf.male.tree.operator.Concatenator;
+import it.units.inginf.male.tree.operator.Group;
+import it.units.inginf.male.tree.operator.ListMatch;
+import it.units.inginf.male.tree.operator.ListNotMatch;
+import it.units.inginf.male.tree.operator.MatchMinMax;
+import it.units.inginf.male.tree.operator.MatchMinMaxGreedy;
+import it.units.inginf.male.tree.operator.MatchOneOrMore;
+import it.units.inginf.male.tree.operator.MatchOneOrMoreGreedy;
+import it.units.inginf.male.tree.operator.MatchZeroOrMore;
+import it.units.inginf.male.tree.operator.MatchZeroOrMoreGreedy;
+import it.units.inginf.male.tree.operator.MatchZeroOrOne;
+import it.units.inginf.male.tree.operator.MatchZeroOrOneGreedy;
+import it.units.inginf.male.tree.operator.NegativeLookahead;
+import it.units.inginf.male.tree.operator.NegativeLookbehind;
+import it.units.inginf.male.tree.operator.NonCapturingGroup;
+import it.units.inginf.male.tree.operator.Or;
+import it.units.inginf.male.tree.operator.PositiveLookahead;
+import it.units.inginf.male.tree.operator.PositiveLookbehind;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author MaleLabTs
+ */
+public class TreeMatcherTest {
+
+    private static final String[] CONSTANTS = {"a", "b", "ab", "\\d", "\\w", "\\s", ".", "\\.", ":", "-", " ", "\\b"};
+    private static final String[] RANGES = {"a-z", "A-Z", "0-9", "a-b"};
+    private static final String ALPHABET = "abcAB1: .-\n\r";
+
+    public TreeMatcherTest() {
+    }
+
+    /**
+     * Compares the matches found by the TreeMatcher with the ones found by java.util.regex on the
+     * description of random trees.
+     */
+    @Test
+    public void testMatchesJavaRegex() {
+        Random random = new Random(0);
+        int compiled = 0;
+        int trees = 3000;
+        for (int round = 0; round < trees; round++) {
+            Node root = randomTree(random, 4);
+            TreeMatcher treeMatcher = TreeMatcher.compile(root);
+            if (treeMatcher == null) {
+                continue;
+            }
+            compiled++;
+            String regex = root.getDescription();
+            Matcher matcher;
+            try {
+                matcher = Pattern.compile(regex).matcher("");
+            } catch (PatternSyntaxException ex) {
+                fail("Compiled an invalid regex: " + regex);
+                return;
+            }
+            for (int i = 0; i < 20; i++) {
+                String text = randomText(random);
+                EvaluationResults.Builder expected = new EvaluationResults.Builder(1);
+                matcher.reset(text);
+                while (matcher.find()) {
+                    expected.add(matcher.start(), matcher.end());
+                }
+                expected.endExample();
+                EvaluationResults.Builder actual = new EvaluationResults.Builder(1);
+                assertTrue(treeMatcher.findAll(text, actual));
+                actual.endExample();
+                assertEquals(regex + " on \"" + text + "\"", expected.build().toBounds(), actual.build().toBounds());
+            }
+        }
+        assertTrue("Too few supported trees: " + compiled, compiled > trees / 3);
+    }
+
+    static Node randomTree(Random random, int depth) {
+        int choice = depth == 0 ? 0 : random.nextInt(22);
+        switch (choice) {
+            case 0:
+            case 1:
+            case 2:
+                return randomLeaf(random);
+            case 3:
+            case 4:
+                return node(new Concatenator(), randomTree(random, depth - 1), randomTree(random, depth - 1));
+            case 5:
+                return node(new Or(), randomTree(random, depth - 1), randomTree(random, depth - 1));
+            case 6:
+                return node(new Group(), randomTree(random, depth - 1));
+            case 7:
+                return node(new NonCapturingGroup(), randomTree(random, depth - 1));
+            case 8:
+                return node(new ListMatch(), randomTree(random, depth - 1));
+            case 9:
+                return node(new ListNotMatch(), randomTree(random, depth - 1));
+            case 10:
+                return node(new MatchOneOrMore(), randomTree(random, depth - 1));
+            case 11:
+                return node(new MatchZeroOrMore(), randomTree(random, depth - 1));
+            case 12:
+                return node(new MatchZeroOrOne(), randomTree(random, depth - 1));
+            case 13:
+                return node(new MatchOneOrMoreGreedy(), randomTree(random, depth - 1));
+            case 14:
+                return node(new MatchZeroOrMoreGreedy(), randomTree(random, depth - 1));
+            case 15:
+                return node(new MatchZeroOrOneGreedy(), randomTree(random, depth - 1));
+            case 16:
+                return node(new MatchMinMax(), randomTree(random, depth - 1), number(random), number(random));
+            case 17:
+                return node(new MatchMinMaxGreedy(), randomTree(random, depth - 1), number(random), number(random));
+            case 18:
+                return node(new PositiveLookahead(), randomTree(random, depth - 1));
+            case 19:
+                return node(new NegativeLookahead(), randomTree(random, depth - 1));
+            case 20:
+                return node(new PositiveLookbehind(), randomTree(random, depth - 1));
+            default:
+                return node(new NegativeLookbehind(), randomTree(random, depth - 1));
+        }
+    }
+
+    private static Node randomLeaf(Random random) {
+        int choice = random.nextInt(20);
+        if (choice < 14) {
+            return new Constant(CONSTANTS[random.nextInt(CONSTANTS.length)]);
+        }
+        if (choice < 17) {
+            return new RegexRange(RANGES[random.nextInt(RANGES.length)]);
+        }
+        if (choice < 19) {
+            return new Anchor(random.nextBoolean() ? "^" : "$");
+        }
+        return new Backreference(1);
+    }
+
+    private static Node number(Random random) {
+        return new Constant(String.valueOf(random.nextInt(4)));
+    }
+
+    static Node node(Node operator, Node... childrens) {
+        for (Node child : childrens) {
+            operator.getChildrens().add(child);
+            child.setParent(operator);
+        }
+        return operator;
+    }
+
+    static String randomText(Random random) {
+        int length = random.nextInt(12);
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return builder.toString();
+    }
+}
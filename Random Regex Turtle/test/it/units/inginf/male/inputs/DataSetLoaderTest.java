@@ -0,0 +1,60 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+package it.units.inginf.male.inputs;
+
+import com.google.gson.Gson;
+import it.units.inginf.male.inputs.DataSet.Example;
+import java.io.IOException;
+import java.io.StringReader;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author MaleLabTs
+ */
+public class DataSetLoaderTest {
+    
+    public DataSetLoaderTest() {
+    }
+
+    /**
+     * Test of loadJson method, of class DataSetLoader.
+     */
+    @Test
+    public void testLoadJson() throws IOException {
+        String json = "{\"examples\":[{\"string\":\"ab 12\\ncd 3\",\"match\":[{\"start\":3,\"end\":5},{\"end\":10,\"start\":9}],"
+                + "\"unmatch\":[{\"start\":0,\"end\":3}],\"extra\":[1,2]},"
+                + "{\"match\":[],\"string\":\"none\",\"unmatch\":null}],"
+                + "\"name\":\"test\",\"description\":null,\"regexTarget\":\"\\\\d+\"}";
+        //Gson keeps the null lists, the loader keeps the default empty list
+        DataSet expected = new Gson().fromJson(json.replace("null}", "[]}"), DataSet.class);
+        expected.updateStats();
+        DataSet dataSet = DataSetLoader.loadJson(new StringReader(json), true);
+        assertEquals("test", dataSet.getName());
+        assertNull(dataSet.getDescription());
+        assertEquals("\\d+", dataSet.getRegexTarget());
+        assertEquals(2, dataSet.getNumberExamples());
+        for (int i = 0; i < dataSet.getNumberExamples(); i++) {
+            Example example = dataSet.getExamples().get(i);
+            assertEquals(expected.getExamples().get(i).getString(), example.getString());
+            assertEquals(expected.getExamples().get(i).getMatch(), example.getMatch());
+        }
+        assertEquals(expected.getExamples().get(0).getUnmatch(), dataSet.getExamples().get(0).getUnmatch());
+        assertTrue(dataSet.getExamples().get(1).getUnmatch().isEmpty());
+        assertEquals(expected.getNumberMatches(), dataSet.getNumberMatches());
+        assertEquals(expected.getNumberMatchedChars(), dataSet.getNumberMatchedChars());
+        assertEquals(expected.getNumberOfChars(), dataSet.getNumberOfChars());
+        
+        try {
+            DataSetLoader.loadJson(new StringReader("{\"examples\":[{\"string\":\"ab\",\"match\":[{\"start\":1,\"end\":3}]}]}"), false);
+            fail("Bounds outside the example string");
+        } catch (IOException ex) {
+            //expected
+        }
+    }
+}
@@ -84,5 +84,48 @@ public class DataSetTest {
         }
     }
 
+    /**
+     * Test of the "Separate and conquer" reduction, thru DatasetView: unmodified examples are shared
+     * with the parent level, the modified ones are reduced.
+     */
+    @Test
+    public void testSeparateAndConquerReduction() {
+        DataSet dataSet = new DataSet("test", "separate and conquer test", "");
+        Example reduced = new Example();
+        reduced.setString("abc 123 def 456");
+        reduced.getMatch().add(new Bounds(4, 7));
+        reduced.getMatch().add(new Bounds(12, 15));
+        reduced.populateUnmatchesFromMatches();
+        Example unmodified = new Example();
+        unmodified.setString("abc def 789");
+        unmodified.getMatch().add(new Bounds(8, 11));
+        unmodified.populateUnmatchesFromMatches();
+        dataSet.getExamples().add(reduced);
+        dataSet.getExamples().add(unmodified);
+        dataSet.populateAnnotatedStrings();
+        dataSet.updateStats();
+
+        DatasetView view = new DatasetView(dataSet);
+        assertTrue(view.addLevel("123"));
+        DataSet level = view.getLastDataSet(false);
+        assertEquals(2, level.getNumberMatches());
+        assertSame(unmodified, level.getExamples().get(1));
+        Example reducedExample = level.getExamples().get(0);
+        assertNotSame(reduced, reducedExample);
+        assertArrayEquals(new Bounds[]{new Bounds(12, 15)}, reducedExample.getMatch().toArray());
+        assertArrayEquals(new Bounds[]{new Bounds(0, 12)}, reducedExample.getUnmatch().toArray());
+        assertEquals("abc 123 def ", reducedExample.getUnmatchedStrings().get(0));
+        //the parent level is not modified
+        assertEquals(2, reduced.getNumberMatches());
+        assertEquals(3, dataSet.getNumberMatches());
+
+        assertFalse(view.addLevel("xyz"));
+        assertEquals(2, view.getNumberOfLevels());
+        assertSame(reducedExample, view.getLastDataSet(false).getExamples().get(0));
+        view.removeLastLevel();
+        assertSame(level, view.getLastDataSet(false));
+        view.reset();
+        assertSame(dataSet, view.getLastDataSet(false));
+    }
       
 }
@@ -0,0 +1,71 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+package it.units.inginf.male.inputs;
+
+import it.units.inginf.male.inputs.DataSet.Bounds;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author MaleLabTs
+ */
+public class IntervalIndexTest {
+
+    public IntervalIndexTest() {
+    }
+
+    /**
+     * Compares the index queries with the nested loops used by the objectives, on random
+     * disjoint and overlapping intervals.
+     */
+    @Test
+    public void testQueriesMatchNestedLoops() {
+        Random random = new Random(0);
+        for (int round = 0; round < 2000; round++) {
+            boolean disjoint = (round % 2) == 0;
+            List<Bounds> zone = randomBounds(random, disjoint);
+            IntervalIndex index = IntervalIndex.build(zone);
+            assertEquals(zone.size(), index.size());
+            for (int i = 0; i < 30; i++) {
+                int start = random.nextInt(60);
+                int end = start + random.nextInt(8);
+                Bounds extracted = new Bounds(start, end);
+                List<Bounds> zoneCopy = new ArrayList<>(zone);
+                assertEquals(Bounds.countRangesThatCollideZone(Collections.singletonList(extracted), zoneCopy) == 1, index.collides(start, end));
+                assertEquals(zone.contains(extracted), index.contains(start, end));
+                assertEquals(intersection(extracted, zone), index.intersection(start, end));
+            }
+        }
+    }
+
+    private static List<Bounds> randomBounds(Random random, boolean disjoint) {
+        List<Bounds> bounds = new ArrayList<>();
+        int position = 0;
+        int count = random.nextInt(8);
+        for (int i = 0; i < count; i++) {
+            int start = disjoint ? position + random.nextInt(5) : random.nextInt(50);
+            int end = start + random.nextInt(6);
+            bounds.add(new Bounds(start, end));
+            position = end;
+        }
+        Collections.shuffle(bounds, random);
+        return bounds;
+    }
+
+    private static int intersection(Bounds extracted, List<Bounds> expectedRanges) {
+        int overallNumChars = 0;
+        for (Bounds expectedBounds : expectedRanges) {
+            overallNumChars += Math.max(0, Math.min(extracted.end, expectedBounds.end) - Math.max(extracted.start, expectedBounds.start));
+        }
+        return overallNumChars;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+package it.units.inginf.male.inputs;
+
+import it.units.inginf.male.inputs.DataSet.Bounds;
+import it.units.inginf.male.inputs.DataSet.Example;
+import java.io.File;
+import java.io.IOException;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author MaleLabTs
+ */
+public class MappedDataSetTest {
+    
+    public MappedDataSetTest() {
+    }
+
+    /**
+     * Test of the binary dataset round trip, MappedDataSetWriter and MappedDataSet.
+     */
+    @Test
+    public void testWriteAndMap() throws IOException {
+        DataSet dataSet = new DataSet("test", "mapped test", null);
+        String[] strings = {"one 123 two 45", "", "àèì 6789 ù", "no numbers here"};
+        for (String string : strings) {
+            Example example = new Example();
+            example.setString(string);
+            dataSet.getExamples().add(example);
+        }
+        dataSet.getExamples().get(0).addMatchBounds(4, 7);
+        dataSet.getExamples().get(0).addMatchBounds(12, 14);
+        dataSet.getExamples().get(0).addUnmatchBounds(0, 4);
+        dataSet.getExamples().get(2).addMatchBounds(4, 8);
+        dataSet.getExamples().get(3).addUnmatchBounds(0, 15);
+        dataSet.populateAnnotatedStrings();
+        dataSet.updateStats();
+
+        File file = File.createTempFile("dataset", ".bin");
+        try {
+            MappedDataSetWriter.write(dataSet, file);
+            assertTrue(MappedDataSet.isMappedDataSet(file));
+            MappedDataSet mapped = new MappedDataSet(file);
+            assertEquals("test", mapped.getName());
+            assertEquals("mapped test", mapped.getDescription());
+            assertNull(mapped.getRegexTarget());
+            assertEquals(dataSet.getNumberExamples(), mapped.getNumberExamples());
+            assertEquals(dataSet.getNumberOfChars(), mapped.getNumberOfChars());
+            assertEquals(dataSet.getNumberMatchedChars(), mapped.getNumberMatchedChars());
+            assertEquals(dataSet.getNumberUnmatchedChars(), mapped.getNumberUnmatchedChars());
+            for (int i = 0; i < strings.length; i++) {
+                Example expected = dataSet.getExamples().get(i);
+                Example example = mapped.getExamples().get(i);
+                assertEquals(expected.getString(), example.getString());
+                assertEquals(expected.getString(), example.getText().toString());
+                assertEquals(expected.getNumberOfChars(), example.getNumberOfChars());
+                assertEquals(expected.getMatch(), example.getMatch());
+                assertEquals(expected.getUnmatch(), example.getUnmatch());
+                assertEquals(expected.getMatchedStrings(), example.getMatchedStrings());
+                assertEquals(expected.getUnmatchedStrings(), example.getUnmatchedStrings());
+            }
+            
+            //separate and conquer levels share the mapped text
+            DatasetView view = new DatasetView(mapped);
+            view.addLevel("\\d+");
+            Example reduced = view.getLastDataSet(false).getExamples().get(0);
+            assertEquals(strings[0], reduced.getString());
+            assertEquals(0, reduced.getNumberMatches());
+        } finally {
+            file.delete();
+        }
+        assertFalse(MappedDataSet.isMappedDataSet(file));
+    }
+
+    /**
+     * Properties longer than 64KB in UTF-8 (the writeUTF limit) survive the round trip.
+     */
+    @Test
+    public void testLongProperties() throws IOException {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < 30000; i++) {
+            description.append("àè");
+        }
+        DataSet dataSet = new DataSet("test", description.toString(), "\\d+");
+        Example example = new Example();
+        example.setString("one 123");
+        example.addMatchBounds(4, 7);
+        dataSet.getExamples().add(example);
+        dataSet.populateUnmatchesFromMatches();
+        dataSet.updateStats();
+
+        File file = File.createTempFile("dataset", ".bin");
+        try {
+            MappedDataSetWriter.write(dataSet, file);
+            MappedDataSet mapped = new MappedDataSet(file);
+            assertEquals("test", mapped.getName());
+            assertEquals(description.toString(), mapped.getDescription());
+            assertEquals("\\d+", mapped.getRegexTarget());
+            assertEquals(1, mapped.getNumberExamples());
+            assertEquals("one 123", mapped.getExamples().get(0).getString());
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+package it.units.inginf.male.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author MaleLabTs
+ */
+public class MetricsRegistryTest {
+
+    public MetricsRegistryTest() {
+    }
+
+    /**
+     * Metrics are identified by name and labels; a name cannot be reused for another metric type.
+     */
+    @Test
+    public void testRegistration() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter counter = registry.counter("test_total", "help", "phase", "training");
+        assertSame(counter, registry.counter("test_total", "help", "phase", "training"));
+        assertNotSame(counter, registry.counter("test_total", "help", "phase", "validation"));
+        try {
+            registry.histogram("test_total", "help");
+            fail("A counter name has been registered as histogram");
+        } catch (IllegalArgumentException ex) {
+            //expected
+        }
+        try {
+            registry.counter("other_total", "help", "phase");
+            fail("Labels without value have been accepted");
+        } catch (IllegalArgumentException ex) {
+            //expected
+        }
+    }
+
+    @Test
+    public void testConcurrentCounter() throws InterruptedException {
+        final Counter counter = new MetricsRegistry().counter("test_total", "help");
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        counter.increment();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(80000, counter.get());
+    }
+
+    @Test
+    public void testHistogram() {
+        Histogram histogram = new MetricsRegistry().histogram("test_seconds", "help");
+        assertEquals(0, histogram.getQuantileNanos(0.5), 0);
+        long sum = 0;
+        for (int i = 0; i <= 1000; i++) {
+            histogram.record(i);
+            sum += i;
+        }
+        histogram.record(-5);
+        assertEquals(1002, histogram.getCount());
+        assertEquals(sum, histogram.getSumNanos());
+        assertEquals(1000, histogram.getMaxNanos());
+        assertEquals(2, histogram.getBucketCount(0));
+        assertEquals(1, histogram.getBucketCount(1));
+        assertEquals(2, histogram.getBucketCount(2));
+        //power of two buckets: quantiles are approximated by less than a factor two
+        for (double quantile : new double[]{0.1, 0.5, 0.9, 0.99}) {
+            double exact = quantile * 1000;
+            double estimate = histogram.getQuantileNanos(quantile);
+            assertTrue(estimate >= exact / 2 && estimate <= exact * 2);
+        }
+        assertEquals(1000, histogram.getQuantileNanos(1), 0);
+    }
+
+    @Test
+    public void testPrometheusFormat() throws IOException {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("test_total", "Test counter", "phase", "training").add(3);
+        registry.counter("test_total", "Test counter", "phase", "validation").add(4);
+        registry.histogram("test_seconds", "Test histogram").record(1500);
+        registry.gauge("test_bytes", "Test gauge", new Gauge() {
+
+            @Override
+            public double getValue() {
+                return 42;
+            }
+        });
+        StringWriter writer = new StringWriter();
+        registry.writePrometheus(writer);
+        String text = writer.toString();
+        assertEquals(text.indexOf("# TYPE test_total counter\n"), text.lastIndexOf("# TYPE test_total counter\n"));
+        assertTrue(text.contains("test_total{phase=\"training\"} 3\n"));
+        assertTrue(text.contains("test_total{phase=\"validation\"} 4\n"));
+        assertTrue(text.contains("# TYPE test_seconds histogram\n"));
+        assertTrue(text.contains("test_seconds_bucket{le=\"+Inf\"} 1\n"));
+        assertTrue(text.contains("test_seconds_count 1\n"));
+        assertTrue(text.contains("test_bytes 42\n"));
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+package it.units.inginf.male.objective;
+
+import it.units.inginf.male.configuration.Configuration;
+import it.units.inginf.male.configuration.DatasetContainer;
+import it.units.inginf.male.evaluators.EvaluationResults;
+import it.units.inginf.male.generations.Ramped;
+import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.inputs.DataSet;
+import it.units.inginf.male.inputs.DataSet.Example;
+import it.units.inginf.male.tree.Node;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author MaleLabTs
+ */
+public class PartialStatisticsTest {
+
+    public PartialStatisticsTest() {
+    }
+
+    /**
+     * The lower bounds of PrecisionCharmaskLengthObjective never exceed the final fitness.
+     */
+    @Test
+    public void testPrecisionCharmaskLengthLowerBound() {
+        PrecisionCharmaskLengthObjective objective = new PrecisionCharmaskLengthObjective();
+        Context context = newContext(1);
+        objective.setup(context);
+        assertLowerBounds(context, objective);
+    }
+
+    /**
+     * The lower bounds of CharmaskMatchLengthObjective never exceed the final fitness.
+     */
+    @Test
+    public void testCharmaskMatchLengthLowerBound() {
+        CharmaskMatchLengthObjective objective = new CharmaskMatchLengthObjective();
+        Context context = newContext(2);
+        objective.setup(context);
+        assertLowerBounds(context, objective);
+    }
+
+    /**
+     * Streams the examples of random individuals and compares the lower bound, after each example, with the final fitness;
+     * the bound of the context never stops the evaluations.
+     */
+    private static void assertLowerBounds(Context context, Objective objective) {
+        double[] bound = new double[3];
+        Arrays.fill(bound, Double.POSITIVE_INFINITY);
+        context.setDominationBound(bound);
+        DataSet dataSet = context.getCurrentDataSet();
+        List<Node> individuals = new Ramped(5, context).generate(300);
+        int bounds = 0;
+        for (Node individual : individuals) {
+            String regex = individual.getDescription();
+            Pattern pattern;
+            try {
+                pattern = Pattern.compile(regex);
+            } catch (PatternSyntaxException ex) {
+                continue;
+            }
+            PartialStatistics statistics = (objective instanceof PrecisionCharmaskLengthObjective)
+                    ? ((PrecisionCharmaskLengthObjective) objective).statistics(individual)
+                    : ((CharmaskMatchLengthObjective) objective).statistics(individual);
+            EvaluationResults.Builder results = new EvaluationResults.Builder(dataSet.getNumberExamples());
+            List<double[]> lowerBounds = new ArrayList<>();
+            for (int i = 0; i < dataSet.getNumberExamples(); i++) {
+                Matcher matcher = pattern.matcher(dataSet.getExample(i).getText());
+                while (matcher.find()) {
+                    results.add(matcher.start(), matcher.end());
+                }
+                results.endExample();
+                assertTrue(statistics.exampleEvaluated(i, results));
+                double[] lowerBound = statistics.lowerBound();
+                if (lowerBound != null) {
+                    lowerBounds.add(lowerBound);
+                }
+            }
+            assertFalse(statistics.isStopped());
+            double[] fitness = statistics.fitness();
+            for (double[] lowerBound : lowerBounds) {
+                for (int j = 0; j < fitness.length; j++) {
+                    assertFalse(regex, Double.isNaN(fitness[j]));
+                    assertTrue(regex + " objective " + j + ": " + lowerBound[j] + " > " + fitness[j], lowerBound[j] <= fitness[j]);
+                }
+                bounds++;
+            }
+        }
+        assertTrue(bounds > 0);
+    }
+
+    private static Context newContext(long seed) {
+        Random random = new Random(seed);
+        DataSet dataSet = new DataSet("test");
+        for (int i = 0; i < 30; i++) {
+            Example example = new Example();
+            StringBuilder text = new StringBuilder("user").append(random.nextInt(100)).append(" from ");
+            if (random.nextInt(3) != 0) {
+                int start = text.length();
+                text.append(random.nextInt(256)).append('.').append(random.nextInt(256)).append('.').append(random.nextInt(256));
+                example.addMatchBounds(start, text.length());
+            }
+            text.append(" port ").append(random.nextInt(65536)).append(random.nextBoolean() ? ": ok" : ", failed");
+            example.setString(text.toString());
+            dataSet.getExamples().add(example);
+        }
+        dataSet.populateUnmatchesFromMatches();
+        DatasetContainer datasetContainer = new DatasetContainer(dataSet);
+        datasetContainer.setTrainingDataset(dataSet);
+        Configuration configuration = new Configuration();
+        configuration.setInitialSeed(seed);
+        configuration.setDatasetContainer(datasetContainer);
+        return new Context(Context.EvaluationPhases.TRAINING, configuration);
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+package it.units.inginf.male.strategy.impl;
+
+import it.units.inginf.male.configuration.Configuration;
+import it.units.inginf.male.configuration.DatasetContainer;
+import it.units.inginf.male.evaluators.DefaultTreeEvaluator;
+import it.units.inginf.male.evaluators.TreeEvaluationException;
+import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.inputs.DataSet;
+import it.units.inginf.male.inputs.DataSet.Example;
+import it.units.inginf.male.objective.Ranking;
+import it.units.inginf.male.outputs.Results;
+import it.units.inginf.male.strategy.ExecutionListener;
+import it.units.inginf.male.strategy.RunStrategy;
+import it.units.inginf.male.tree.Constant;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author MaleLabTs
+ */
+public class CoolTextualExecutionListenerTest {
+
+    private static final String ANSI_GREEN = "\u001B[32m";
+
+    private PrintStream out;
+    private ByteArrayOutputStream screen;
+
+    public CoolTextualExecutionListenerTest() {
+    }
+
+    @Before
+    public void setUp() {
+        out = System.out;
+        screen = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(screen, true));
+    }
+
+    @After
+    public void tearDown() {
+        System.setOut(out);
+    }
+
+    /**
+     * The last job to finish returns after the final screen has been printed, failed jobs count toward the completion
+     * and the characters of all the generations are accounted.
+     */
+    @Test(timeout = 30000)
+    public void testLastCompletionWaitsForFinalRender() {
+        Configuration configuration = newConfiguration();
+        Results results = new Results(configuration);
+        CoolTextualExecutionListener listener = new CoolTextualExecutionListener("test", configuration, results);
+        Job completed = new Job(configuration, 0, listener);
+        Job failed = new Job(configuration, 1, listener);
+        listener.evolutionStarted(completed);
+        listener.evolutionStarted(failed);
+        long characters = 0;
+        for (int generation = 1; generation <= 3; generation++) {
+            characters += completed.logGeneration(generation);
+            characters += failed.logGeneration(generation);
+        }
+        listener.evolutionFailed(failed, new TreeEvaluationException("failed"));
+        listener.evolutionComplete(completed, 3, completed.population);
+
+        String text = screen.toString();
+        //the line of a completed job turns green only when its completion has been processed, that is the final render
+        assertTrue(text.contains(ANSI_GREEN + "["));
+        assertTrue(text.contains("| 1/2 |"));
+        assertTrue(text.contains("Best: "));
+        assertEquals(characters, results.getCharacterEvaluations());
+    }
+
+    /**
+     * When the evolution is stopped, the generations still queued and the ones logged later are accounted.
+     */
+    @Test(timeout = 30000)
+    public void testStoppedListenerAccountsCharacters() {
+        Configuration configuration = newConfiguration();
+        Results results = new Results(configuration);
+        CoolTextualExecutionListener listener = new CoolTextualExecutionListener("test", configuration, results);
+        Job job = new Job(configuration, 0, listener);
+        listener.evolutionStarted(job);
+        long characters = 0;
+        for (int generation = 1; generation <= 100; generation++) {
+            characters += job.logGeneration(generation);
+        }
+        listener.evolutionStopped();
+        for (int generation = 101; generation <= 103; generation++) {
+            characters += job.logGeneration(generation);
+        }
+        assertEquals(characters, results.getCharacterEvaluations());
+    }
+
+    private static Configuration newConfiguration() {
+        DataSet dataSet = new DataSet("test");
+        for (int i = 0; i < 10; i++) {
+            Example example = new Example();
+            String text = "user" + i + " from 10.0." + i + ".1 port 22";
+            example.setString(text);
+            example.addMatchBounds(text.indexOf("10."), text.indexOf(" port"));
+            dataSet.getExamples().add(example);
+        }
+        dataSet.populateUnmatchesFromMatches();
+        Configuration configuration = new Configuration();
+        configuration.setJobs(2);
+        configuration.getEvolutionParameters().setGenerations(3);
+        configuration.setOutputFolder(new File("test"));
+        configuration.setDatasetContainer(new DatasetContainer(dataSet, true));
+        configuration.setEvaluator(new DefaultTreeEvaluator());
+        return configuration;
+    }
+
+    /**
+     * Logs generations of a fixed population on behalf of a job
+     */
+    private static class Job implements RunStrategy {
+
+        private final Configuration configuration;
+        private final Context context;
+        private final ExecutionListener listener;
+        private final List<Ranking> population = new ArrayList<>();
+
+        Job(Configuration configuration, int jobId, ExecutionListener listener) {
+            this.configuration = new Configuration(configuration);
+            this.configuration.setJobId(jobId);
+            this.context = new Context(Context.EvaluationPhases.TRAINING, this.configuration);
+            this.listener = listener;
+            population.add(new Ranking(new Constant("\\d++\\.\\d++\\.\\d++\\.\\d++"), new double[]{0, 0, 22}));
+            population.add(new Ranking(new Constant("\\d++"), new double[]{0.5, 10, 4}));
+        }
+
+        /**
+         * @return the characters accounted by the listener for the generation
+         */
+        long logGeneration(int generation) {
+            Ranking best = population.get(0);
+            listener.logGeneration(this, generation, best.getTree(), best.getFitness(), population);
+            return context.getCurrentDataSet().getNumberOfChars() * (long) population.size();
+        }
+
+        @Override
+        public void setup(Configuration configuration, ExecutionListener executionListener) {
+        }
+
+        @Override
+        public Configuration getConfiguration() {
+            return configuration;
+        }
+
+        @Override
+        public ExecutionListener getExecutionListener() {
+            return listener;
+        }
+
+        @Override
+        public Context getContext() {
+            return context;
+        }
+
+        @Override
+        public Void call() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+package it.units.inginf.male.strategy.impl;
+
+import it.units.inginf.male.configuration.Configuration;
+import it.units.inginf.male.configuration.DatasetContainer;
+import it.units.inginf.male.evaluators.DefaultTreeEvaluator;
+import it.units.inginf.male.evaluators.EvaluationMonitor;
+import it.units.inginf.male.evaluators.EvaluationResults;
+import it.units.inginf.male.evaluators.TreeEvaluationException;
+import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.inputs.DataSet;
+import it.units.inginf.male.inputs.DataSet.Example;
+import it.units.inginf.male.objective.CharmaskMatchLengthObjective;
+import it.units.inginf.male.objective.Objective;
+import it.units.inginf.male.objective.PrecisionCharmaskLengthObjective;
+import it.units.inginf.male.objective.Ranking;
+import it.units.inginf.male.strategy.ExecutionListener;
+import it.units.inginf.male.strategy.RunStrategy;
+import it.units.inginf.male.tree.Node;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author MaleLabTs
+ */
+public class DiversityElitarismStrategyTest {
+
+    public DiversityElitarismStrategyTest() {
+    }
+
+    /**
+     * With the same seed, the survivors of every generation (regex, fitness and order) do not depend on the domination pruning.
+     * The pruning has to stop some evaluations, otherwise the test is meaningless.
+     */
+    @Test
+    public void testDominationPruningKeepsSurvivors() throws TreeEvaluationException {
+        int stopped = 0;
+        for (Objective objective : new Objective[]{new CharmaskMatchLengthObjective(), new PrecisionCharmaskLengthObjective()}) {
+            for (long seed = 1; seed <= 2; seed++) {
+                CountingEvaluator fullEvaluator = new CountingEvaluator();
+                List<List<String>> full = run(seed, objective, false, fullEvaluator);
+                CountingEvaluator prunedEvaluator = new CountingEvaluator();
+                List<List<String>> pruned = run(seed, objective, true, prunedEvaluator);
+                assertEquals(0, fullEvaluator.stopped);
+                stopped += prunedEvaluator.stopped;
+                assertEquals(full.size(), pruned.size());
+                for (int generation = 0; generation < full.size(); generation++) {
+                    assertEquals("Generation " + generation, full.get(generation), pruned.get(generation));
+                }
+            }
+        }
+        assertTrue(stopped > 0);
+    }
+
+    /**
+     * @return the survivors of each generation, described by regex and fitness
+     */
+    private static List<List<String>> run(long seed, Objective objective, boolean dominationPruning, CountingEvaluator evaluator) throws TreeEvaluationException {
+        Configuration configuration = new Configuration();
+        configuration.setInitialSeed(seed);
+        configuration.setObjective(objective.cloneObjective());
+        configuration.getEvolutionParameters().setPopulationSize(20);
+        configuration.getEvolutionParameters().setGenerations(50);
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("dominationPruning", String.valueOf(dominationPruning));
+        configuration.setStrategyParameters(parameters);
+        DataSet dataSet = newDataSet(seed);
+        DatasetContainer datasetContainer = new DatasetContainer(dataSet);
+        datasetContainer.createDefaultRanges((int) seed);
+        dataSet.updateStats();
+        configuration.setDatasetContainer(datasetContainer);
+        configuration.setEvaluator(evaluator);
+        configuration.setup();
+
+        final List<List<String>> generations = new ArrayList<>();
+        DiversityElitarismStrategy strategy = new DiversityElitarismStrategy();
+        strategy.setup(configuration, new ExecutionListener() {
+
+            @Override
+            public void evolutionStarted(RunStrategy strategy) {
+            }
+
+            @Override
+            public void logGeneration(RunStrategy strategy, int generation, Node best, double[] fitness, List<Ranking> population) {
+                List<String> survivors = new ArrayList<>(population.size());
+                for (Ranking ranking : population) {
+                    survivors.add(ranking.getDescription() + " " + Arrays.toString(ranking.getFitness()));
+                }
+                generations.add(survivors);
+            }
+
+            @Override
+            public void evolutionComplete(RunStrategy strategy, int generation, List<Ranking> population) {
+            }
+
+            @Override
+            public void evolutionFailed(RunStrategy strategy, TreeEvaluationException cause) {
+                fail(cause.getMessage());
+            }
+
+            @Override
+            public void evolutionStopped() {
+            }
+        });
+        strategy.call();
+        assertFalse(generations.isEmpty());
+        return generations;
+    }
+
+    private static DataSet newDataSet(long seed) {
+        Random random = new Random(seed);
+        DataSet dataSet = new DataSet("test");
+        for (int i = 0; i < 40; i++) {
+            Example example = new Example();
+            StringBuilder text = new StringBuilder("user").append(random.nextInt(100)).append(" from ");
+            if (random.nextInt(3) != 0) {
+                int start = text.length();
+                text.append(random.nextInt(256)).append('.').append(random.nextInt(256)).append('.').append(random.nextInt(256));
+                example.addMatchBounds(start, text.length());
+            }
+            text.append(" port ").append(random.nextInt(65536)).append(random.nextBoolean() ? ": ok" : ", failed");
+            example.setString(text.toString());
+            dataSet.getExamples().add(example);
+        }
+        dataSet.populateUnmatchesFromMatches();
+        return dataSet;
+    }
+
+    /**
+     * Counts the streamed evaluations stopped before the end of the dataset
+     */
+    private static class CountingEvaluator extends DefaultTreeEvaluator {
+
+        private int stopped = 0;
+
+        @Override
+        public EvaluationResults evaluate(Node root, Context context, EvaluationMonitor monitor) throws TreeEvaluationException {
+            EvaluationResults results = super.evaluate(root, context, monitor);
+            if (results.getExamplesCount() < context.getCurrentDataSetLength()) {
+                stopped++;
+            }
+            return results;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+package it.units.inginf.male.utils;
+
+import it.units.inginf.male.objective.Ranking;
+import it.units.inginf.male.tree.Constant;
+import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.tree.operator.Concatenator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author MaleLabTs
+ */
+public class UtilsTest {
+
+    public UtilsTest() {
+    }
+
+    /**
+     * Compares the fast non dominated sorting with the repeated extraction of the first Pareto front,
+     * fitness values are drawn from a small range in order to have many ties.
+     */
+    @Test
+    public void testParetoFrontsMatchRepeatedFirstFront() {
+        Random random = new Random(0);
+        for (int round = 0; round < 200; round++) {
+            List<Ranking> population = new ArrayList<>();
+            int size = random.nextInt(60);
+            for (int i = 0; i < size; i++) {
+                double[] fitness = new double[3];
+                for (int k = 0; k < fitness.length; k++) {
+                    fitness[k] = random.nextInt(6);
+                }
+                population.add(new Ranking(new Constant(String.valueOf(i)), fitness));
+            }
+            List<List<Ranking>> expected = new ArrayList<>();
+            List<Ranking> tmp = new ArrayList<>(population);
+            while (tmp.size() > 0) {
+                List<Ranking> front = Utils.getFirstParetoFront(tmp);
+                tmp.removeAll(front);
+                expected.add(front);
+            }
+            assertEquals(expected, Utils.getParetoFronts(population));
+        }
+    }
+
+    /**
+     * Clones are structurally equal; trees with the same regex but different structure are not.
+     */
+    @Test
+    public void testStructuralDiversity() {
+        Node left = concatenate(concatenate(new Constant("a"), new Constant("b")), new Constant("c"));
+        Node right = concatenate(new Constant("a"), concatenate(new Constant("b"), new Constant("c")));
+        Node clone = left.cloneTree();
+        assertEquals(left.getDescription(), right.getDescription());
+        assertTrue(left.structurallyEquals(clone));
+        assertEquals(left.getStructuralHash(), clone.getStructuralHash());
+        assertFalse(left.structurallyEquals(right));
+        List<Ranking> population = new ArrayList<>();
+        for (Node node : new Node[]{left, right, clone}) {
+            population.add(new Ranking(node, new double[]{0}));
+        }
+        assertEquals(100 / 3.0, Utils.diversity(population), 1e-9);
+        assertEquals(200 / 3.0, Utils.structuralDiversity(population), 1e-9);
+    }
+
+    private static Node concatenate(Node first, Node second) {
+        Node concatenator = new Concatenator();
+        concatenator.getChildrens().add(first);
+        concatenator.getChildrens().add(second);
+        first.setParent(concatenator);
+        second.setParent(concatenator);
+        return concatenator;
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs the JMH benchmarks on the requested datasets and on synthetic datasets of growing size, and saves the JMH
+ * JSON report. Benchmarks are run in throughput mode, in forked JVMs (which inherit the arguments of this JVM),
+ * one thread at a time; the GC profiler reports the allocation rate (gc.alloc.rate.norm is in bytes per operation).
+ * The benchmarks which scan the dataset also report the chars per second, as the "chars" secondary result.
+ * The JMH command line (org.openjdk.jmh.Main) can be used as well, the benchmark list is in the jar.
+ * @author MaleLabTs
+ */
+public class BenchmarkRunner {
+
+    private static final String HELP_MESSAGE
+            = "Usage:\n"
+            + "java -jar RegexTurtleBenchmark.jar [-d datasets] [-s sizes] [-p popSize] [-w warmups] [-i iterations] [-t millis] [-f forks] [-b regex] [-r seed] [-o output]\n"
+            + "-d comma separated list of dataset files, json or binary (default: ../ConsoleRegexTurtle/testdataset/reduced.json); use \"\" for none\n"
+            + "-s comma separated list of synthetic dataset sizes, in examples (default: 1000,10000,100000); use \"\" for none\n"
+            + "-p population size of the fixtures (default: 100)\n"
+            + "-w number of warm up iterations (default: 3)\n"
+            + "-i number of measured iterations (default: 5)\n"
+            + "-t iteration time in milliseconds (default: 1000)\n"
+            + "-f number of forked JVMs per benchmark (default: 1)\n"
+            + "-b runs only the benchmarks whose name, e.g. EvaluationBenchmark.evaluate, matches the regular expression (default: all)\n"
+            + "-r seed of the fixtures and of the synthetic datasets (default: 0)\n"
+            + "-o output JSON file (default: benchmark.json)\n"
+            + "-h visualizes this help message\n";
+
+    private String datasets = "../ConsoleRegexTurtle/testdataset/reduced.json";
+    private String sizes = "1000,10000,100000";
+    private int populationSize = 100;
+    private int warmupIterations = 3;
+    private int iterations = 5;
+    private long iterationMillis = 1000;
+    private int forks = 1;
+    private String filter = ".*";
+    private long seed = 0;
+    private String output = "benchmark.json";
+
+    /**
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        BenchmarkRunner runner = new BenchmarkRunner();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (option.equals("-h")) {
+                    System.out.println(HELP_MESSAGE);
+                    System.exit(0);
+                }
+                i = i + 1;
+                String parameter = args[i];
+                switch (option) {
+                    case "-d":
+                        runner.datasets = parameter;
+                        break;
+                    case "-s":
+                        runner.sizes = parameter;
+                        break;
+                    case "-p":
+                        runner.populationSize = Integer.valueOf(parameter);
+                        break;
+                    case "-w":
+                        runner.warmupIterations = Integer.valueOf(parameter);
+                        break;
+                    case "-i":
+                        runner.iterations = Integer.valueOf(parameter);
+                        break;
+                    case "-t":
+                        runner.iterationMillis = Long.valueOf(parameter);
+                        break;
+                    case "-f":
+                        runner.forks = Integer.valueOf(parameter);
+                        break;
+                    case "-b":
+                        runner.filter = parameter;
+                        break;
+                    case "-r":
+                        runner.seed = Long.valueOf(parameter);
+                        break;
+                    case "-o":
+                        runner.output = parameter;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + option);
+                }
+            }
+            if (runner.forks < 1) {
+                throw new IllegalArgumentException("At least a forked JVM is needed");
+            }
+        } catch (RuntimeException ex) {
+            System.out.println("Problem parsing commandline parameters.\n" + HELP_MESSAGE);
+            System.out.println("Error details:" + ex.toString());
+            System.exit(1);
+        }
+        try {
+            runner.run();
+        } catch (Exception ex) {
+            Logger.getLogger(BenchmarkRunner.class.getName()).log(Level.SEVERE, null, ex);
+            System.exit(1);
+        }
+    }
+
+    private void run() throws Exception {
+        List<String> datasetParameters = split(datasets);
+        for (String size : split(sizes)) {
+            datasetParameters.add(FixtureState.SYNTHETIC_PREFIX + Integer.valueOf(size));
+        }
+        if (datasetParameters.isEmpty()) {
+            throw new IllegalArgumentException("No datasets");
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(filter)
+                .param("dataset", datasetParameters.toArray(new String[datasetParameters.size()]))
+                .param("populationSize", String.valueOf(populationSize))
+                .param("seed", String.valueOf(seed))
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .warmupIterations(warmupIterations)
+                .measurementIterations(iterations)
+                .warmupTime(TimeValue.milliseconds(iterationMillis))
+                .measurementTime(TimeValue.milliseconds(iterationMillis))
+                .forks(forks)
+                .threads(1)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(output);
+        new Runner(options.build()).run();
+        System.out.println("Results saved into " + output);
+    }
+
+    private static List<String> split(String list) {
+        List<String> values = new ArrayList<>();
+        for (String value : list.split(",")) {
+            if (!value.trim().isEmpty()) {
+                values.add(value.trim());
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.benchmark;
+
+import it.units.inginf.male.evaluators.DefaultTreeEvaluator;
+import it.units.inginf.male.evaluators.TreeEvaluationException;
+import it.units.inginf.male.evaluators.TreeEvaluator;
+import it.units.inginf.male.inputs.Context;
+import java.util.HashMap;
+import java.util.Map;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Evaluation of the individuals by a DefaultTreeEvaluator, with java.util.regex ("regex"), the interpreter or the
+ * automaton; the results are not cached.
+ * @author MaleLabTs
+ */
+@State(Scope.Thread)
+public class EvaluationBenchmark {
+
+    @Param({"regex", "interpreter", "automaton"})
+    public String matcher;
+
+    private TreeEvaluator evaluator;
+    private Context context;
+    private long chars;
+
+    @Setup(Level.Trial)
+    public void setup(FixtureState state) {
+        Map<String, String> parameters = new HashMap<>();
+        switch (matcher) {
+            case "regex":
+                break;
+            case "interpreter":
+                parameters.put(DefaultTreeEvaluator.INTERPRETER_KEY, "true");
+                break;
+            case "automaton":
+                parameters.put(DefaultTreeEvaluator.AUTOMATON_KEY, "true");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown matcher " + matcher);
+        }
+        evaluator = new DefaultTreeEvaluator();
+        evaluator.setup(parameters);
+        context = state.getFixture().getContext();
+        chars = state.getFixture().getDataset().getNumberOfChars();
+    }
+
+    @Benchmark
+    public Object evaluate(Individuals individuals, ScannedChars scannedChars) {
+        scannedChars.chars += chars;
+        try {
+            return evaluator.evaluate(individuals.next(), context);
+        } catch (TreeEvaluationException ex) {
+            return ex;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.benchmark;
+
+import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.objective.CharmaskMatchLengthObjective;
+import it.units.inginf.male.objective.FlaggingAccuracyPrecisionLengthObjective;
+import it.units.inginf.male.objective.Objective;
+import it.units.inginf.male.objective.PrecisionCharmaskLengthObjective;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Fitness of the individuals; the fixture evaluator is not cached, so the evaluation is measured too.
+ * @author MaleLabTs
+ */
+@State(Scope.Thread)
+public class FitnessBenchmark {
+
+    @Param({"precisionCharmaskLength", "charmaskMatchLength", "flaggingAccuracyPrecisionLength"})
+    public String objective;
+
+    private Objective instance;
+    private long chars;
+
+    @Setup(Level.Trial)
+    public void setup(FixtureState state) {
+        switch (objective) {
+            case "precisionCharmaskLength":
+                instance = new PrecisionCharmaskLengthObjective();
+                break;
+            case "charmaskMatchLength":
+                instance = new CharmaskMatchLengthObjective();
+                break;
+            case "flaggingAccuracyPrecisionLength":
+                instance = new FlaggingAccuracyPrecisionLengthObjective();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown objective " + objective);
+        }
+        instance.setup(new Context(state.getFixture().getContext()));
+        chars = state.getFixture().getDataset().getNumberOfChars();
+    }
+
+    @Benchmark
+    public double[] fitness(Individuals individuals, ScannedChars scannedChars) {
+        scannedChars.chars += chars;
+        return instance.fitness(individuals.next());
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.benchmark;
+
+import it.units.inginf.male.configuration.Configuration;
+import it.units.inginf.male.configuration.DatasetContainer;
+import it.units.inginf.male.evaluators.DefaultTreeEvaluator;
+import it.units.inginf.male.evaluators.TreeEvaluator;
+import it.units.inginf.male.generations.Ramped;
+import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.inputs.DataSet;
+import it.units.inginf.male.objective.Objective;
+import it.units.inginf.male.objective.Ranking;
+import it.units.inginf.male.tree.Node;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The state shared by the benchmarks of a dataset: the configuration (built like the console one), a training
+ * context and an evaluated initial population.
+ * The configuration evaluator is a DefaultTreeEvaluator, the fitness benchmarks measure the evaluation and not
+ * the cache lookups.
+ * The fixture is created outside of the measured code and the benchmarks must not modify it, apart from the
+ * context random generator.
+ * @author MaleLabTs
+ */
+public class Fixture {
+
+    private final String name;
+    private final DataSet dataset;
+    private final Configuration configuration;
+    private final Context context;
+    private final List<Node> population;
+    private final List<Ranking> rankings;
+
+    /**
+     * @param name the dataset name, used in the reports
+     * @param dataset the dataset, the unmatches are populated from matches
+     * @param seed the configuration initial seed
+     * @param populationSize the population size
+     */
+    public Fixture(String name, DataSet dataset, long seed, int populationSize) {
+        this.name = name;
+        this.dataset = dataset;
+        configuration = new Configuration();
+        configuration.setConfigName("Benchmark config");
+        configuration.setInitialSeed(seed);
+        configuration.getEvolutionParameters().setPopulationSize(populationSize);
+        dataset.populateUnmatchesFromMatches();
+        DatasetContainer datasetContainer = new DatasetContainer(dataset);
+        datasetContainer.createDefaultRanges((int) configuration.getInitialSeed());
+        dataset.updateStats();
+        configuration.setDatasetContainer(datasetContainer);
+        configuration.setup();
+        TreeEvaluator evaluator = new DefaultTreeEvaluator();
+        evaluator.setup(configuration.getEvaluatorParameters());
+        configuration.setEvaluator(evaluator);
+
+        context = new Context(Context.EvaluationPhases.TRAINING, configuration);
+        population = new ArrayList<>(configuration.getPopulationBuilder().init(context));
+        if (population.size() < populationSize) {
+            population.addAll(new Ramped(getMaxDepth(), context).generate(populationSize - population.size()));
+        }
+        Objective objective = configuration.getObjective();
+        objective.setup(context);
+        rankings = new ArrayList<>(population.size());
+        for (Node individual : population) {
+            rankings.add(new Ranking(individual, objective.fitness(individual)));
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSet getDataset() {
+        return dataset;
+    }
+
+    public Configuration getConfiguration() {
+        return configuration;
+    }
+
+    public Context getContext() {
+        return context;
+    }
+
+    public List<Node> getPopulation() {
+        return population;
+    }
+
+    /**
+     * @return the rankings of the population, in population order
+     */
+    public List<Ranking> getRankings() {
+        return rankings;
+    }
+
+    public int getMaxDepth() {
+        return configuration.getEvolutionParameters().getCreationMaxDepth();
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.benchmark;
+
+import it.units.inginf.male.inputs.DataSet;
+import it.units.inginf.male.inputs.DataSetLoader;
+import java.io.File;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The {@link Fixture} shared by the benchmarks of a trial. The dataset parameter is a dataset file, json or binary,
+ * or "synthetic-" followed by the number of examples of a {@link SyntheticDataSet}.
+ * The fixture is built before the warm up, in the forked JVM, and it is not measured.
+ * @author MaleLabTs
+ */
+@State(Scope.Benchmark)
+public class FixtureState {
+
+    public static final String SYNTHETIC_PREFIX = "synthetic-";
+
+    @Param({"../ConsoleRegexTurtle/testdataset/reduced.json", "synthetic-1000", "synthetic-10000", "synthetic-100000"})
+    public String dataset;
+    @Param({"100"})
+    public int populationSize;
+    @Param({"0"})
+    public long seed;
+
+    private Fixture fixture;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        String name;
+        DataSet dataSet;
+        if (dataset.startsWith(SYNTHETIC_PREFIX)) {
+            name = dataset;
+            dataSet = SyntheticDataSet.generate(Integer.valueOf(dataset.substring(SYNTHETIC_PREFIX.length())), seed);
+        } else {
+            File file = new File(dataset);
+            name = file.getName();
+            dataSet = DataSetLoader.load(file, true);
+        }
+        System.out.println("Dataset " + name + ": " + dataSet.getNumberExamples() + " examples, " + dataSet.getNumberOfChars() + " chars");
+        fixture = new Fixture(name, dataSet, seed, populationSize);
+    }
+
+    public Fixture getFixture() {
+        return fixture;
+    }
+}
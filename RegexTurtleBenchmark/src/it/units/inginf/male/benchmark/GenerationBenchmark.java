@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.benchmark;
+
+import it.units.inginf.male.generations.Generation;
+import it.units.inginf.male.generations.Growth;
+import it.units.inginf.male.generations.Ramped;
+import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.tree.Node;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Generation of new individuals: one growth individual, or a ramped population as big as the fixture one.
+ * @author MaleLabTs
+ */
+@State(Scope.Thread)
+public class GenerationBenchmark {
+
+    private Generation growth;
+    private Generation ramped;
+    private int size;
+
+    @Setup(Level.Trial)
+    public void setup(FixtureState state) {
+        Fixture fixture = state.getFixture();
+        growth = new Growth(fixture.getMaxDepth(), new Context(fixture.getContext()));
+        ramped = new Ramped(fixture.getMaxDepth(), new Context(fixture.getContext()));
+        size = fixture.getPopulation().size();
+    }
+
+    @Benchmark
+    public List<Node> growth() {
+        return growth.generate(1);
+    }
+
+    @Benchmark
+    public List<Node> ramped() {
+        return ramped.generate(size);
+    }
+}
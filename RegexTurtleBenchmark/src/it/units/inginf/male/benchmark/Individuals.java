@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.benchmark;
+
+import it.units.inginf.male.tree.Node;
+import java.util.List;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cycles thru the fixture population, the benchmarks which work on an individual take one individual per operation.
+ * @author MaleLabTs
+ */
+@State(Scope.Thread)
+public class Individuals {
+
+    private List<Node> population;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setup(FixtureState state) {
+        population = state.getFixture().getPopulation();
+        next = 0;
+    }
+
+    public Node next() {
+        Node individual = population.get(next);
+        next = (next + 1) % population.size();
+        return individual;
+    }
+}
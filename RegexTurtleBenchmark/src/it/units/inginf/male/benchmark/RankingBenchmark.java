@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.benchmark;
+
+import it.units.inginf.male.objective.Ranking;
+import it.units.inginf.male.utils.Utils;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Pareto ranking of the fixture population.
+ * @author MaleLabTs
+ */
+@State(Scope.Thread)
+public class RankingBenchmark {
+
+    private List<Ranking> rankings;
+
+    @Setup(Level.Trial)
+    public void setup(FixtureState state) {
+        rankings = state.getFixture().getRankings();
+    }
+
+    @Benchmark
+    public List<Ranking> firstParetoFront() {
+        return Utils.getFirstParetoFront(rankings);
+    }
+
+    @Benchmark
+    public List<List<Ranking>> paretoFronts() {
+        return Utils.getParetoFronts(rankings);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.benchmark;
+
+import it.units.inginf.male.inputs.DatasetView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Separate and conquer reduction of the dataset by the best individual of the fixture; every operation adds a level
+ * and removes it.
+ * @author MaleLabTs
+ */
+@State(Scope.Thread)
+public class SeparateAndConquerBenchmark {
+
+    private DatasetView view;
+    private String regex;
+    private long chars;
+
+    @Setup(Level.Trial)
+    public void setup(FixtureState state) {
+        Fixture fixture = state.getFixture();
+        view = new DatasetView(fixture.getDataset());
+        regex = fixture.getRankings().get(0).getDescription();
+        chars = fixture.getDataset().getNumberOfChars();
+    }
+
+    @Benchmark
+    public boolean addLevel(ScannedChars scannedChars) {
+        scannedChars.chars += chars;
+        boolean modified = view.addLevel(regex);
+        view.removeLastLevel();
+        return modified;
+    }
+}
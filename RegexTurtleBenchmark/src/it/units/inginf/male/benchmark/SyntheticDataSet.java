@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.benchmark;
+
+import it.units.inginf.male.inputs.DataSet;
+import it.units.inginf.male.inputs.DataSet.Example;
+import java.util.Random;
+
+/**
+ * Generates synthetic, reproducible, datasets of arbitrary size: every example is a line of a sshd-like log and
+ * the IPv4 addresses are annotated as matches. About one example in four has no address (no matches).
+ * The same size and seed always produce the same dataset.
+ * @author MaleLabTs
+ */
+public class SyntheticDataSet {
+
+    private static final String[] USERS = {"root", "admin", "guest", "oracle", "test", "user", "ftp", "postgres"};
+    private static final String[] MONTHS = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+
+    private SyntheticDataSet() {
+    }
+
+    /**
+     * @param numberExamples the number of examples (lines)
+     * @param seed the random generator seed
+     * @return the dataset with updated stats, the unmatches are not populated
+     */
+    public static DataSet generate(int numberExamples, long seed) {
+        Random random = new Random(seed);
+        DataSet dataset = new DataSet("synthetic-" + numberExamples, "Synthetic sshd log, IPv4 addresses extraction", null);
+        for (int i = 0; i < numberExamples; i++) {
+            StringBuilder line = new StringBuilder();
+            line.append(MONTHS[random.nextInt(MONTHS.length)]).append(' ').append(1 + random.nextInt(28)).append(' ')
+                    .append(String.format("%02d:%02d:%02d", random.nextInt(24), random.nextInt(60), random.nextInt(60)))
+                    .append(" host").append(random.nextInt(100)).append(" sshd[").append(1000 + random.nextInt(60000)).append("]: ");
+            String user = USERS[random.nextInt(USERS.length)];
+            Example example = new Example();
+            if (random.nextInt(4) == 0) {
+                line.append("pam_unix(sshd:session): session opened for user ").append(user).append(" by (uid=0)");
+            } else {
+                line.append(random.nextBoolean() ? "Failed password for " : "Accepted password for ").append(user).append(" from ");
+                int start = line.length();
+                line.append(random.nextInt(256)).append('.').append(random.nextInt(256)).append('.')
+                        .append(random.nextInt(256)).append('.').append(random.nextInt(256));
+                example.addMatchBounds(start, line.length());
+                line.append(" port ").append(1024 + random.nextInt(64000)).append(" ssh2");
+            }
+            example.setString(line.toString());
+            dataset.getExamples().add(example);
+        }
+        dataset.updateStats();
+        return dataset;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.benchmark;
+
+import it.units.inginf.male.configuration.Configuration;
+import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.terminalsets.FlaggingNgramsTerminalSetBuilder;
+import it.units.inginf.male.terminalsets.TerminalSetBuilder;
+import it.units.inginf.male.terminalsets.TokenizedContextTerminalSetBuilder;
+import it.units.inginf.male.terminalsets.TokenizedTerminalSetBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Builds the terminal set of a job; every operation starts from the node factory of the configuration.
+ * @author MaleLabTs
+ */
+@State(Scope.Thread)
+public class TerminalSetBenchmark {
+
+    @Param({"tokenized", "tokenizedContext", "flaggingNgrams"})
+    public String builder;
+
+    private TerminalSetBuilder instance;
+    private Context context;
+
+    @Setup(Level.Trial)
+    public void setup(FixtureState state) {
+        switch (builder) {
+            case "tokenized":
+                instance = new TokenizedTerminalSetBuilder();
+                break;
+            case "tokenizedContext":
+                instance = new TokenizedContextTerminalSetBuilder();
+                break;
+            case "flaggingNgrams":
+                instance = new FlaggingNgramsTerminalSetBuilder();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown terminal set builder " + builder);
+        }
+        context = new Context(Context.EvaluationPhases.TRAINING, new Configuration(state.getFixture().getConfiguration()));
+    }
+
+    @Benchmark
+    public Object build() {
+        instance.setup(context);
+        return context.getConfiguration().getNodeFactory();
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2015 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.benchmark;
+
+import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.utils.Pair;
+import it.units.inginf.male.variations.Variation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Variation operators on the individuals of the fixture population.
+ * @author MaleLabTs
+ */
+@State(Scope.Thread)
+public class VariationBenchmark {
+
+    private Variation variation;
+
+    @Setup(Level.Trial)
+    public void setup(FixtureState state) {
+        variation = new Variation(new Context(state.getFixture().getContext()));
+    }
+
+    @Benchmark
+    public Pair<Node, Node> crossover(Individuals individuals) {
+        return variation.crossover(individuals.next(), individuals.next());
+    }
+
+    @Benchmark
+    public Node mutate(Individuals individuals) {
+        return variation.mutate(individuals.next());
+    }
+}